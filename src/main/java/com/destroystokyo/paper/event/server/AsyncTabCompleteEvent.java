@@ -31,8 +31,10 @@ import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Allows plugins to compute tab completion results asynchronously. If this event provides completions, then the standard synchronous process will not be fired to populate the results. However, the synchronous TabCompleteEvent will fire with the Async results.
@@ -48,6 +50,11 @@ public class AsyncTabCompleteEvent extends Event implements Cancellable {
     private boolean cancelled;
     private boolean handled = false;
     private boolean fireSyncHandler = true;
+    // Solar start
+    private static final TabCompletionCache completionCache = new TabCompletionCache();
+    private Duration cacheTtl;
+    private Set<String> cacheTags = Set.of();
+    // Solar end
 
     public AsyncTabCompleteEvent(CommandSender sender, List<String> completions, String buffer, boolean isCommand, Location loc) {
         super(true);
@@ -140,6 +147,60 @@ public class AsyncTabCompleteEvent extends Event implements Cancellable {
         this.handled = handled;
     }
 
+    // Solar start
+    /**
+     * Declares the completions cacheable for the sender, for the given time
+     * to live.
+     * <p>
+     * This declares that the completions are every candidate starting with
+     * the last argument of the buffer, ignoring case, so that while the
+     * sender keeps typing that argument, the completions are found by
+     * filtering these rather than by firing this event again. Listeners which
+     * add completions not meeting this, after a listener declared the
+     * completions cacheable, must undo it by passing null.
+     *
+     * @param ttl how long the completions remain valid, or null to not cache
+     *     them
+     * @param invalidationTags tags with which the cached completions may be
+     *     invalidated early through {@link TabCompletionCache#invalidate(String)}
+     * @see #getCompletionCache()
+     */
+    public void setCacheable(Duration ttl, String... invalidationTags) {
+        Validate.isTrue(ttl == null || !ttl.isNegative(), "Time to live cannot be negative");
+        Validate.noNullElements(invalidationTags, "Tags cannot contain null");
+        this.cacheTtl = ttl;
+        this.cacheTags = (ttl == null) ? Set.of() : Set.copyOf(java.util.Arrays.asList(invalidationTags));
+    }
+
+    /**
+     * Gets how long the completions may be cached, if cacheable
+     *
+     * @return the time to live, or null if not cacheable
+     */
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * Gets the tags with which the cached completions may be invalidated
+     *
+     * @return the invalidation tags
+     */
+    public Set<String> getCacheTags() {
+        return cacheTags;
+    }
+
+    /**
+     * Gets the cache of completions declared cacheable through
+     * {@link #setCacheable(Duration, String...)}
+     *
+     * @return the completion cache
+     */
+    public static TabCompletionCache getCompletionCache() {
+        return completionCache;
+    }
+    // Solar end
+
     private static final HandlerList handlers = new HandlerList();
 
 
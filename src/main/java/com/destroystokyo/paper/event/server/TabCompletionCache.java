@@ -0,0 +1,125 @@
+package com.destroystokyo.paper.event.server;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+import org.apache.commons.lang3.Validate;
+import org.bukkit.command.CommandSender;
+import org.bukkit.util.StringUtil;
+
+/**
+ * Caches the completions of {@link AsyncTabCompleteEvent}s which listeners
+ * declared cacheable, per sender.
+ * <p>
+ * The completions of a cacheable event are every candidate starting with the
+ * last argument of the buffer. As the sender keeps typing that argument, the
+ * completions are found by filtering the cached ones with
+ * {@link StringUtil#copyPartialMatches(String, Iterable, java.util.Collection)}
+ * instead of firing the event again. Any other change to the buffer, an
+ * expired time to live, or an invalidation of one of the tags the listener
+ * declared fires the event again.
+ * <p>
+ * The server consults the cache with {@link #get(CommandSender, String, boolean)}
+ * before firing the event, and offers the fired event with
+ * {@link #store(AsyncTabCompleteEvent)}. This class is thread safe.
+ */
+// Solar - whole class
+public final class TabCompletionCache {
+
+    private final ConcurrentMap<CommandSender, Entry> entries = new MapMaker().weakKeys().makeMap();
+
+    TabCompletionCache() {}
+
+    /**
+     * Gets the cached completions for a buffer, if any
+     *
+     * @param sender the sender completing
+     * @param buffer the buffer being completed
+     * @param isCommand whether a command is being completed
+     * @return the completions, which the caller may modify, or null if the
+     *     event must be fired
+     */
+    public List<String> get(CommandSender sender, String buffer, boolean isCommand) {
+        Validate.notNull(sender, "Sender cannot be null");
+        Validate.notNull(buffer, "Buffer cannot be null");
+        Entry entry = entries.get(sender);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiry >= 0) {
+            entries.remove(sender, entry);
+            return null;
+        }
+        int split = buffer.lastIndexOf(' ') + 1;
+        if (entry.isCommand != isCommand || split != entry.context.length() || !buffer.startsWith(entry.context)
+                || !buffer.regionMatches(true, split, entry.token, 0, entry.token.length())) {
+            return null;
+        }
+        String token = buffer.substring(split);
+        return StringUtil.copyPartialMatches(token, entry.completions, new ArrayList<>(entry.completions.size()));
+    }
+
+    /**
+     * Caches the completions of an event, if a listener declared them
+     * cacheable and the event was handled
+     *
+     * @param event the fired event
+     */
+    public void store(AsyncTabCompleteEvent event) {
+        CommandSender sender = event.getSender();
+        Duration ttl = event.getCacheTtl();
+        if (ttl == null || event.isCancelled() || !event.isHandled()) {
+            entries.remove(sender);
+            return;
+        }
+        String buffer = event.getBuffer();
+        int split = buffer.lastIndexOf(' ') + 1;
+        long expiry = System.nanoTime() + ttl.toNanos();
+        entries.put(sender, new Entry(buffer.substring(0, split), buffer.substring(split), event.isCommand(),
+                List.copyOf(event.getCompletions()), Set.copyOf(event.getCacheTags()), expiry));
+    }
+
+    /**
+     * Invalidates the cached completions of a sender
+     *
+     * @param sender the sender
+     */
+    public void invalidate(CommandSender sender) {
+        entries.remove(sender);
+    }
+
+    /**
+     * Invalidates all cached completions declared with the given tag, such as
+     * when the underlying data changed
+     *
+     * @param tag the tag
+     */
+    public void invalidate(String tag) {
+        Validate.notNull(tag, "Tag cannot be null");
+        entries.values().removeIf((entry) -> entry.tags.contains(tag));
+    }
+
+    /**
+     * Invalidates all cached completions
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Cached completions
+     *
+     * @param context the buffer up to and including the last space
+     * @param token the last argument at the time the event was fired
+     * @param isCommand whether a command was completed
+     * @param completions the completions for the token
+     * @param tags the invalidation tags
+     * @param expiry the {@link System#nanoTime()} at which the entry expires
+     */
+    private record Entry(String context, String token, boolean isCommand, List<String> completions, Set<String> tags, long expiry) {
+    }
+}
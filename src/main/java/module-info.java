@@ -4,6 +4,7 @@ module org.bukkit {
     requires transitive java.logging; // Plugin#getLogger
     requires java.management; // Timings retrieves some system information through platform mbeans
     requires transitive java.desktop; // org.bukkit.map.MapPalette needs it
+    requires static jdk.incubator.vector; // Solar - optional vectorized noise in org.bukkit.util.noise
 
     // Library dependencies
     requires transitive org.slf4j;
@@ -109,6 +110,7 @@ module org.bukkit {
     exports org.bukkit.plugin.internal to org.bukkit.craftbukkit;
     exports org.bukkit.command.defaults to org.bukkit.craftbukkit;
     exports org.bukkit.map.internal to org.bukkit.craftbukkit;
+    exports org.bukkit.scheduler.internal to org.bukkit.craftbukkit;
 
     /*
     Fully encapsulated:
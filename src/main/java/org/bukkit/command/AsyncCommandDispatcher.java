@@ -0,0 +1,71 @@
+package org.bukkit.command;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+
+import com.destroystokyo.paper.event.server.ServerExceptionEvent;
+import com.destroystokyo.paper.exception.ServerCommandException;
+import org.bukkit.ChatColor;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+/**
+ * Runs the commands of {@link AsyncCommandExecutor}s on the scheduler of
+ * their plugin
+ */
+// Solar - whole class
+final class AsyncCommandDispatcher {
+
+    private AsyncCommandDispatcher() {}
+
+    static void dispatch(Plugin plugin, AsyncCommandExecutor executor, CommandSender sender, Command command, String label, String[] args) {
+        BukkitScheduler scheduler = plugin.getServer().getScheduler();
+        Executor mainThread = (task) -> scheduler.runTask(plugin, task);
+        // Copy the arguments, since the caller may reuse the array once the command is handled
+        String[] arguments = args.clone();
+        scheduler.runTaskAsynchronously(plugin, () -> {
+            CompletionStage<Boolean> result;
+            try {
+                result = executor.onCommandAsync(sender, command, label, arguments, mainThread);
+            } catch (Throwable ex) {
+                result = CompletableFuture.failedFuture(ex);
+            }
+            if (result == null) {
+                result = CompletableFuture.failedFuture(new NullPointerException("onCommandAsync returned null"));
+            }
+            result.whenComplete((success, ex) -> {
+                try {
+                    mainThread.execute(() -> complete(plugin, sender, command, label, arguments, success, ex));
+                } catch (IllegalPluginAccessException disabled) {
+                    // The plugin was disabled meanwhile, so the command can only be logged
+                    if (ex != null) {
+                        plugin.getLogger().log(Level.SEVERE, "Unhandled exception executing command '" + label + "' asynchronously", ex);
+                    }
+                }
+            });
+        });
+    }
+
+    private static void complete(Plugin plugin, CommandSender sender, Command command, String label, String[] args, Boolean success, Throwable ex) {
+        if (ex != null) {
+            if (ex instanceof CompletionException && ex.getCause() != null) {
+                ex = ex.getCause();
+            }
+            String msg = "Unhandled exception executing command '" + label + "' in plugin " + plugin.getDescription().getFullName();
+            plugin.getServer().getPluginManager().callEvent(new ServerExceptionEvent(new ServerCommandException(msg, ex, command, sender, args)));
+            plugin.getServer().getLogger().log(Level.SEVERE, msg, ex);
+            sender.sendMessage(ChatColor.RED + "An internal error occurred while attempting to perform this command");
+            return;
+        }
+        String usageMessage = command.getUsage();
+        if ((success == null || !success) && usageMessage != null && usageMessage.length() > 0) {
+            for (String line : usageMessage.replace("<command>", label).split("\n")) {
+                sender.sendMessage(line);
+            }
+        }
+    }
+}
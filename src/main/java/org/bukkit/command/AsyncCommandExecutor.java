@@ -0,0 +1,61 @@
+package org.bukkit.command;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link CommandExecutor} which executes commands off the main thread.
+ * <p>
+ * When a command of a plugin is dispatched to this executor, its permission
+ * is tested on the main thread and {@link #onCommandAsync(CommandSender,
+ * Command, String, String[], Executor)} is then called on an asynchronous
+ * scheduler thread of the plugin. The command is handled as soon as it is
+ * scheduled. Once the returned stage completes, on the main thread, the usage
+ * message is sent if the command was unsuccessful, and an exception is
+ * reported through a {@link com.destroystokyo.paper.event.server.ServerExceptionEvent}
+ * with a {@link com.destroystokyo.paper.exception.ServerCommandException},
+ * as it would be for a synchronous command.
+ * <p>
+ * Any {@link CompletionStage} may be returned, including the
+ * {@code ReactionStage}s of the data center.
+ */
+// Solar - whole class
+@FunctionalInterface
+public interface AsyncCommandExecutor extends CommandExecutor {
+
+    /**
+     * Executes the given command asynchronously, returning its success.
+     * <p>
+     * This is called off the main thread. Work which must happen on the main
+     * thread may be submitted to the given executor.
+     *
+     * @param sender Source of the command
+     * @param command Command which was executed
+     * @param label Alias of the command which was used
+     * @param args Passed command arguments
+     * @param mainThread executes tasks on the main thread
+     * @return a stage completing with true if a valid command, otherwise
+     *     false
+     */
+    CompletionStage<Boolean> onCommandAsync(CommandSender sender, Command command, String label, String[] args, Executor mainThread);
+
+    /**
+     * Schedules the command to be executed asynchronously.
+     *
+     * @param sender Source of the command
+     * @param command Command which was executed, which must belong to a
+     *     plugin
+     * @param label Alias of the command which was used
+     * @param args Passed command arguments
+     * @return true, as the command is always handled
+     * @throws CommandException if the command does not belong to a plugin
+     */
+    @Override
+    default boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!(command instanceof PluginIdentifiableCommand)) {
+            throw new CommandException("Cannot execute command '" + label + "' asynchronously as it does not belong to a plugin");
+        }
+        AsyncCommandDispatcher.dispatch(((PluginIdentifiableCommand) command).getPlugin(), this, sender, command, label, args);
+        return true;
+    }
+}
@@ -3,7 +3,6 @@ package org.bukkit.command;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.commons.lang3.Validate;
 import org.bukkit.Bukkit;
@@ -12,7 +11,6 @@ import org.bukkit.Location;
 import org.bukkit.Server;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.minecart.CommandMinecart;
-import org.bukkit.permissions.Permissible;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.util.StringUtil;
 
@@ -59,6 +57,24 @@ public abstract class Command {
      */
     public abstract boolean execute(CommandSender sender, String commandLabel, String[] args);
 
+    // Solar start
+    /**
+     * Executes the command, returning its success
+     * <p>
+     * By default, this copies the arguments and calls
+     * {@link #execute(CommandSender, String, String[])}.
+     *
+     * @param sender Source object which is executing this command
+     * @param commandLabel The alias of the command used
+     * @param args All arguments passed to the command, as views over the
+     *     command line
+     * @return true if the command was successful, otherwise false
+     */
+    public boolean execute(CommandSender sender, String commandLabel, CommandArguments args) {
+        return execute(sender, commandLabel, args.toArray());
+    }
+    // Solar end
+
     /**
      * Executed on tab completion for this command, returning a list of
      * options the player can tab through.
@@ -90,6 +106,29 @@ public abstract class Command {
         return tabComplete(sender, alias, args);
     }
 
+    // Solar start
+    /**
+     * Executed on tab completion for this command, returning a list of
+     * options the player can tab through.
+     * <p>
+     * By default, this copies the arguments and calls
+     * {@link #tabComplete(CommandSender, String, String[], Location)}.
+     *
+     * @param sender Source object which is executing this command
+     * @param alias the alias being used
+     * @param args All arguments passed to the command, as views over the
+     *     command line
+     * @param location The position looked at by the sender, or null if none
+     * @return a list of tab-completions for the specified arguments. This
+     *     will never be null. List may be immutable.
+     * @throws IllegalArgumentException if sender, alias, or args is null
+     */
+    public List<String> tabComplete(CommandSender sender, String alias, CommandArguments args, Location location) throws IllegalArgumentException {
+        Validate.notNull(args, "Arguments cannot be null");
+        return tabComplete(sender, alias, args.toArray(), location);
+    }
+    // Solar end
+
     private List<String> tabComplete0(CommandSender sender, String alias, String[] args, Location location) throws IllegalArgumentException {
         Validate.notNull(sender, "Sender cannot be null");
         Validate.notNull(args, "Arguments cannot be null");
@@ -404,14 +443,13 @@ public abstract class Command {
             }
         }
 
-        Set<Permissible> users = Bukkit.getPluginManager().getPermissionSubscriptions(Server.BROADCAST_CHANNEL_ADMINISTRATIVE);
         String colored = ChatColor.GRAY + "" + ChatColor.ITALIC + "[" + result + ChatColor.GRAY + ChatColor.ITALIC + "]";
 
         if (sendToSource && !(source instanceof ConsoleCommandSender)) {
             source.sendMessage(message);
         }
 
-        for (Permissible user : users) {
+        Bukkit.getPluginManager().forEachPermissionSubscriber(Server.BROADCAST_CHANNEL_ADMINISTRATIVE, (user) -> { // Solar - do not copy the subscriptions
             if (user instanceof CommandSender && user.hasPermission(Server.BROADCAST_CHANNEL_ADMINISTRATIVE)) {
                 CommandSender target = (CommandSender) user;
 
@@ -421,7 +459,7 @@ public abstract class Command {
                     target.sendMessage(colored);
                 }
             }
-        }
+        }); // Solar
     }
 
     @Override
@@ -0,0 +1,252 @@
+package org.bukkit.command;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The arguments of a command line, split on single spaces, as views over the
+ * original line.
+ * <p>
+ * Tokenizing a line does not use regular expressions and does not create a
+ * string per argument. Arguments are only copied into strings when
+ * requested, through {@link #get(int)} or {@link #toArray()}, so that
+ * executors which only compare or parse their arguments need not allocate.
+ * <p>
+ * The arguments are the same as splitting the line with
+ * {@code line.split(" ")}, or {@code line.split(" ", -1)} when trailing empty
+ * arguments are kept.
+ */
+// Solar - whole class
+public final class CommandArguments {
+
+    private final CharSequence source;
+    /**
+     * The start and end of each argument in the source, in pairs
+     */
+    private final int[] bounds;
+    private final int offset;
+    private final int size;
+
+    private CommandArguments(CharSequence source, int[] bounds, int offset, int size) {
+        this.source = source;
+        this.bounds = bounds;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Splits a command line on single spaces
+     *
+     * @param line the command line
+     * @param keepTrailingEmpty whether to keep empty arguments at the end of
+     *     the line, as when tab completing the next argument
+     * @return the arguments
+     */
+    public static CommandArguments tokenize(CharSequence line, boolean keepTrailingEmpty) {
+        Validate.notNull(line, "Line cannot be null");
+        int length = line.length();
+        int count = 1;
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) == ' ') {
+                count++;
+            }
+        }
+        int[] bounds = new int[count * 2];
+        int start = 0;
+        int index = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == ' ') {
+                bounds[index++] = start;
+                bounds[index++] = i;
+                start = i + 1;
+            }
+        }
+        int size = count;
+        // A line without any space is a single argument, even when empty
+        if (!keepTrailingEmpty && count > 1) {
+            while (size > 0 && bounds[size * 2 - 2] == bounds[size * 2 - 1]) {
+                size--;
+            }
+        }
+        return new CommandArguments(line, bounds, 0, size);
+    }
+
+    /**
+     * Gets the number of arguments
+     *
+     * @return the number of arguments
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether there are no arguments
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the line these arguments were split from
+     *
+     * @return the whole line
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the index in the line at which an argument starts
+     *
+     * @param index the argument index
+     * @return the start index, inclusive
+     */
+    public int start(int index) {
+        checkIndex(index);
+        return bounds[(offset + index) * 2];
+    }
+
+    /**
+     * Gets the index in the line at which an argument ends
+     *
+     * @param index the argument index
+     * @return the end index, exclusive
+     */
+    public int end(int index) {
+        checkIndex(index);
+        return bounds[(offset + index) * 2 + 1];
+    }
+
+    /**
+     * Gets the length of an argument
+     *
+     * @param index the argument index
+     * @return the length
+     */
+    public int length(int index) {
+        return end(index) - start(index);
+    }
+
+    /**
+     * Gets a character of an argument
+     *
+     * @param index the argument index
+     * @param position the position within the argument
+     * @return the character
+     */
+    public char charAt(int index, int position) {
+        int start = start(index);
+        if (position < 0 || position >= end(index) - start) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of bounds for argument " + index);
+        }
+        return source.charAt(start + position);
+    }
+
+    /**
+     * Gets an argument as a view over the line
+     *
+     * @param index the argument index
+     * @return the argument
+     */
+    public CharSequence getSequence(int index) {
+        return source.subSequence(start(index), end(index));
+    }
+
+    /**
+     * Gets an argument as a string
+     *
+     * @param index the argument index
+     * @return the argument
+     */
+    public String get(int index) {
+        return source.subSequence(start(index), end(index)).toString();
+    }
+
+    /**
+     * Whether an argument equals the given value, ignoring case
+     *
+     * @param index the argument index
+     * @param value the value
+     * @return true if equal
+     */
+    public boolean equalsIgnoreCase(int index, String value) {
+        return length(index) == value.length() && regionMatches(start(index), value);
+    }
+
+    /**
+     * Whether an argument starts with the given prefix, ignoring case
+     *
+     * @param index the argument index
+     * @param prefix the prefix
+     * @return true if the argument starts with the prefix
+     */
+    public boolean startsWithIgnoreCase(int index, String prefix) {
+        return length(index) >= prefix.length() && regionMatches(start(index), prefix);
+    }
+
+    /**
+     * Parses an argument as a decimal integer
+     *
+     * @param index the argument index
+     * @return the integer
+     * @throws NumberFormatException if the argument is not an integer
+     */
+    public int getInt(int index) {
+        return Integer.parseInt(source, start(index), end(index), 10);
+    }
+
+    /**
+     * Gets the arguments after the first {@code count} arguments, sharing the
+     * same line
+     *
+     * @param count the number of arguments to skip
+     * @return the remaining arguments
+     */
+    public CommandArguments skip(int count) {
+        Validate.isTrue(count >= 0 && count <= size, "Cannot skip " + count + " of " + size + " arguments");
+        return (count == 0) ? this : new CommandArguments(source, bounds, offset + count, size - count);
+    }
+
+    /**
+     * Copies the arguments into strings
+     *
+     * @return the arguments
+     */
+    public String[] toArray() {
+        String[] args = new String[size];
+        for (int i = 0; i < size; i++) {
+            args[i] = get(i);
+        }
+        return args;
+    }
+
+    private boolean regionMatches(int start, String value) {
+        if (source instanceof String) {
+            return ((String) source).regionMatches(true, start, value, 0, value.length());
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c1 = source.charAt(start + i);
+            char c2 = value.charAt(i);
+            if (c1 != c2 && Character.toUpperCase(c1) != Character.toUpperCase(c2)
+                    && Character.toLowerCase(c1) != Character.toLowerCase(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " arguments");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
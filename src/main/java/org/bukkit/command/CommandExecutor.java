@@ -15,4 +15,24 @@ public interface CommandExecutor {
      * @return true if a valid command, otherwise false
      */
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args);
+
+    // Solar start
+    /**
+     * Executes the given command, returning its success
+     * <p>
+     * Executors may override this to work with the arguments as views over
+     * the command line, without copying them into strings. By default, this
+     * copies the arguments and calls
+     * {@link #onCommand(CommandSender, Command, String, String[])}.
+     *
+     * @param sender Source of the command
+     * @param command Command which was executed
+     * @param label Alias of the command which was used
+     * @param args Passed command arguments
+     * @return true if a valid command, otherwise false
+     */
+    default boolean onCommand(CommandSender sender, Command command, String label, CommandArguments args) {
+        return onCommand(sender, command, label, args.toArray());
+    }
+    // Solar end
 }
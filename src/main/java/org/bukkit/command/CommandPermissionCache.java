@@ -0,0 +1,89 @@
+package org.bukkit.command;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+import org.bukkit.Server;
+
+/**
+ * Caches the results of {@link Command#testPermissionSilent(CommandSender)}
+ * per sender, for as long as the permission epochs of the sender and of the
+ * plugin manager do not change.
+ * <p>
+ * Commands which override {@code testPermissionSilent} may depend on more
+ * than permissions, so they are always tested directly, as are senders which
+ * do not track a permission epoch.
+ */
+// Solar - whole class
+final class CommandPermissionCache {
+
+    private static final ClassValue<Boolean> CACHEABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("testPermissionSilent", CommandSender.class).getDeclaringClass() == Command.class;
+            } catch (NoSuchMethodException ex) {
+                return false;
+            }
+        }
+    };
+
+    private final ConcurrentMap<CommandSender, SenderPermissions> senders = new MapMaker().weakKeys().makeMap();
+    private final Server server;
+
+    CommandPermissionCache(Server server) {
+        this.server = server;
+    }
+
+    /**
+     * Tests whether the sender may use the command, without sending a
+     * message
+     *
+     * @param command the command
+     * @param sender the sender
+     * @return true if the sender may use the command
+     */
+    boolean testPermissionSilent(Command command, CommandSender sender) {
+        // Read the epochs before testing, so that a concurrent change can only invalidate the result
+        long epoch = sender.getPermissionEpoch();
+        long registryEpoch = server.getPluginManager().getPermissionEpoch();
+        if (epoch == -1 || registryEpoch == -1 || !CACHEABLE.get(command.getClass())) {
+            return command.testPermissionSilent(sender);
+        }
+        SenderPermissions permissions = senders.get(sender);
+        if (permissions == null || permissions.epoch != epoch || permissions.registryEpoch != registryEpoch) {
+            permissions = new SenderPermissions(epoch, registryEpoch);
+            senders.put(sender, permissions);
+        }
+        String permission = command.getPermission();
+        Result cached = permissions.results.get(command);
+        if (cached != null && Objects.equals(cached.permission(), permission)) {
+            return cached.allowed();
+        }
+        boolean allowed = command.testPermissionSilent(sender);
+        permissions.results.put(command, new Result(permission, allowed));
+        return allowed;
+    }
+
+    private static final class SenderPermissions {
+
+        final long epoch;
+        final long registryEpoch;
+        final Map<Command, Result> results = new ConcurrentHashMap<>();
+
+        SenderPermissions(long epoch, long registryEpoch) {
+            this.epoch = epoch;
+            this.registryEpoch = registryEpoch;
+        }
+    }
+
+    /**
+     * A cached result, with the permission of the command it was tested
+     * against, since commands may change their permission
+     */
+    private record Result(String permission, boolean allowed) {
+    }
+}
@@ -1,6 +1,9 @@
 package org.bukkit.command;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.Validate;
 import org.bukkit.plugin.Plugin;
@@ -38,6 +41,27 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
      */
     @Override
     public boolean execute(CommandSender sender, String commandLabel, String[] args) {
+        return execute(sender, commandLabel, (executor) -> executor.onCommand(sender, this, commandLabel, args)); // Solar
+    }
+
+    // Solar start
+    /**
+     * Executes the command, returning its success, passing the arguments to
+     * the executor without copying them
+     *
+     * @param sender Source object which is executing this command
+     * @param commandLabel The alias of the command used
+     * @param args All arguments passed to the command, as views over the
+     *     command line
+     * @return true if the command was successful, otherwise false
+     */
+    @Override
+    public boolean execute(CommandSender sender, String commandLabel, CommandArguments args) {
+        return execute(sender, commandLabel, (executor) -> executor.onCommand(sender, this, commandLabel, args));
+    }
+
+    private boolean execute(CommandSender sender, String commandLabel, Predicate<CommandExecutor> invocation) {
+    // Solar end
         boolean success = false;
 
         if (!owningPlugin.isEnabled()) {
@@ -49,7 +73,7 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
         }
 
         try {
-            success = executor.onCommand(sender, this, commandLabel, args);
+            success = invocation.test(executor); // Solar
         } catch (Throwable ex) {
             throw new CommandException("Unhandled exception executing command '" + commandLabel + "' in plugin " + owningPlugin.getDescription().getFullName(), ex);
         }
@@ -134,15 +158,38 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
         Validate.notNull(args, "Arguments cannot be null");
         Validate.notNull(alias, "Alias cannot be null");
 
+        // Solar start
+        return tabComplete(sender, alias, () -> args, (tabCompleter) -> tabCompleter.onTabComplete(sender, this, alias, args));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Delegates in the same way as
+     * {@link #tabComplete(CommandSender, String, String[])}, passing the
+     * arguments to the completer without copying them.
+     */
+    @Override
+    public java.util.List<String> tabComplete(CommandSender sender, String alias, CommandArguments args, org.bukkit.Location location) throws CommandException, IllegalArgumentException {
+        Validate.notNull(sender, "Sender cannot be null");
+        Validate.notNull(args, "Arguments cannot be null");
+        Validate.notNull(alias, "Alias cannot be null");
+
+        return tabComplete(sender, alias, args::toArray, (tabCompleter) -> tabCompleter.onTabComplete(sender, this, alias, args));
+    }
+
+    private java.util.List<String> tabComplete(CommandSender sender, String alias, Supplier<String[]> arguments, Function<TabCompleter, List<String>> invocation) {
+        // Solar end
         List<String> completions = null;
         try {
             if (completer != null) {
-                completions = completer.onTabComplete(sender, this, alias, args);
+                completions = invocation.apply(completer); // Solar
             }
             if (completions == null && executor instanceof TabCompleter) {
-                completions = ((TabCompleter) executor).onTabComplete(sender, this, alias, args);
+                completions = invocation.apply((TabCompleter) executor); // Solar
             }
         } catch (Throwable ex) {
+            String[] args = arguments.get(); // Solar
             StringBuilder message = new StringBuilder();
             message.append("Unhandled exception during tab completion for command '/").append(alias).append(' ');
             for (String arg : args) {
@@ -154,7 +201,7 @@ public final class PluginCommand extends Command implements PluginIdentifiableCo
 
         if (completions == null) {
             if (!sender.getServer().suggestPlayerNamesWhenNullTabCompletions()) return com.google.common.collect.ImmutableList.of(); // Paper - allow preventing player name suggestions by default
-            return super.tabComplete(sender, alias, args);
+            return super.tabComplete(sender, alias, arguments.get()); // Solar
         }
         return completions;
     }
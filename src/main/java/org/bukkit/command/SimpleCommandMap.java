@@ -1,14 +1,18 @@
 package org.bukkit.command;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 import co.aikar.timings.Timing;
 import co.aikar.timings.internal.TimingsManager;
@@ -23,12 +27,17 @@ import org.bukkit.entity.Player;
 import org.bukkit.util.StringUtil;
 
 public class SimpleCommandMap implements CommandMap {
-    private static final Pattern PATTERN_ON_SPACE = Pattern.compile(" ", Pattern.LITERAL);
-    protected final Map<String, Command> knownCommands = new HashMap<String, Command>();
+    // Solar start - the labels of knownCommands sorted case insensitively, as a prefix index for tab completion
+    private final NavigableSet<String> sortedLabels = new ConcurrentSkipListSet<String>(
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder()));
+    protected final Map<String, Command> knownCommands = new IndexedCommands();
+    // Solar end
     private final Server server;
+    private final CommandPermissionCache permissionCache; // Solar
 
     public SimpleCommandMap(final Server server) {
         this.server = server;
+        this.permissionCache = new CommandPermissionCache(server); // Solar
         setDefaultCommands();
     }
 
@@ -128,13 +137,13 @@ public class SimpleCommandMap implements CommandMap {
      * {@inheritDoc}
      */
     public boolean dispatch(CommandSender sender, String commandLine) throws CommandException {
-        String[] args = PATTERN_ON_SPACE.split(commandLine);
+        CommandArguments args = CommandArguments.tokenize(commandLine, false); // Solar - do not split into strings
 
-        if (args.length == 0) {
+        if (args.isEmpty()) {
             return false;
         }
 
-        String sentCommandLabel = args[0].toLowerCase(java.util.Locale.ENGLISH);
+        String sentCommandLabel = args.get(0).toLowerCase(java.util.Locale.ENGLISH);
         Command target = getCommand(sentCommandLabel);
 
         if (target == null) {
@@ -150,16 +159,16 @@ public class SimpleCommandMap implements CommandMap {
         try {
             try (Timing ignored = target.timings.startTiming()) { // Paper - use try with resources
                 // Note: we don't return the result of target.execute as thats success / failure, we return handled (true) or not handled (false)
-                target.execute(sender, sentCommandLabel, Arrays.copyOfRange(args, 1, args.length));
+                target.execute(sender, sentCommandLabel, args.skip(1)); // Solar
             }
         } catch (CommandException ex) {
-            server.getPluginManager().callEvent(new ServerExceptionEvent(new ServerCommandException(ex, target, sender, args))); // Paper
+            server.getPluginManager().callEvent(new ServerExceptionEvent(new ServerCommandException(ex, target, sender, args.toArray()))); // Paper // Solar
             //target.timings.stopTiming(); // Spigot // Paper
             throw ex;
         } catch (Throwable ex) {
             //target.timings.stopTiming(); // Spigot // Paper
             String msg = "Unhandled exception executing '" + commandLine + "' in " + target;
-            server.getPluginManager().callEvent(new ServerExceptionEvent(new ServerCommandException(ex, target, sender, args))); // Paper
+            server.getPluginManager().callEvent(new ServerExceptionEvent(new ServerCommandException(ex, target, sender, args.toArray()))); // Paper // Solar
             throw new CommandException(msg, ex);
         }
 
@@ -192,26 +201,25 @@ public class SimpleCommandMap implements CommandMap {
 
         if (spaceIndex == -1) {
             ArrayList<String> completions = new ArrayList<String>();
-            Map<String, Command> knownCommands = this.knownCommands;
-
+            // Solar start - only visit the labels starting with the command line, which are already sorted
             final String prefix = (sender instanceof Player ? "/" : "");
 
-            for (Map.Entry<String, Command> commandEntry : knownCommands.entrySet()) {
-                Command command = commandEntry.getValue();
-
-                if (!command.testPermissionSilent(sender)) {
-                    continue;
+            for (String name : matchingLabels(cmdLine)) { // Use the alias, not command name
+                if (!StringUtil.startsWithIgnoreCase(name, cmdLine)) {
+                    break;
                 }
 
-                String name = commandEntry.getKey(); // Use the alias, not command name
+                Command command = knownCommands.get(name);
 
-                if (StringUtil.startsWithIgnoreCase(name, cmdLine)) {
-                    completions.add(prefix + name);
+                if (command == null || !permissionCache.testPermissionSilent(command, sender)) {
+                    continue;
                 }
+
+                completions.add(prefix + name);
             }
 
-            Collections.sort(completions, String.CASE_INSENSITIVE_ORDER);
             return completions;
+            // Solar end
         }
 
         String commandName = cmdLine.substring(0, spaceIndex);
@@ -225,8 +233,7 @@ public class SimpleCommandMap implements CommandMap {
             return null;
         }
 
-        String argLine = cmdLine.substring(spaceIndex + 1, cmdLine.length());
-        String[] args = PATTERN_ON_SPACE.split(argLine, -1);
+        CommandArguments args = CommandArguments.tokenize(cmdLine, true).skip(1); // Solar - do not split into strings
 
         try {
             return target.tabComplete(sender, commandName, args, location);
@@ -234,11 +241,110 @@ public class SimpleCommandMap implements CommandMap {
             throw ex;
         } catch (Throwable ex) {
             String msg = "Unhandled exception executing tab-completer for '" + cmdLine + "' in " + target;
-            server.getPluginManager().callEvent(new ServerExceptionEvent(new ServerTabCompleteException(msg, ex, target, sender, args))); // Paper
+            server.getPluginManager().callEvent(new ServerExceptionEvent(new ServerTabCompleteException(msg, ex, target, sender, args.toArray()))); // Paper // Solar
             throw new CommandException(msg, ex);
         }
     }
 
+    // Solar start
+    /**
+     * Gets the sorted labels from the first one starting with the given
+     * prefix, ignoring case. The labels starting with the prefix come first
+     */
+    private NavigableSet<String> matchingLabels(String prefix) {
+        // The labels equal to the prefix ignoring case are ordered by case, so the first may sort before the prefix
+        String from = prefix;
+        String lower;
+        while ((lower = sortedLabels.lower(from)) != null && lower.equalsIgnoreCase(prefix)) {
+            from = lower;
+        }
+        return sortedLabels.tailSet(from, true);
+    }
+
+    /**
+     * The known commands, which keeps the sorted labels up to date on every
+     * change, as the server and plugins also change the known commands
+     * directly. Every change of the labels goes through put, remove, clear
+     * or removal through an iterator, which the other methods are built on.
+     */
+    private final class IndexedCommands extends AbstractMap<String, Command> {
+
+        private final Map<String, Command> commands = new HashMap<String, Command>();
+        private final Set<Entry<String, Command>> entrySet = new AbstractSet<Entry<String, Command>>() {
+            @Override
+            public Iterator<Entry<String, Command>> iterator() {
+                Iterator<Entry<String, Command>> iterator = commands.entrySet().iterator();
+                return new Iterator<Entry<String, Command>>() {
+                    private Entry<String, Command> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Command> next() {
+                        return last = iterator.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                        sortedLabels.remove(last.getKey());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return commands.size();
+            }
+        };
+
+        @Override
+        public Command get(Object key) {
+            return commands.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return commands.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return commands.size();
+        }
+
+        @Override
+        public Command put(String key, Command value) {
+            Validate.notNull(key, "Label cannot be null");
+            sortedLabels.add(key);
+            return commands.put(key, value);
+        }
+
+        @Override
+        public Command remove(Object key) {
+            if (!commands.containsKey(key)) {
+                return null;
+            }
+            sortedLabels.remove(key);
+            return commands.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            commands.clear();
+            sortedLabels.clear();
+        }
+
+        @Override
+        public Set<Entry<String, Command>> entrySet() {
+            return entrySet;
+        }
+    }
+    // Solar end
+
     public Collection<Command> getCommands() {
         return Collections.unmodifiableCollection(knownCommands.values());
     }
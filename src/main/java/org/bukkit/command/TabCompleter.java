@@ -21,4 +21,26 @@ public interface TabCompleter {
      *     to default to the command executor
      */
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args);
+
+    // Solar start
+    /**
+     * Requests a list of possible completions for a command argument.
+     * <p>
+     * Completers may override this to work with the arguments as views over
+     * the command line, without copying them into strings. By default, this
+     * copies the arguments and calls
+     * {@link #onTabComplete(CommandSender, Command, String, String[])}.
+     *
+     * @param sender Source of the command
+     * @param command Command which was executed
+     * @param alias The alias used
+     * @param args The arguments passed to the command, including final
+     *     partial argument to be completed
+     * @return A List of possible completions for the final argument, or null
+     *     to default to the command executor
+     */
+    default List<String> onTabComplete(CommandSender sender, Command command, String alias, CommandArguments args) {
+        return onTabComplete(sender, command, alias, args.toArray());
+    }
+    // Solar end
 }
@@ -0,0 +1,27 @@
+package org.bukkit.configuration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Represents the path a record component is bound from by
+ * {@link ConfigurationBinder}.
+ * If this is not present on a component, the name of the component is used
+ * as its key.
+ *
+ * @see ConfigurationBinder#bind(ConfigurationSection, Class)
+ */
+// Solar - whole class
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface ConfigKey {
+    /**
+     * This is the path of the value, relative to the bound section, such as
+     * "spawn-radius" or "limits.players".
+     *
+     * @return Path to bind the component from.
+     */
+    public String value();
+}
@@ -0,0 +1,151 @@
+package org.bukkit.configuration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A path within a {@link ConfigurationSection}, split into its keys once.
+ * <p>
+ * Reading a value by a string path splits the path on every call. Plugins
+ * reading the same paths repeatedly may instead keep a {@code ConfigPath} in
+ * a constant, which {@link ConfigurationSection#get(ConfigPath, Object)}
+ * resolves without allocating.
+ * <p>
+ * Two paths are equal if they have the same keys, regardless of the
+ * separator they were split on. Instances are immutable.
+ */
+// Solar - whole class
+public final class ConfigPath {
+
+    private final String[] keys;
+    private final char separator;
+    private final int hash;
+
+    private ConfigPath(String[] keys, char separator) {
+        this.keys = keys;
+        this.separator = separator;
+        this.hash = Arrays.hashCode(keys);
+    }
+
+    /**
+     * Splits a path on the default separator, {@code '.'}
+     *
+     * @param path the path
+     * @return the path
+     * @throws IllegalArgumentException if the path is null or empty
+     */
+    public static ConfigPath of(String path) {
+        return of(path, '.');
+    }
+
+    /**
+     * Splits a path on a separator, which should be the
+     * {@link ConfigurationOptions#pathSeparator()} of the configurations the
+     * path is used with
+     *
+     * @param path the path
+     * @param separator the separator
+     * @return the path
+     * @throws IllegalArgumentException if the path is null or empty
+     */
+    public static ConfigPath of(String path, char separator) {
+        Validate.notEmpty(path, "Path cannot be empty");
+
+        int count = 1;
+        for (int i = path.indexOf(separator); i != -1; i = path.indexOf(separator, i + 1)) {
+            count++;
+        }
+        String[] keys = new String[count];
+        // i1 is the leading (higher) index
+        // i2 is the trailing (lower) index
+        int i1 = -1, i2, index = 0;
+        while ((i1 = path.indexOf(separator, i2 = i1 + 1)) != -1) {
+            keys[index++] = path.substring(i2, i1).intern();
+        }
+        keys[index] = path.substring(i2).intern();
+        return new ConfigPath(keys, separator);
+    }
+
+    /**
+     * Gets the path to a key within the section at this path
+     *
+     * @param key the key
+     * @return the path
+     * @throws IllegalArgumentException if the key is null
+     */
+    public ConfigPath child(String key) {
+        Validate.notNull(key, "Key cannot be null");
+
+        String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+        keys[this.keys.length] = key.intern();
+        return new ConfigPath(keys, separator);
+    }
+
+    /**
+     * Gets the number of keys of this path
+     *
+     * @return the number of keys, at least 1
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Gets a key of this path
+     *
+     * @param index the index of the key
+     * @return the key
+     * @throws IndexOutOfBoundsException if there is no such key
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the last key of this path
+     *
+     * @return the last key
+     */
+    public String getLastKey() {
+        return keys[keys.length - 1];
+    }
+
+    /**
+     * Gets the keys of this path
+     *
+     * @return an immutable list of the keys
+     */
+    public List<String> getKeys() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ConfigPath)) {
+            return false;
+        }
+        ConfigPath other = (ConfigPath) obj;
+        return hash == other.hash && Arrays.equals(keys, other.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Gets this path joined by the separator it was split on
+     *
+     * @return the path
+     */
+    @Override
+    public String toString() {
+        return String.join(String.valueOf(separator), keys);
+    }
+}
@@ -81,4 +81,21 @@ public interface Configuration extends ConfigurationSection {
      * @return Options for this configuration
      */
     public ConfigurationOptions options();
+
+    // Solar start
+    /**
+     * Takes an immutable snapshot of this configuration and its defaults.
+     * <p>
+     * The snapshot does not change when this configuration does, and can be
+     * read from any thread. It should be taken on the thread which modifies
+     * this configuration, for example after loading it, and may then be
+     * stored in a volatile field for other threads to read.
+     *
+     * @return the snapshot
+     * @see SnapshotConfiguration
+     */
+    public default SnapshotConfiguration snapshot() {
+        return SnapshotConfiguration.of(this);
+    }
+    // Solar end
 }
@@ -0,0 +1,293 @@
+package org.bukkit.configuration;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.google.common.primitives.Primitives;
+import org.apache.commons.lang3.Validate;
+import org.bukkit.util.NumberConversions;
+
+/**
+ * Binds {@link ConfigurationSection}s onto records.
+ * <p>
+ * Each component of a record is bound from the value at its name, or at the
+ * path of its {@link ConfigKey}, including default values. Values are
+ * checked and converted once, while binding, and the resulting record is
+ * read through plain field access. The following component types can be
+ * bound:
+ * <ul>
+ * <li>Primitives and their wrappers, from any number, or a boolean or
+ *     single character for {@code boolean} and {@code char}</li>
+ * <li>{@link String}, from any string or primitive</li>
+ * <li>Enums, from the name of a constant ignoring case</li>
+ * <li>Records, from a section or map, bound in the same way</li>
+ * <li>{@link List}s and {@link Collection}s of bindable types, and
+ *     {@link Map}s from {@link String} to a bindable type, which are
+ *     unmodifiable</li>
+ * <li>{@link Optional}s of bindable types, which are empty if the value is
+ *     missing</li>
+ * <li>Any other class, such as {@link ConfigurationSection} or a
+ *     {@link org.bukkit.configuration.serialization.ConfigurationSerializable},
+ *     from an instance of it</li>
+ * </ul>
+ * Values which are missing, except for optional ones, or cannot be bound are
+ * collected, and reported together by a single
+ * {@link InvalidConfigurationException}.
+ */
+// Solar - whole class
+public final class ConfigurationBinder {
+
+    private static final ClassValue<Binding> BINDINGS = new ClassValue<>() {
+        @Override
+        protected Binding computeValue(Class<?> type) {
+            return new Binding(type);
+        }
+    };
+
+    private ConfigurationBinder() {}
+
+    /**
+     * Binds a section onto a record
+     *
+     * @param <T> the type of the record
+     * @param section the section
+     * @param type the class of the record
+     * @return the bound record
+     * @throws InvalidConfigurationException if values are missing or cannot
+     *     be bound, listing all of them
+     * @throws IllegalArgumentException if the section or type is null, or the
+     *     type is not a record of bindable components
+     */
+    public static <T extends Record> T bind(ConfigurationSection section, Class<T> type) throws InvalidConfigurationException {
+        Validate.notNull(section, "Section cannot be null");
+        Validate.notNull(type, "Type cannot be null");
+
+        Configuration root = section.getRoot();
+        Context context = new Context((root == null) ? '.' : root.options().pathSeparator());
+        Object result = BINDINGS.get(type).bind(section, section.getCurrentPath(), context);
+
+        if (!context.errors.isEmpty()) {
+            StringBuilder message = new StringBuilder("Could not bind ").append(type.getName()).append(':');
+            for (String error : context.errors) {
+                message.append("\n- ").append(error);
+            }
+            throw new InvalidConfigurationException(message.toString());
+        }
+        return type.cast(result);
+    }
+
+    /**
+     * Converts a value which is present, or reports an error and returns null
+     */
+    @FunctionalInterface
+    private interface Converter {
+        Object convert(Object value, String path, Context context);
+    }
+
+    private static final class Context {
+        private final char separator;
+        private final List<String> errors = new ArrayList<>();
+
+        Context(char separator) {
+            this.separator = separator;
+        }
+
+        String child(String path, String key) {
+            return path.isEmpty() ? key : path + separator + key;
+        }
+
+        Object error(String path, String message) {
+            errors.add((path.isEmpty() ? "<root>" : path) + ": " + message);
+            return null;
+        }
+
+        Object mismatch(String path, String expected, Object value) {
+            String found = (value instanceof ConfigurationSection) ? "a section" : "'" + value + "'";
+            return error(path, "expected " + expected + " but found " + found);
+        }
+    }
+
+    private static final class Binding {
+        private final String[] paths;
+        private final Converter[] converters;
+        private final MethodHandle constructor;
+
+        Binding(Class<?> type) {
+            Validate.isTrue(type.isRecord(), "Only records can be bound, but found %s", type.getName());
+            ConfigurationBinder.class.getModule().addReads(type.getModule());
+
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameters = new Class<?>[components.length];
+            paths = new String[components.length];
+            converters = new Converter[components.length];
+            for (int i = 0; i < components.length; i++) {
+                ConfigKey key = components[i].getAnnotation(ConfigKey.class);
+                paths[i] = (key == null) ? components[i].getName() : key.value();
+                converters[i] = component(components[i].getGenericType());
+                parameters[i] = components[i].getType();
+            }
+
+            try {
+                Constructor<?> canonical = type.getDeclaredConstructor(parameters);
+                canonical.setAccessible(true);
+                constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, parameters.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                throw new IllegalArgumentException("Cannot access the constructor of " + type.getName(), ex);
+            }
+        }
+
+        Object bind(Object source, String path, Context context) {
+            int errors = context.errors.size();
+            Object[] arguments = new Object[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                Object value = (source instanceof ConfigurationSection) ? ((ConfigurationSection) source).get(paths[i]) : ((Map<?, ?>) source).get(paths[i]);
+                arguments[i] = converters[i].convert(value, context.child(path, paths[i]), context);
+            }
+            if (context.errors.size() != errors) {
+                return null;
+            }
+
+            try {
+                return constructor.invokeExact(arguments);
+            } catch (IllegalArgumentException | IllegalStateException | NullPointerException ex) {
+                // Thrown by the validation of a compact constructor
+                return context.error(path, String.valueOf(ex.getMessage()));
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Could not construct " + constructor.type(), ex);
+            }
+        }
+    }
+
+    /**
+     * Gets the converter of a value which may be missing
+     */
+    private static Converter component(Type type) {
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == Optional.class) {
+            Converter element = converter(((ParameterizedType) type).getActualTypeArguments()[0]);
+            return (value, path, context) -> (value == null) ? Optional.empty() : Optional.ofNullable(element.convert(value, path, context));
+        }
+        Converter converter = converter(type);
+        return (value, path, context) -> (value == null) ? context.error(path, "missing value") : converter.convert(value, path, context);
+    }
+
+    private static Converter converter(Type type) {
+        if (type instanceof ParameterizedType) {
+            Class<?> raw = (Class<?>) ((ParameterizedType) type).getRawType();
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (raw == List.class || raw == Collection.class) {
+                return list(component(arguments[0]));
+            } else if (raw == Map.class && arguments[0] == String.class) {
+                return map(component(arguments[1]));
+            }
+        } else if (type instanceof Class) {
+            return converter(Primitives.wrap((Class<?>) type));
+        }
+        throw new IllegalArgumentException("Cannot bind values of type " + type.getTypeName());
+    }
+
+    private static Converter converter(Class<?> type) {
+        if (type == Integer.class) {
+            return number(NumberConversions::toInt);
+        } else if (type == Long.class) {
+            return number(NumberConversions::toLong);
+        } else if (type == Double.class) {
+            return number(NumberConversions::toDouble);
+        } else if (type == Float.class) {
+            return number(NumberConversions::toFloat);
+        } else if (type == Short.class) {
+            return number(NumberConversions::toShort);
+        } else if (type == Byte.class) {
+            return number(NumberConversions::toByte);
+        } else if (type == Boolean.class) {
+            return (value, path, context) -> (value instanceof Boolean) ? value : context.mismatch(path, "a boolean", value);
+        } else if (type == Character.class) {
+            return (value, path, context) -> {
+                if (value instanceof Character) {
+                    return value;
+                } else if (value instanceof String && ((String) value).length() == 1) {
+                    return ((String) value).charAt(0);
+                }
+                return context.mismatch(path, "a character", value);
+            };
+        } else if (type == String.class) {
+            return (value, path, context) -> (value instanceof String || Primitives.isWrapperType(value.getClass())) ? String.valueOf(value) : context.mismatch(path, "a string", value);
+        } else if (type.isEnum()) {
+            return enumeration(type);
+        } else if (type.isRecord()) {
+            // Resolved lazily, as records may contain themselves
+            return (value, path, context) -> (value instanceof ConfigurationSection || value instanceof Map) ? BINDINGS.get(type).bind(value, path, context) : context.mismatch(path, "a section", value);
+        } else if (type == List.class || type == Collection.class || type == Map.class || type == Optional.class) {
+            throw new IllegalArgumentException("Cannot bind values of raw type " + type.getName());
+        }
+        return (value, path, context) -> type.isInstance(value) ? value : context.mismatch(path, "an instance of " + type.getSimpleName(), value);
+    }
+
+    private static Converter number(Function<Object, Object> conversion) {
+        return (value, path, context) -> (value instanceof Number) ? conversion.apply(value) : context.mismatch(path, "a number", value);
+    }
+
+    private static Converter enumeration(Class<?> type) {
+        Object[] constants = type.getEnumConstants();
+        return (value, path, context) -> {
+            if (value instanceof String) {
+                for (Object constant : constants) {
+                    if (((Enum<?>) constant).name().equalsIgnoreCase((String) value)) {
+                        return constant;
+                    }
+                }
+            }
+            return context.mismatch(path, "one of " + Arrays.toString(constants), value);
+        };
+    }
+
+    private static Converter list(Converter element) {
+        return (value, path, context) -> {
+            if (!(value instanceof List)) {
+                return context.mismatch(path, "a list", value);
+            }
+            List<?> input = (List<?>) value;
+            List<Object> result = new ArrayList<>(input.size());
+            for (int i = 0; i < input.size(); i++) {
+                result.add(element.convert(input.get(i), path + "[" + i + "]", context));
+            }
+            return Collections.unmodifiableList(result);
+        };
+    }
+
+    private static Converter map(Converter element) {
+        return (value, path, context) -> {
+            Map<?, ?> input;
+            if (value instanceof ConfigurationSection) {
+                input = ((ConfigurationSection) value).getValues(false);
+            } else if (value instanceof Map) {
+                input = (Map<?, ?>) value;
+            } else {
+                return context.mismatch(path, "a section", value);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : input.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                result.put(key, element.convert(entry.getValue(), context.child(path, key), context));
+            }
+            return Collections.unmodifiableMap(result);
+        };
+    }
+}
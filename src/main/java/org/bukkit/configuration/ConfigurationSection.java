@@ -4,11 +4,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.List;
 
+import com.google.common.collect.ImmutableMap; // Solar
 import org.bukkit.Color;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.util.Vector;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.NumberConversions; // Solar
 
 /**
  * Represents a section of a {@link Configuration}
@@ -173,6 +175,164 @@ public interface ConfigurationSection {
      */
     public Object get(String path, Object def);
 
+    // Solar start
+    /**
+     * Gets the requested Object by a path split beforehand.
+     * <p>
+     * If the Object does not exist but a default value has been specified,
+     * this will return the default value. If the Object does not exist and no
+     * default value was specified, this will return null.
+     *
+     * @param path Path of the Object to get.
+     * @return Requested Object.
+     * @see #get(String)
+     */
+    default Object get(ConfigPath path) {
+        Object value = get(path, null);
+        if (value != null) {
+            return value;
+        }
+        ConfigurationSection defaults = getDefaultSection();
+        return (defaults == null) ? null : defaults.get(path, null);
+    }
+
+    /**
+     * Gets the requested Object by a path split beforehand, returning a
+     * default value if not found.
+     * <p>
+     * If the Object does not exist then the specified default value will
+     * returned regardless of if a default has been identified in the root
+     * {@link Configuration}.
+     *
+     * @param path Path of the Object to get.
+     * @param def The default value to return if the path is not found.
+     * @return Requested Object.
+     * @see #get(String, Object)
+     */
+    default Object get(ConfigPath path, Object def) {
+        ConfigurationSection section = this;
+        for (int i = 0, last = path.size() - 1; i < last; i++) {
+            // Only walk the sections which are set, not those of the defaults
+            Object child = section.get(path.getKey(i), null);
+            if (!(child instanceof ConfigurationSection)) {
+                return def;
+            }
+            section = (ConfigurationSection) child;
+        }
+        return section.get(path.getLastKey(), def);
+    }
+
+    /**
+     * Gets the requested String by a path split beforehand, as
+     * {@link #getString(String, String)} does.
+     *
+     * @param path Path of the String to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a String.
+     * @return Requested String.
+     */
+    default String getString(ConfigPath path, String def) {
+        Object val = get(path, null);
+        return (val != null) ? val.toString() : def;
+    }
+
+    /**
+     * Gets the requested int by a path split beforehand, as
+     * {@link #getInt(String, int)} does.
+     *
+     * @param path Path of the int to get.
+     * @param def The default value to return if the path is not found or is
+     *     not an int.
+     * @return Requested int.
+     */
+    default int getInt(ConfigPath path, int def) {
+        Object val = get(path, null);
+        return (val instanceof Number) ? NumberConversions.toInt(val) : def;
+    }
+
+    /**
+     * Gets the requested long by a path split beforehand, as
+     * {@link #getLong(String, long)} does.
+     *
+     * @param path Path of the long to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a long.
+     * @return Requested long.
+     */
+    default long getLong(ConfigPath path, long def) {
+        Object val = get(path, null);
+        return (val instanceof Number) ? NumberConversions.toLong(val) : def;
+    }
+
+    /**
+     * Gets the requested double by a path split beforehand, as
+     * {@link #getDouble(String, double)} does.
+     *
+     * @param path Path of the double to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a double.
+     * @return Requested double.
+     */
+    default double getDouble(ConfigPath path, double def) {
+        Object val = get(path, null);
+        return (val instanceof Number) ? NumberConversions.toDouble(val) : def;
+    }
+
+    /**
+     * Gets the requested boolean by a path split beforehand, as
+     * {@link #getBoolean(String, boolean)} does.
+     *
+     * @param path Path of the boolean to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a boolean.
+     * @return Requested boolean.
+     */
+    default boolean getBoolean(ConfigPath path, boolean def) {
+        Object val = get(path, null);
+        return (val instanceof Boolean) ? (Boolean) val : def;
+    }
+
+    /**
+     * Gets a read-only copy of all values of this section which are not
+     * sections themselves, by their paths relative to this section.
+     * <p>
+     * The copy is flat, so reading a value from it takes a single lookup
+     * however deep the value is nested. It includes the defaults as
+     * {@link #getValues(boolean)} does, and does not reflect later changes.
+     * The values themselves are not copied. A value at an empty path, which
+     * no {@link ConfigPath} can point to, is left out.
+     *
+     * @return the values by their paths
+     */
+    default Map<ConfigPath, Object> getFlattenedValues() {
+        Configuration root = getRoot();
+        char separator = (root == null) ? '.' : root.options().pathSeparator();
+        ImmutableMap.Builder<ConfigPath, Object> values = ImmutableMap.builder();
+        for (Map.Entry<String, Object> entry : getValues(true).entrySet()) {
+            if (!(entry.getValue() instanceof ConfigurationSection) && !entry.getKey().isEmpty()) {
+                values.put(ConfigPath.of(entry.getKey(), separator), entry.getValue());
+            }
+        }
+        return values.build();
+    }
+
+    /**
+     * Binds this section onto a record, as
+     * {@link ConfigurationBinder#bind(ConfigurationSection, Class)} does.
+     *
+     * @param <T> the type of the record
+     * @param type the class of the record
+     * @return the bound record
+     * @throws InvalidConfigurationException if values are missing or cannot
+     *     be bound, listing all of them
+     * @throws IllegalArgumentException if the type is null or is not a
+     *     record of bindable components
+     */
+    default <T extends Record> T bind(Class<T> type) throws InvalidConfigurationException {
+        return ConfigurationBinder.bind(this, type);
+    }
+    // Solar end
+
     /**
      * Sets the specified path to the given value.
      * <p>
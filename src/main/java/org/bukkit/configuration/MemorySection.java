@@ -239,6 +239,30 @@ public class MemorySection implements ConfigurationSection {
         return section.get(key, def);
     }
 
+    // Solar start
+    @Override
+    public Object get(ConfigPath path, Object def) {
+        Validate.notNull(path, "Path cannot be null");
+
+        if (getRoot() == null) {
+            throw new IllegalStateException("Cannot access section without a root");
+        }
+
+        MemorySection section = this;
+        for (int i = 0, last = path.size() - 1; i < last; i++) {
+            Object child = section.map.get(path.getKey(i));
+            if (!(child instanceof MemorySection)) {
+                // Sections of other implementations resolve the remaining keys themselves
+                return (child instanceof ConfigurationSection) ? ConfigurationSection.super.get(path, def) : def;
+            }
+            section = (MemorySection) child;
+        }
+
+        Object result = section.map.get(path.getLastKey());
+        return (result == null) ? def : result;
+    }
+    // Solar end
+
     public ConfigurationSection createSection(String path) {
         Validate.notEmpty(path, "Cannot create section at empty path");
         Configuration root = getRoot();
@@ -0,0 +1,131 @@
+package org.bukkit.configuration;
+
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An immutable copy of a {@link Configuration}, taken by
+ * {@link Configuration#snapshot()}.
+ * <p>
+ * A snapshot is deeply immutable: its sections are {@link SnapshotSection}s
+ * and its lists and maps are unmodifiable copies, so it can be read from any
+ * thread without locking. Objects such as {@link org.bukkit.inventory.ItemStack}s
+ * are not copied, and must not be modified once the snapshot is taken.
+ * <p>
+ * All fields of a snapshot are final, so a snapshot stored in a volatile
+ * field is safely published to the threads reading that field. Reloading a
+ * configuration and replacing the snapshot in that field swaps all values at
+ * once.
+ */
+// Solar - whole class
+public final class SnapshotConfiguration extends SnapshotSection implements Configuration {
+
+    final boolean copyDefaults;
+    private final SnapshotConfiguration defaults;
+    private final ConfigurationOptions options;
+
+    private SnapshotConfiguration(Configuration source, SnapshotConfiguration defaults, Map<Object, Object> copies) {
+        super(null, null, "", source, defaults, source.options().pathSeparator(), copies);
+        this.copyDefaults = source.options().copyDefaults();
+        this.defaults = defaults;
+        this.options = new Options(this);
+    }
+
+    /**
+     * Takes a snapshot of a configuration and its defaults
+     *
+     * @param source the configuration
+     * @return the snapshot
+     * @throws IllegalArgumentException if the configuration is null
+     */
+    public static SnapshotConfiguration of(Configuration source) {
+        Validate.notNull(source, "Configuration cannot be null");
+
+        if (source instanceof SnapshotConfiguration) {
+            return (SnapshotConfiguration) source;
+        }
+        return of(source, newCopies());
+    }
+
+    private static SnapshotConfiguration of(Configuration source, Map<Object, Object> copies) {
+        Configuration defaults = source.getDefaults();
+        SnapshotConfiguration defaultsSnapshot;
+        if (defaults == null) {
+            defaultsSnapshot = null;
+        } else if (defaults instanceof SnapshotConfiguration) {
+            defaultsSnapshot = (SnapshotConfiguration) defaults;
+        } else {
+            defaultsSnapshot = of(defaults, copies);
+        }
+        return new SnapshotConfiguration(source, defaultsSnapshot, copies);
+    }
+
+    @Override
+    public void addDefaults(Map<String, Object> defaults) {
+        throw immutable();
+    }
+
+    @Override
+    public void addDefaults(Configuration defaults) {
+        throw immutable();
+    }
+
+    @Override
+    public void setDefaults(Configuration defaults) {
+        throw immutable();
+    }
+
+    @Override
+    public SnapshotConfiguration getDefaults() {
+        return defaults;
+    }
+
+    @Override
+    public SnapshotConfiguration snapshot() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The options of a snapshot are those of the configuration when the
+     * snapshot was taken, and cannot be changed.
+     */
+    @Override
+    public ConfigurationOptions options() {
+        return options;
+    }
+
+    private static final class Options extends ConfigurationOptions {
+
+        Options(SnapshotConfiguration configuration) {
+            super(configuration);
+        }
+
+        @Override
+        public SnapshotConfiguration configuration() {
+            return (SnapshotConfiguration) super.configuration();
+        }
+
+        @Override
+        public char pathSeparator() {
+            return configuration().separator;
+        }
+
+        @Override
+        public ConfigurationOptions pathSeparator(char value) {
+            throw immutable();
+        }
+
+        @Override
+        public boolean copyDefaults() {
+            return configuration().copyDefaults;
+        }
+
+        @Override
+        public ConfigurationOptions copyDefaults(boolean value) {
+            throw immutable();
+        }
+    }
+}
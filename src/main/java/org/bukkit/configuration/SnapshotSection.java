@@ -0,0 +1,676 @@
+package org.bukkit.configuration;
+
+import static org.bukkit.util.NumberConversions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+import org.bukkit.Color;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Vector;
+
+/**
+ * An immutable {@link ConfigurationSection} of a {@link SnapshotConfiguration}.
+ * <p>
+ * The keys and values of a section are kept in arrays, which small sections
+ * scan and larger ones index with a hash table, rather than in a map. Lists
+ * and maps are copied into unmodifiable ones. Reading does not allocate
+ * except where the returned value is new, and is safe from any thread.
+ * <p>
+ * All methods which would modify the section throw an
+ * {@link UnsupportedOperationException}.
+ */
+// Solar - whole class
+public class SnapshotSection implements ConfigurationSection {
+
+    /**
+     * Sections with more keys than this are indexed by a hash table
+     */
+    private static final int SCAN_LIMIT = 8;
+
+    private final SnapshotConfiguration root;
+    private final SnapshotSection parent;
+    private final String path;
+    private final String fullPath;
+    private final SnapshotSection defaults;
+    final char separator;
+    private final String[] keys;
+    private final Object[] values;
+    /**
+     * Open addressing table of the indexes of the keys plus one, or null if
+     * the keys are scanned
+     */
+    private final int[] table;
+
+    SnapshotSection(SnapshotConfiguration root, SnapshotSection parent, String path, ConfigurationSection source, SnapshotSection defaults, char separator, Map<Object, Object> copies) {
+        this.root = (root == null) ? (SnapshotConfiguration) this : root;
+        this.parent = parent;
+        this.path = path;
+        this.fullPath = (parent == null) ? "" : (parent.parent == null) ? path : parent.fullPath + separator + path;
+        this.defaults = defaults;
+        this.separator = separator;
+
+        Map<String, Object> entries = (source instanceof MemorySection) ? ((MemorySection) source).map : source.getValues(false);
+        String[] keys = new String[entries.size()];
+        Object[] values = new Object[keys.length];
+        int index = 0;
+        for (Map.Entry<String, Object> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            keys[index] = key;
+            if (value instanceof ConfigurationSection) {
+                SnapshotSection childDefaults = (defaults == null) ? null : defaults.getOwnSection(key);
+                values[index] = new SnapshotSection(this.root, this, key, (ConfigurationSection) value, childDefaults, separator, copies);
+            } else {
+                values[index] = copy(value, copies);
+            }
+            index++;
+        }
+        this.keys = keys;
+        this.values = values;
+        this.table = (keys.length > SCAN_LIMIT) ? index(keys) : null;
+    }
+
+    private static int[] index(String[] keys) {
+        int[] table = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+        int mask = table.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = spread(keys[i].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Copies a value into an unmodifiable one, keeping shared and recursive
+     * collections as such
+     */
+    private static Object copy(Object value, Map<Object, Object> copies) {
+        if (!(value instanceof List) && !(value instanceof Map)) {
+            return value;
+        }
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            copies.put(value, Collections.unmodifiableList(list));
+            for (Object element : (List<?>) value) {
+                list.add(copy(element, copies));
+            }
+        } else {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            copies.put(value, Collections.unmodifiableMap(map));
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey(), copy(entry.getValue(), copies));
+            }
+        }
+        return copies.get(value);
+    }
+
+    static Map<Object, Object> newCopies() {
+        return new IdentityHashMap<>();
+    }
+
+    /**
+     * Finds the value of the key in the given region of a path
+     */
+    private Object find(String path, int start, int end) {
+        int length = end - start;
+        if (table == null) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].length() == length && path.regionMatches(start, keys[i], 0, length)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            String key = keys[table[slot] - 1];
+            if (key.length() == length && key.hashCode() == hash && path.regionMatches(start, key, 0, length)) {
+                return values[table[slot] - 1];
+            }
+        }
+        return null;
+    }
+
+    private Object find(String key) {
+        return find(key, 0, key.length());
+    }
+
+    private SnapshotSection getOwnSection(String key) {
+        Object value = find(key);
+        return (value instanceof SnapshotSection) ? (SnapshotSection) value : null;
+    }
+
+    static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("Configuration snapshots cannot be modified");
+    }
+
+    public Set<String> getKeys(boolean deep) {
+        Set<String> result = new LinkedHashSet<String>();
+
+        if (root.copyDefaults && defaults != null) {
+            result.addAll(defaults.getKeys(deep));
+        }
+
+        mapChildrenKeys(result, "", deep);
+
+        return result;
+    }
+
+    private void mapChildrenKeys(Set<String> output, String prefix, boolean deep) {
+        for (int i = 0; i < keys.length; i++) {
+            String key = prefix + keys[i];
+            output.add(key);
+
+            if (deep && values[i] instanceof SnapshotSection) {
+                ((SnapshotSection) values[i]).mapChildrenKeys(output, key + separator, deep);
+            }
+        }
+    }
+
+    public Map<String, Object> getValues(boolean deep) {
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+
+        if (root.copyDefaults && defaults != null) {
+            result.putAll(defaults.getValues(deep));
+        }
+
+        mapChildrenValues(result, "", deep);
+
+        return result;
+    }
+
+    private void mapChildrenValues(Map<String, Object> output, String prefix, boolean deep) {
+        for (int i = 0; i < keys.length; i++) {
+            String key = prefix + keys[i];
+            output.put(key, values[i]);
+
+            if (deep && values[i] instanceof SnapshotSection) {
+                ((SnapshotSection) values[i]).mapChildrenValues(output, key + separator, deep);
+            }
+        }
+    }
+
+    public boolean contains(String path) {
+        return contains(path, false);
+    }
+
+    public boolean contains(String path, boolean ignoreDefault) {
+        return ((ignoreDefault) ? get(path, null) : get(path)) != null;
+    }
+
+    public boolean isSet(String path) {
+        if (root.copyDefaults) {
+            return contains(path);
+        }
+        return get(path, null) != null;
+    }
+
+    public String getCurrentPath() {
+        return fullPath;
+    }
+
+    public String getName() {
+        return path;
+    }
+
+    public SnapshotConfiguration getRoot() {
+        return root;
+    }
+
+    public SnapshotSection getParent() {
+        return parent;
+    }
+
+    public void addDefault(String path, Object value) {
+        throw immutable();
+    }
+
+    public SnapshotSection getDefaultSection() {
+        return defaults;
+    }
+
+    public void set(String path, Object value) {
+        throw immutable();
+    }
+
+    public Object get(String path) {
+        return get(path, getDefault(path));
+    }
+
+    public Object get(String path, Object def) {
+        Validate.notNull(path, "Path cannot be null");
+
+        if (path.length() == 0) {
+            return this;
+        }
+
+        SnapshotSection section = this;
+        int start = 0, end;
+        while ((end = path.indexOf(separator, start)) != -1) {
+            Object child = section.find(path, start, end);
+            if (!(child instanceof SnapshotSection)) {
+                return def;
+            }
+            section = (SnapshotSection) child;
+            start = end + 1;
+        }
+
+        Object result = section.find(path, start, path.length());
+        return (result == null) ? def : result;
+    }
+
+    @Override
+    public Object get(ConfigPath path, Object def) {
+        Validate.notNull(path, "Path cannot be null");
+
+        SnapshotSection section = this;
+        for (int i = 0, last = path.size() - 1; i < last; i++) {
+            section = section.getOwnSection(path.getKey(i));
+            if (section == null) {
+                return def;
+            }
+        }
+
+        Object result = section.find(path.getLastKey());
+        return (result == null) ? def : result;
+    }
+
+    public ConfigurationSection createSection(String path) {
+        throw immutable();
+    }
+
+    public ConfigurationSection createSection(String path, Map<?, ?> map) {
+        throw immutable();
+    }
+
+    // Primitives
+    public String getString(String path) {
+        Object def = getDefault(path);
+        return getString(path, def != null ? def.toString() : null);
+    }
+
+    public String getString(String path, String def) {
+        Object val = get(path, def);
+        return (val != null) ? val.toString() : def;
+    }
+
+    public boolean isString(String path) {
+        return get(path) instanceof String;
+    }
+
+    public int getInt(String path) {
+        Object def = getDefault(path);
+        return getInt(path, (def instanceof Number) ? toInt(def) : 0);
+    }
+
+    public int getInt(String path, int def) {
+        Object val = get(path, null);
+        return (val instanceof Number) ? toInt(val) : def;
+    }
+
+    public boolean isInt(String path) {
+        return get(path) instanceof Integer;
+    }
+
+    public boolean getBoolean(String path) {
+        Object def = getDefault(path);
+        return getBoolean(path, (def instanceof Boolean) ? (Boolean) def : false);
+    }
+
+    public boolean getBoolean(String path, boolean def) {
+        Object val = get(path, null);
+        return (val instanceof Boolean) ? (Boolean) val : def;
+    }
+
+    public boolean isBoolean(String path) {
+        return get(path) instanceof Boolean;
+    }
+
+    public double getDouble(String path) {
+        Object def = getDefault(path);
+        return getDouble(path, (def instanceof Number) ? toDouble(def) : 0);
+    }
+
+    public double getDouble(String path, double def) {
+        Object val = get(path, null);
+        return (val instanceof Number) ? toDouble(val) : def;
+    }
+
+    public boolean isDouble(String path) {
+        return get(path) instanceof Double;
+    }
+
+    public long getLong(String path) {
+        Object def = getDefault(path);
+        return getLong(path, (def instanceof Number) ? toLong(def) : 0);
+    }
+
+    public long getLong(String path, long def) {
+        Object val = get(path, null);
+        return (val instanceof Number) ? toLong(val) : def;
+    }
+
+    public boolean isLong(String path) {
+        return get(path) instanceof Long;
+    }
+
+    // Java
+    public List<?> getList(String path) {
+        Object def = getDefault(path);
+        return getList(path, (def instanceof List) ? (List<?>) def : null);
+    }
+
+    public List<?> getList(String path, List<?> def) {
+        Object val = get(path, def);
+        return (List<?>) ((val instanceof List) ? val : def);
+    }
+
+    public boolean isList(String path) {
+        return get(path) instanceof List;
+    }
+
+    /**
+     * Converts the elements of a list in the same way as {@link MemorySection}
+     *
+     * @param conversion converts an element, or returns null to skip it
+     */
+    private <T> List<T> getList(String path, Function<Object, T> conversion) {
+        List<?> list = getList(path);
+
+        if (list == null) {
+            return new ArrayList<T>(0);
+        }
+
+        List<T> result = new ArrayList<T>();
+
+        for (Object object : list) {
+            T converted = conversion.apply(object);
+            if (converted != null) {
+                result.add(converted);
+            }
+        }
+
+        return result;
+    }
+
+    public List<String> getStringList(String path) {
+        return getList(path, (object) -> (object instanceof String || isPrimitiveWrapper(object)) ? String.valueOf(object) : null);
+    }
+
+    public List<Integer> getIntegerList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Integer) {
+                return (Integer) object;
+            } else if (object instanceof String) {
+                try {
+                    return Integer.valueOf((String) object);
+                } catch (Exception ex) {
+                    return null;
+                }
+            } else if (object instanceof Character) {
+                return (int) ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                return ((Number) object).intValue();
+            }
+            return null;
+        });
+    }
+
+    public List<Boolean> getBooleanList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Boolean) {
+                return (Boolean) object;
+            } else if (object instanceof String) {
+                if (Boolean.TRUE.toString().equals(object)) {
+                    return true;
+                } else if (Boolean.FALSE.toString().equals(object)) {
+                    return false;
+                }
+            }
+            return null;
+        });
+    }
+
+    public List<Double> getDoubleList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Double) {
+                return (Double) object;
+            } else if (object instanceof String) {
+                try {
+                    return Double.valueOf((String) object);
+                } catch (Exception ex) {
+                    return null;
+                }
+            } else if (object instanceof Character) {
+                return (double) ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                return ((Number) object).doubleValue();
+            }
+            return null;
+        });
+    }
+
+    public List<Float> getFloatList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Float) {
+                return (Float) object;
+            } else if (object instanceof String) {
+                try {
+                    return Float.valueOf((String) object);
+                } catch (Exception ex) {
+                    return null;
+                }
+            } else if (object instanceof Character) {
+                return (float) ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                return ((Number) object).floatValue();
+            }
+            return null;
+        });
+    }
+
+    public List<Long> getLongList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Long) {
+                return (Long) object;
+            } else if (object instanceof String) {
+                try {
+                    return Long.valueOf((String) object);
+                } catch (Exception ex) {
+                    return null;
+                }
+            } else if (object instanceof Character) {
+                return (long) ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                return ((Number) object).longValue();
+            }
+            return null;
+        });
+    }
+
+    public List<Byte> getByteList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Byte) {
+                return (Byte) object;
+            } else if (object instanceof String) {
+                try {
+                    return Byte.valueOf((String) object);
+                } catch (Exception ex) {
+                    return null;
+                }
+            } else if (object instanceof Character) {
+                return (byte) ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                return ((Number) object).byteValue();
+            }
+            return null;
+        });
+    }
+
+    public List<Character> getCharacterList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Character) {
+                return (Character) object;
+            } else if (object instanceof String) {
+                String str = (String) object;
+
+                if (str.length() == 1) {
+                    return str.charAt(0);
+                }
+            } else if (object instanceof Number) {
+                return (char) ((Number) object).intValue();
+            }
+            return null;
+        });
+    }
+
+    public List<Short> getShortList(String path) {
+        return getList(path, (object) -> {
+            if (object instanceof Short) {
+                return (Short) object;
+            } else if (object instanceof String) {
+                try {
+                    return Short.valueOf((String) object);
+                } catch (Exception ex) {
+                    return null;
+                }
+            } else if (object instanceof Character) {
+                return (short) ((Character) object).charValue();
+            } else if (object instanceof Number) {
+                return ((Number) object).shortValue();
+            }
+            return null;
+        });
+    }
+
+    public List<Map<?, ?>> getMapList(String path) {
+        return getList(path, (object) -> (object instanceof Map) ? (Map<?, ?>) object : null);
+    }
+
+    // Bukkit
+    @Override
+    public <T extends ConfigurationSerializable> T getSerializable(String path, Class<T> clazz) {
+        Validate.notNull(clazz, "ConfigurationSerializable class cannot be null");
+        Object def = getDefault(path);
+        return getSerializable(path, clazz, (def != null && clazz.isInstance(def)) ? clazz.cast(def) : null);
+    }
+
+    @Override
+    public <T extends ConfigurationSerializable> T getSerializable(String path, Class<T> clazz, T def) {
+        Validate.notNull(clazz, "ConfigurationSerializable class cannot be null");
+        Object val = get(path);
+        return (val != null && clazz.isInstance(val)) ? clazz.cast(val) : def;
+    }
+
+    public Vector getVector(String path) {
+        return getSerializable(path, Vector.class);
+    }
+
+    public Vector getVector(String path, Vector def) {
+        return getSerializable(path, Vector.class, def);
+    }
+
+    public boolean isVector(String path) {
+        return getSerializable(path, Vector.class) != null;
+    }
+
+    public OfflinePlayer getOfflinePlayer(String path) {
+        return getSerializable(path, OfflinePlayer.class);
+    }
+
+    public OfflinePlayer getOfflinePlayer(String path, OfflinePlayer def) {
+        return getSerializable(path, OfflinePlayer.class, def);
+    }
+
+    public boolean isOfflinePlayer(String path) {
+        return getSerializable(path, OfflinePlayer.class) != null;
+    }
+
+    public ItemStack getItemStack(String path) {
+        return getSerializable(path, ItemStack.class);
+    }
+
+    public ItemStack getItemStack(String path, ItemStack def) {
+        return getSerializable(path, ItemStack.class, def);
+    }
+
+    public boolean isItemStack(String path) {
+        return getSerializable(path, ItemStack.class) != null;
+    }
+
+    public Color getColor(String path) {
+        return getSerializable(path, Color.class);
+    }
+
+    public Color getColor(String path, Color def) {
+        return getSerializable(path, Color.class, def);
+    }
+
+    public boolean isColor(String path) {
+        return getSerializable(path, Color.class) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A section which only exists in the defaults is returned from the
+     * defaults, as this section cannot create it.
+     */
+    public ConfigurationSection getConfigurationSection(String path) {
+        Object val = get(path);
+        return (val instanceof ConfigurationSection) ? (ConfigurationSection) val : null;
+    }
+
+    public boolean isConfigurationSection(String path) {
+        return get(path) instanceof ConfigurationSection;
+    }
+
+    private static boolean isPrimitiveWrapper(Object input) {
+        return input instanceof Integer || input instanceof Boolean ||
+                input instanceof Character || input instanceof Byte ||
+                input instanceof Short || input instanceof Double ||
+                input instanceof Long || input instanceof Float;
+    }
+
+    private Object getDefault(String path) {
+        Validate.notNull(path, "Path cannot be null");
+
+        return (defaults == null) ? null : defaults.get(path);
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append(getClass().getSimpleName())
+            .append("[path='")
+            .append(getCurrentPath())
+            .append("']")
+            .toString();
+    }
+}
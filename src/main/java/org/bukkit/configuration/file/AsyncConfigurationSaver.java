@@ -0,0 +1,206 @@
+package org.bukkit.configuration.file;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Writes the contents captured by {@link FileConfiguration#saveAsync(File)}
+ * on a background thread.
+ * <p>
+ * Each file is written to a temporary file next to it, which then replaces
+ * it atomically, so that a crash never leaves a partially written file.
+ * Saves of the same file requested within {@link #COALESCE_MILLIS} of each
+ * other are coalesced into a single write of the latest contents. The
+ * temporary file takes the permissions of the file it replaces.
+ */
+// Solar - whole class
+final class AsyncConfigurationSaver {
+
+    /**
+     * The window during which saves of the same file are coalesced
+     */
+    static final long COALESCE_MILLIS = 100;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Configuration Saver").setDaemon(true).build());
+    private static final ConcurrentMap<Path, Save> SAVES = new ConcurrentHashMap<>();
+    /**
+     * The saves being written, which a newer save of the same file may
+     * already have replaced in {@link #SAVES}
+     */
+    private static final ConcurrentMap<Path, Save> WRITING = new ConcurrentHashMap<>();
+
+    private AsyncConfigurationSaver() {}
+
+    static CompletableFuture<Void> save(File file, FileConfiguration.ContentWriter contents) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        Save created = new Save(path, contents);
+        Save save = SAVES.compute(path, (key, pending) -> (pending != null && pending.replace(contents)) ? pending : created);
+        if (save == created) {
+            // The executor has a single thread, so a save replacing one being written runs after it
+            EXECUTOR.schedule(save::run, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return save.future.copy();
+    }
+
+    /**
+     * Prevents the saves of a file from overwriting a synchronous save, by
+     * discarding the pending save and waiting for the one being written
+     *
+     * @param file the file being saved synchronously
+     */
+    static void supersede(File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        Save save = SAVES.get(path);
+        if (save != null) {
+            if (save.cancel()) {
+                SAVES.remove(save.path, save);
+                save.future.complete(null);
+            } else {
+                save.future.handle((result, ex) -> null).join();
+            }
+        }
+        // A save is marked as being written when it starts, before a newer save can replace it
+        Save writing = WRITING.get(path);
+        if (writing != null) {
+            writing.future.handle((result, ex) -> null).join();
+        }
+    }
+
+    static void flush() {
+        List<Save> saves = new ArrayList<>(SAVES.values());
+        for (Save save : saves) {
+            EXECUTOR.execute(save::run);
+        }
+        for (Save save : saves) {
+            save.future.handle((result, ex) -> null).join();
+        }
+    }
+
+    private static void write(Path path, FileConfiguration.ContentWriter contents) throws IOException {
+        Path directory = path.getParent();
+        Files.createDirectories(directory);
+        Path temporary = createTemporary(path);
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+                contents.writeTo(writer);
+                writer.flush();
+                stream.getFD().sync();
+            }
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Creates the temporary file to replace a file with. Unlike
+     * {@link Files#createTempFile}, which only grants its owner access, it
+     * is created as a new file would be, and then given the permissions of
+     * the file it replaces.
+     */
+    private static Path createTemporary(Path path) throws IOException {
+        Path temporary;
+        while (true) {
+            temporary = path.resolveSibling(path.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                Files.createFile(temporary);
+                break;
+            } catch (FileAlreadyExistsException ignored) {
+            }
+        }
+        try {
+            Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(path));
+        } catch (NoSuchFileException | UnsupportedOperationException ignored) {
+            // The file is new, or the file system does not support POSIX permissions
+        } catch (IOException ex) {
+            Files.deleteIfExists(temporary);
+            throw ex;
+        }
+        return temporary;
+    }
+
+    private static final class Save {
+
+        private final Path path;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private FileConfiguration.ContentWriter contents;
+        private boolean started;
+
+        Save(Path path, FileConfiguration.ContentWriter contents) {
+            this.path = path;
+            this.contents = contents;
+        }
+
+        synchronized boolean replace(FileConfiguration.ContentWriter contents) {
+            if (started) {
+                return false;
+            }
+            this.contents = contents;
+            return true;
+        }
+
+        synchronized boolean cancel() {
+            if (started) {
+                return false;
+            }
+            started = true;
+            contents = null;
+            return true;
+        }
+
+        void run() {
+            FileConfiguration.ContentWriter contents;
+            synchronized (this) {
+                if (started) {
+                    return;
+                }
+                started = true;
+                contents = this.contents;
+                this.contents = null;
+                WRITING.put(path, this);
+            }
+            Throwable failure = null;
+            try {
+                write(path, contents);
+            } catch (Throwable ex) {
+                failure = ex;
+            }
+            // Stop coalescing into this save before its callers learn it completed
+            SAVES.remove(path, this);
+            WRITING.remove(path, this);
+            if (failure == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        }
+    }
+}
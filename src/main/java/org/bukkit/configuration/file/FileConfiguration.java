@@ -16,6 +16,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.concurrent.CompletableFuture; // Solar
 
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.MemoryConfiguration;
@@ -61,6 +62,7 @@ public abstract class FileConfiguration extends MemoryConfiguration {
     public void save(File file) throws IOException {
         Validate.notNull(file, "File cannot be null");
 
+        AsyncConfigurationSaver.supersede(file); // Solar
         Files.createParentDirs(file);
 
         String data = saveToString();
@@ -74,6 +76,70 @@ public abstract class FileConfiguration extends MemoryConfiguration {
         }
     }
 
+    // Solar start
+    /**
+     * Saves this {@link FileConfiguration} to the specified location on a
+     * background thread.
+     * <p>
+     * The contents are captured when this method is called, so later changes
+     * are not saved. They are written to a temporary file which then replaces
+     * the given file atomically. Saves of the same file requested in quick
+     * succession are coalesced into a single write of the latest contents,
+     * in which case all of them complete once it is written.
+     * <p>
+     * A synchronous {@link #save(File)} of the same file discards a pending
+     * save, which then completes normally, or waits for it to be written.
+     *
+     * @param file File to save to.
+     * @return a future completing once the file is written, or completing
+     *     exceptionally with the {@link IOException} if it cannot be written
+     * @throws IllegalArgumentException Thrown when file is null.
+     */
+    public CompletableFuture<Void> saveAsync(File file) {
+        Validate.notNull(file, "File cannot be null");
+
+        return AsyncConfigurationSaver.save(file, captureContents());
+    }
+
+    /**
+     * Writes all pending saves of {@link #saveAsync(File)} right away and
+     * waits for them, such as before the server shuts down.
+     */
+    public static void flushAsyncSaves() {
+        AsyncConfigurationSaver.flush();
+    }
+
+    /**
+     * Captures the current contents of this configuration, to be written
+     * later by another thread.
+     * <p>
+     * By default, this saves the configuration to a string. Implementations
+     * may instead copy their values and defer the saving itself to the
+     * returned writer.
+     *
+     * @return the contents
+     */
+    protected ContentWriter captureContents() {
+        String data = saveToString();
+        return (writer) -> writer.write(data);
+    }
+
+    /**
+     * Contents of a configuration captured for saving
+     */
+    @FunctionalInterface
+    protected interface ContentWriter {
+
+        /**
+         * Writes the contents
+         *
+         * @param writer the writer
+         * @throws IOException if the writer fails
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
+    // Solar end
+
     /**
      * Saves this {@link FileConfiguration} to the specified location.
      * <p>
@@ -0,0 +1,423 @@
+package org.bukkit.configuration.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+
+/**
+ * A binary copy of the values loaded from a YAML file, kept in a hidden file
+ * next to it.
+ * <p>
+ * The cache is keyed by the SHA-256 hash of the contents of the YAML file,
+ * so it is only used while the file is unchanged. It is read through a
+ * memory mapping and holds every type constructed by {@link YamlConstructor}.
+ * {@link ConfigurationSerializable} objects are stored in their serialized
+ * form, and deserialized again when the cache is read, as they would be when
+ * the file is parsed. Shared and recursive collections stay shared.
+ * <p>
+ * Failing to read or write the cache is never an error, the file is parsed
+ * instead.
+ */
+// Solar - whole class
+final class YamlBinaryCache {
+
+    private static final int MAGIC = 0x534F4C59;
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte SECTION = 1;
+    private static final byte STRING = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte TRUE = 7;
+    private static final byte FALSE = 8;
+    private static final byte BIG_INTEGER = 9;
+    private static final byte DATE = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte MAP = 13;
+    private static final byte SET = 14;
+    private static final byte SERIALIZABLE = 15;
+    private static final byte REFERENCE = 16;
+
+    private final Path path;
+    private final byte[] hash;
+
+    /**
+     * @param file the YAML file
+     * @param contents the contents of the YAML file
+     */
+    YamlBinaryCache(File file, byte[] contents) {
+        this.path = file.toPath().resolveSibling("." + file.getName() + ".cache");
+        try {
+            this.hash = MessageDigest.getInstance("SHA-256").digest(contents);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError(ex); // Every JVM has SHA-256
+        }
+    }
+
+    /**
+     * Reads the cached values, if they are of the current contents of the
+     * file
+     *
+     * @return the header and the values, or null if there is no usable cache
+     */
+    Contents read() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 5 + hash.length || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                return null;
+            }
+            byte[] cachedHash = new byte[hash.length];
+            buffer.get(cachedHash);
+            if (!Arrays.equals(hash, cachedHash)) {
+                return null;
+            }
+            Decoder decoder = new Decoder(buffer);
+            String header = decoder.readString();
+            Object values = decoder.read();
+            if (!(values instanceof Section) || buffer.hasRemaining()) {
+                return null;
+            }
+            return new Contents(header, (Section) values);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException | RuntimeException ex) {
+            // Corrupt, or holding an object which can no longer be deserialized
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the cache with the values just loaded from the file
+     *
+     * @param header the header parsed from the file
+     * @param section the section the file was loaded into
+     */
+    void write(String header, ConfigurationSection section) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // The values of sections include the defaults when copying defaults, which are not part of the file
+        Configuration root = section.getRoot();
+        boolean copyDefaults = root != null && root.options().copyDefaults();
+        if (copyDefaults) {
+            root.options().copyDefaults(false);
+        }
+        try {
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.write(hash);
+            Encoder encoder = new Encoder(output);
+            encoder.writeString(header);
+            encoder.write(section);
+            output.flush();
+        } catch (IOException | IllegalArgumentException ex) {
+            // Holds a value which cannot be cached
+            return;
+        } finally {
+            if (copyDefaults) {
+                root.options().copyDefaults(true);
+            }
+        }
+
+        try {
+            Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, bytes.toByteArray());
+                try {
+                    Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException ex) {
+            // The cache is only an optimization
+        }
+    }
+
+    /**
+     * The values read from the cache
+     */
+    static final class Contents {
+        final String header;
+        private final Section values;
+
+        Contents(String header, Section values) {
+            this.header = header;
+            this.values = values;
+        }
+
+        /**
+         * Sets the values into a section, in the same way as loading the
+         * file into it
+         *
+         * @param section the section
+         */
+        void apply(ConfigurationSection section) {
+            apply(values, section);
+        }
+
+        private static void apply(Section values, ConfigurationSection section) {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                if (entry.getValue() instanceof Section) {
+                    apply((Section) entry.getValue(), section.createSection(entry.getKey()));
+                } else {
+                    section.set(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * The values of a section, told apart from the maps within its values
+     */
+    @SuppressWarnings("serial")
+    private static final class Section extends LinkedHashMap<String, Object> {
+    }
+
+    private static final class Encoder {
+        private final DataOutputStream output;
+        private final Map<Object, Integer> references = new IdentityHashMap<>();
+
+        Encoder(DataOutputStream output) {
+            this.output = output;
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        void write(Object value) throws IOException {
+            if (value == null) {
+                output.writeByte(NULL);
+                return;
+            }
+
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                output.writeByte(STRING);
+                writeString((String) value);
+            } else if (type == Integer.class) {
+                output.writeByte(INTEGER);
+                output.writeInt((Integer) value);
+            } else if (type == Long.class) {
+                output.writeByte(LONG);
+                output.writeLong((Long) value);
+            } else if (type == Double.class) {
+                output.writeByte(DOUBLE);
+                output.writeDouble((Double) value);
+            } else if (type == Float.class) {
+                output.writeByte(FLOAT);
+                output.writeFloat((Float) value);
+            } else if (type == Boolean.class) {
+                output.writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (type == BigInteger.class) {
+                output.writeByte(BIG_INTEGER);
+                writeString(value.toString());
+            } else if (type == Date.class) {
+                output.writeByte(DATE);
+                output.writeLong(((Date) value).getTime());
+            } else if (type == byte[].class) {
+                output.writeByte(BYTES);
+                output.writeInt(((byte[]) value).length);
+                output.write((byte[]) value);
+            } else if (value instanceof ConfigurationSection) {
+                output.writeByte(SECTION);
+                writeEntries(((ConfigurationSection) value).getValues(false));
+            } else if (!reference(value)) {
+                if (value instanceof List) {
+                    output.writeByte(LIST);
+                    writeElements((List<?>) value);
+                } else if (value instanceof Set) {
+                    output.writeByte(SET);
+                    writeElements((Set<?>) value);
+                } else if (value instanceof Map) {
+                    output.writeByte(MAP);
+                    writeEntries((Map<?, ?>) value);
+                } else if (value instanceof ConfigurationSerializable) {
+                    // The same map as YamlRepresenter represents the object with
+                    Map<String, Object> serialized = new LinkedHashMap<>();
+                    serialized.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, ConfigurationSerialization.getAlias(((ConfigurationSerializable) value).getClass()));
+                    serialized.putAll(((ConfigurationSerializable) value).serialize());
+                    output.writeByte(SERIALIZABLE);
+                    writeEntries(serialized);
+                } else {
+                    throw new IllegalArgumentException("Cannot cache " + type.getName());
+                }
+            }
+        }
+
+        /**
+         * Writes a reference to a value written before, or assigns the value
+         * the next reference
+         */
+        private boolean reference(Object value) throws IOException {
+            Integer index = references.get(value);
+            if (index == null) {
+                references.put(value, references.size());
+                return false;
+            }
+            output.writeByte(REFERENCE);
+            output.writeInt(index);
+            return true;
+        }
+
+        private void writeElements(Collection<?> elements) throws IOException {
+            output.writeInt(elements.size());
+            for (Object element : elements) {
+                write(element);
+            }
+        }
+
+        private void writeEntries(Map<?, ?> entries) throws IOException {
+            output.writeInt(entries.size());
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                write(entry.getKey());
+                write(entry.getValue());
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private final List<Object> references = new ArrayList<>();
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        String readString() {
+            return new String(readBytes(), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes() {
+            byte[] bytes = new byte[readLength(1)];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Reads a length, checking that the buffer holds at least that many
+         * elements of the given size
+         */
+        private int readLength(int elementSize) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() / elementSize) {
+                throw new BufferUnderflowException();
+            }
+            return length;
+        }
+
+        Object read() {
+            byte type = buffer.get();
+            switch (type) {
+                case NULL:
+                    return null;
+                case SECTION:
+                    Section section = new Section();
+                    for (int i = readLength(2); i > 0; i--) {
+                        section.put(String.valueOf(read()), read());
+                    }
+                    return section;
+                case STRING:
+                    return readString();
+                case INTEGER:
+                    return buffer.getInt();
+                case LONG:
+                    return buffer.getLong();
+                case DOUBLE:
+                    return buffer.getDouble();
+                case FLOAT:
+                    return buffer.getFloat();
+                case TRUE:
+                    return true;
+                case FALSE:
+                    return false;
+                case BIG_INTEGER:
+                    return new BigInteger(readString());
+                case DATE:
+                    return new Date(buffer.getLong());
+                case BYTES:
+                    return readBytes();
+                case LIST:
+                    int size = readLength(1);
+                    List<Object> list = new ArrayList<>(size);
+                    references.add(list);
+                    for (int i = size; i > 0; i--) {
+                        list.add(read());
+                    }
+                    return list;
+                case SET:
+                    Set<Object> set = new LinkedHashSet<>();
+                    references.add(set);
+                    for (int i = readLength(1); i > 0; i--) {
+                        set.add(read());
+                    }
+                    return set;
+                case MAP:
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    references.add(map);
+                    readEntries(map);
+                    return map;
+                case SERIALIZABLE:
+                    int index = references.size();
+                    references.add(null);
+                    Map<String, Object> serialized = new LinkedHashMap<>();
+                    readEntries(serialized);
+                    Object object = ConfigurationSerialization.deserializeObject(serialized);
+                    if (object == null) {
+                        throw new IllegalArgumentException("Could not deserialize " + serialized);
+                    }
+                    references.set(index, object);
+                    return object;
+                case REFERENCE:
+                    return references.get(buffer.getInt());
+                default:
+                    throw new IllegalArgumentException("Unknown type " + type);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readEntries(Map<?, ?> map) {
+            for (int i = readLength(2); i > 0; i--) {
+                Object key = read();
+                ((Map<Object, Object>) map).put((map instanceof Section) ? String.valueOf(key) : key, read());
+            }
+        }
+    }
+}
@@ -1,17 +1,36 @@
 package org.bukkit.configuration.file;
 
+import java.io.BufferedReader; // Solar
+import java.io.ByteArrayInputStream; // Solar
+import java.io.ByteArrayOutputStream; // Solar
+import java.io.BufferedWriter; // Solar
 import java.io.File;
+import java.io.FileInputStream; // Solar
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream; // Solar
 import java.io.IOException;
+import java.io.InputStreamReader; // Solar
+import java.io.OutputStreamWriter; // Solar
 import java.io.Reader;
+import java.io.StringReader; // Solar
+import java.io.StringWriter; // Solar
+import java.io.Writer; // Solar
+import java.util.ArrayList; // Solar
+import java.util.IdentityHashMap; // Solar
+import java.util.LinkedHashMap; // Solar
+import java.util.List; // Solar
 import java.util.Map;
 import java.util.logging.Level;
 
+import com.google.common.base.Charsets; // Solar
+import com.google.common.io.Files; // Solar
 import org.apache.commons.lang3.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.serialization.ConfigurationSerializable; // Solar
+import org.bukkit.configuration.serialization.ConfigurationSerialization; // Solar
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.error.YAMLException;
@@ -26,28 +45,186 @@ public class YamlConfiguration extends FileConfiguration {
     protected static final String BLANK_CONFIG = "{}\n";
     private final DumperOptions yamlOptions = new DumperOptions();
     private final Representer yamlRepresenter = new YamlRepresenter();
-    private final Yaml yaml = new Yaml(new YamlConstructor(), yamlRepresenter, yamlOptions);
+    // Solar start - stream documents into and out of sections
+    private final YamlConstructor yamlConstructor = new YamlConstructor();
+    private final Yaml yaml = new Yaml(yamlConstructor, yamlRepresenter, yamlOptions);
+    /**
+     * Whether a subclass leaves the loading hooks as they are, so that
+     * documents can be loaded without going through them
+     */
+    private static final ClassValue<Boolean> STREAMS_LOAD = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return !overrides(type, "loadFromString", String.class)
+                    && !overrides(type, "convertMapsToSections", Map.class, ConfigurationSection.class)
+                    && !overrides(type, "parseHeader", String.class);
+        }
+    };
+    /**
+     * Whether a subclass leaves the saving hooks as they are, so that
+     * documents can be saved without going through them
+     */
+    private static final ClassValue<Boolean> STREAMS_SAVE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return !overrides(type, "saveToString");
+        }
+    };
+
+    private static boolean overrides(Class<?> type, String name, Class<?>... parameterTypes) {
+        for (Class<?> c = type; c != YamlConfiguration.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return false;
+    }
 
     @Override
     public String saveToString() {
-        yamlOptions.setIndent(options().indent());
-        yamlOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        yamlRepresenter.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        StringWriter writer = new StringWriter();
+        writer.write(buildHeader());
+        try {
+            dump(writer);
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The document is generated into a buffer of bytes rather than being
+     * saved to a string first. The file is only opened, and truncated, once
+     * the document was generated, so that a failure leaves it as it was.
+     */
+    @Override
+    public void save(File file) throws IOException {
+        if (!STREAMS_SAVE.get(getClass())) {
+            super.save(file);
+            return;
+        }
+        Validate.notNull(file, "File cannot be null");
+
+        AsyncConfigurationSaver.supersede(file);
+        Files.createParentDirs(file);
 
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(buffer, Charsets.UTF_8))) {
+            writer.write(buildHeader());
+            dump(writer);
+        }
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            buffer.writeTo(stream);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This copies the sections and collections, and serializes the
+     * {@link ConfigurationSerializable} values, leaving only the YAML
+     * document to be generated by the returned writer.
+     */
+    @Override
+    protected ContentWriter captureContents() {
+        if (!STREAMS_SAVE.get(getClass())) {
+            return super.captureContents();
+        }
         String header = buildHeader();
-        String dump = yaml.dump(getValues(false));
+        YamlConfiguration copy = new YamlConfiguration();
+        copy.options().pathSeparator(options().pathSeparator()).indent(options().indent());
+        copyValues(getValues(false), copy, new IdentityHashMap<>());
+        return (writer) -> {
+            writer.write(header);
+            copy.dump(writer);
+        };
+    }
+
+    private static void copyValues(Map<String, Object> values, ConfigurationSection target, Map<Object, Object> copies) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() instanceof ConfigurationSection) {
+                copyValues(((ConfigurationSection) entry.getValue()).getValues(false), target.createSection(entry.getKey()), copies);
+            } else {
+                target.set(entry.getKey(), copyValue(entry.getValue(), copies));
+            }
+        }
+    }
 
-        if (dump.equals(BLANK_CONFIG)) {
-            dump = "";
+    /**
+     * Copies a value into the form it is represented in, keeping shared and
+     * recursive collections as such
+     */
+    private static Object copyValue(Object value, Map<Object, Object> copies) {
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            copies.put(value, list);
+            for (Object element : (List<?>) value) {
+                list.add(copyValue(element, copies));
+            }
+            return list;
+        }
+        if (value instanceof ConfigurationSection) {
+            value = ((ConfigurationSection) value).getValues(false);
+        } else if (value instanceof ConfigurationSerializable) {
+            // The same map as YamlRepresenter represents the object with
+            Map<String, Object> serialized = new LinkedHashMap<>();
+            serialized.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, ConfigurationSerialization.getAlias(((ConfigurationSerializable) value).getClass()));
+            serialized.putAll(((ConfigurationSerializable) value).serialize());
+            value = serialized;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            copies.put(value, map);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey(), copyValue(entry.getValue(), copies));
+            }
+            return map;
         }
+        return value;
+    }
+
+    private void dump(Writer writer) throws IOException {
+        yamlOptions.setIndent(options().indent());
+        yamlOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        yamlRepresenter.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
 
-        return header + dump;
+        Map<String, Object> values = getValues(false);
+        // An empty configuration is saved as a blank document rather than as BLANK_CONFIG
+        if (!values.isEmpty()) {
+            new YamlSectionEmitter(yamlRepresenter, yamlOptions).emit(values, writer);
+        }
     }
 
+    // Solar end
+
     @Override
     public void loadFromString(String contents) throws InvalidConfigurationException {
         Validate.notNull(contents, "Contents cannot be null");
 
+        // Solar start
+        if (STREAMS_LOAD.get(getClass())) {
+            try {
+                stream(new StringReader(contents));
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+
+            String header = parseHeader(contents);
+            if (header.length() > 0) {
+                options().header(header);
+            }
+            return;
+        }
+        // Solar end
+
         Map<?, ?> input;
         try {
             input = (Map<?, ?>) yaml.load(contents);
@@ -67,6 +244,88 @@ public class YamlConfiguration extends FileConfiguration {
         }
     }
 
+    // Solar start
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The document is loaded while it is read, rather than being read into a
+     * string first.
+     */
+    @Override
+    public void load(Reader reader) throws IOException, InvalidConfigurationException {
+        if (!STREAMS_LOAD.get(getClass())) {
+            super.load(reader);
+            return;
+        }
+        String header = streamWithHeader(reader);
+        if (header.length() > 0) {
+            options().header(header);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If {@link YamlConfigurationOptions#binaryCache()} is enabled, the
+     * values are read from the binary cache of the file if its contents are
+     * unchanged, and the cache is written otherwise.
+     */
+    @Override
+    public void load(File file) throws FileNotFoundException, IOException, InvalidConfigurationException {
+        if (!options().binaryCache() || !STREAMS_LOAD.get(getClass())) {
+            super.load(file);
+            return;
+        }
+        Validate.notNull(file, "File cannot be null");
+
+        byte[] contents;
+        try (FileInputStream stream = new FileInputStream(file)) {
+            contents = stream.readAllBytes();
+        }
+        YamlBinaryCache cache = new YamlBinaryCache(file, contents);
+        YamlBinaryCache.Contents cached = cache.read();
+        if (cached != null) {
+            cached.apply(this);
+            if (cached.header.length() > 0) {
+                options().header(cached.header);
+            }
+            return;
+        }
+
+        // Values loaded before would end up in the cache
+        boolean empty = map.isEmpty();
+        String header = streamWithHeader(new InputStreamReader(new ByteArrayInputStream(contents), Charsets.UTF_8));
+        if (header.length() > 0) {
+            options().header(header);
+        }
+        if (empty) {
+            cache.write(header, this);
+        }
+    }
+
+    private String streamWithHeader(Reader reader) throws IOException, InvalidConfigurationException {
+        YamlHeaderReader input = new YamlHeaderReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader));
+        try {
+            stream(input);
+        } finally {
+            input.close();
+        }
+        return input.getHeader();
+    }
+
+    private void stream(Reader reader) throws IOException, InvalidConfigurationException {
+        try {
+            new YamlSectionLoader(yamlConstructor).load(yaml.parse(reader), this);
+        } catch (YAMLException e) {
+            // The reader of SnakeYAML wraps the failures of the underlying reader
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new InvalidConfigurationException(e);
+        }
+    }
+    // Solar end
+
     protected void convertMapsToSections(Map<?, ?> input, ConfigurationSection section) {
         for (Map.Entry<?, ?> entry : input.entrySet()) {
             String key = entry.getKey().toString();
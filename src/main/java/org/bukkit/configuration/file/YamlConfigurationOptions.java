@@ -8,6 +8,7 @@ import org.apache.commons.lang3.Validate;
  */
 public class YamlConfigurationOptions extends FileConfigurationOptions {
     private int indent = 2;
+    private boolean binaryCache = false; // Solar
 
     protected YamlConfigurationOptions(YamlConfiguration configuration) {
         super(configuration);
@@ -68,4 +69,36 @@ public class YamlConfigurationOptions extends FileConfigurationOptions {
         this.indent = value;
         return this;
     }
+
+    // Solar start
+    /**
+     * Gets whether {@link YamlConfiguration#load(java.io.File)} keeps a
+     * binary cache of the loaded values next to the file.
+     * <p>
+     * The cache is a hidden file named after the loaded file, which is used
+     * instead of parsing the file as long as its contents are unchanged. The
+     * default value is false.
+     *
+     * @return Whether a binary cache is kept
+     */
+    public boolean binaryCache() {
+        return binaryCache;
+    }
+
+    /**
+     * Sets whether {@link YamlConfiguration#load(java.io.File)} keeps a
+     * binary cache of the loaded values next to the file.
+     * <p>
+     * The cache is a hidden file named after the loaded file, which is used
+     * instead of parsing the file as long as its contents are unchanged. The
+     * default value is false.
+     *
+     * @param value Whether a binary cache is kept
+     * @return This object, for chaining
+     */
+    public YamlConfigurationOptions binaryCache(boolean value) {
+        this.binaryCache = value;
+        return this;
+    }
+    // Solar end
 }
@@ -16,6 +16,19 @@ public class YamlConstructor extends SafeConstructor {
         this.yamlConstructors.put(Tag.MAP, new ConstructCustomObject());
     }
 
+    // Solar start
+    /**
+     * Constructs the object of a node, as if it were a whole document
+     *
+     * @param node the node
+     * @return the object
+     * @throws YAMLException if the node cannot be constructed
+     */
+    Object construct(Node node) {
+        return constructDocument(node);
+    }
+    // Solar end
+
     private class ConstructCustomObject extends ConstructYamlMap {
         @Override
         public Object construct(Node node) {
@@ -0,0 +1,131 @@
+package org.bukkit.configuration.file;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Passes a document through while parsing its header, in the same way as
+ * {@link YamlConfiguration#parseHeader(String)}, so that the document need
+ * not be read into a string first
+ */
+// Solar - whole class
+final class YamlHeaderReader extends FilterReader {
+
+    private final StringBuilder header = new StringBuilder();
+    private final StringBuilder line = new StringBuilder();
+    private int lineIndex;
+    private boolean readingHeader = true;
+    private boolean foundHeader;
+    private boolean carriageReturn;
+
+    YamlHeaderReader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (readingHeader) {
+            if (c == -1) {
+                finish();
+            } else {
+                accept((char) c);
+            }
+        }
+        return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (readingHeader) {
+            if (read == -1) {
+                finish();
+            } else {
+                for (int i = 0; i < read && readingHeader; i++) {
+                    accept(buffer[offset + i]);
+                }
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("Cannot skip while reading the header");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Gets the header, once the document was read to its end
+     *
+     * @return the header
+     */
+    String getHeader() {
+        return header.toString();
+    }
+
+    private void accept(char c) {
+        // Line breaks as recognized by BufferedReader#readLine, which the document used to be read with
+        if (c == '\n') {
+            if (!carriageReturn) {
+                endLine();
+            }
+            carriageReturn = false;
+        } else if (c == '\r') {
+            endLine();
+            carriageReturn = true;
+        } else {
+            line.append(c);
+            carriageReturn = false;
+        }
+    }
+
+    private void finish() {
+        if (line.length() > 0) {
+            endLine();
+        }
+        // The document was always terminated by a line break, leaving an empty last line
+        endLine();
+        readingHeader = false;
+    }
+
+    private void endLine() {
+        if (!readingHeader) {
+            return;
+        }
+        int prefixLength = YamlConfiguration.COMMENT_PREFIX.length();
+        if (startsWith(line, YamlConfiguration.COMMENT_PREFIX)) {
+            if (lineIndex > 0) {
+                header.append('\n');
+            }
+            if (line.length() > prefixLength) {
+                header.append(line, prefixLength, line.length());
+            }
+            foundHeader = true;
+        } else if (foundHeader && line.length() == 0) {
+            header.append('\n');
+        } else if (foundHeader) {
+            readingHeader = false;
+        }
+        lineIndex++;
+        line.setLength(0);
+    }
+
+    private static boolean startsWith(CharSequence sequence, String prefix) {
+        if (sequence.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (sequence.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+package org.bukkit.configuration.file;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.AnchorNode;
+import org.yaml.snakeyaml.nodes.CollectionNode;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * Writes sections as a YAML document directly to a writer.
+ * <p>
+ * Sections are emitted while they are traversed, rather than being
+ * represented as a whole and dumped into a string. Only the remaining values
+ * are represented by the {@link Representer}, one at a time. The output is
+ * the same as dumping the values of the sections, except that values shared
+ * between different keys are written out again instead of being aliased.
+ */
+// Solar - whole class
+final class YamlSectionEmitter {
+
+    private final Representer representer;
+    private final DumperOptions options;
+    private final Resolver resolver = new Resolver();
+    private Emitter emitter;
+    private Map<Node, String> anchors;
+    private Set<Node> emitted;
+    private int lastAnchorId;
+
+    YamlSectionEmitter(Representer representer, DumperOptions options) {
+        this.representer = representer;
+        this.options = options;
+    }
+
+    /**
+     * Writes the values of a section as a single document
+     *
+     * @param values the values of the section
+     * @param writer the writer
+     * @throws IOException if the writer fails
+     * @throws YAMLException if a value cannot be represented
+     */
+    void emit(Map<String, Object> values, Writer writer) throws IOException {
+        emitter = new Emitter(writer, options);
+        lastAnchorId = 0;
+        try {
+            emitter.emit(new StreamStartEvent(null, null));
+            emitter.emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(), options.getTags()));
+            emitSection(values);
+            emitter.emit(new DocumentEndEvent(null, null, options.isExplicitEnd()));
+            emitter.emit(new StreamEndEvent(null, null));
+        } finally {
+            emitter = null;
+            anchors = null;
+            emitted = null;
+        }
+    }
+
+    private void emitSection(Map<String, Object> values) throws IOException {
+        emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, representer.getDefaultFlowStyle()));
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            emitValue(entry.getKey());
+            if (entry.getValue() instanceof ConfigurationSection) {
+                emitSection(((ConfigurationSection) entry.getValue()).getValues(false));
+            } else {
+                emitValue(entry.getValue());
+            }
+        }
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    private void emitValue(Object value) throws IOException {
+        Node node = representer.represent(value);
+        anchors = new IdentityHashMap<>();
+        emitted = Collections.newSetFromMap(new IdentityHashMap<>());
+        anchorNode(node);
+        emitNode(node);
+    }
+
+    /**
+     * Assigns anchors to the nodes which occur more than once, in the same way
+     * as the serializer of SnakeYAML
+     */
+    private void anchorNode(Node node) {
+        node = realNode(node);
+        if (anchors.containsKey(node)) {
+            if (anchors.get(node) == null) {
+                anchors.put(node, String.format("id%03d", ++lastAnchorId));
+            }
+            return;
+        }
+        anchors.put(node, null);
+        if (node.getNodeId() == NodeId.sequence) {
+            for (Node item : ((SequenceNode) node).getValue()) {
+                anchorNode(item);
+            }
+        } else if (node.getNodeId() == NodeId.mapping) {
+            for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                anchorNode(tuple.getKeyNode());
+                anchorNode(tuple.getValueNode());
+            }
+        }
+    }
+
+    private static Node realNode(Node node) {
+        // Stands in for a collection within itself
+        return node instanceof AnchorNode ? ((AnchorNode) node).getRealNode() : node;
+    }
+
+    private void emitNode(Node node) throws IOException {
+        node = realNode(node);
+        String anchor = anchors.get(node);
+        if (anchor != null && !emitted.add(node)) {
+            emitter.emit(new AliasEvent(anchor, null, null));
+            return;
+        }
+        String tag = node.getTag().getValue();
+        switch (node.getNodeId()) {
+            case scalar:
+                ScalarNode scalar = (ScalarNode) node;
+                Tag detected = resolver.resolve(NodeId.scalar, scalar.getValue(), true);
+                Tag implicit = resolver.resolve(NodeId.scalar, scalar.getValue(), false);
+                ImplicitTuple tuple = new ImplicitTuple(node.getTag().equals(detected), node.getTag().equals(implicit));
+                emitter.emit(new ScalarEvent(anchor, tag, tuple, scalar.getValue(), null, null, scalar.getScalarStyle()));
+                break;
+            case sequence:
+                boolean implicitSequence = node.getTag().equals(resolver.resolve(NodeId.sequence, null, true));
+                emitter.emit(new SequenceStartEvent(anchor, tag, implicitSequence, null, null, ((CollectionNode<?>) node).getFlowStyle()));
+                for (Node item : ((SequenceNode) node).getValue()) {
+                    emitNode(item);
+                }
+                emitter.emit(new SequenceEndEvent(null, null));
+                break;
+            case mapping:
+                boolean implicitMapping = node.getTag().equals(resolver.resolve(NodeId.mapping, null, true));
+                emitter.emit(new MappingStartEvent(anchor, tag, implicitMapping, null, null, ((CollectionNode<?>) node).getFlowStyle()));
+                for (NodeTuple entry : ((MappingNode) node).getValue()) {
+                    emitNode(entry.getKeyNode());
+                    emitNode(entry.getValueNode());
+                }
+                emitter.emit(new MappingEndEvent(null, null));
+                break;
+            default:
+                throw new YAMLException("Cannot emit node " + node);
+        }
+    }
+}
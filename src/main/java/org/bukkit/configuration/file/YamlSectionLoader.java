@@ -0,0 +1,337 @@
+package org.bukkit.configuration.file;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * Loads a YAML document into sections directly from the events of the
+ * parser.
+ * <p>
+ * Mappings are created as sections while they are parsed, rather than being
+ * constructed as maps and converted afterwards. Only the remaining values,
+ * such as scalars, lists and serialized objects, are composed into nodes and
+ * constructed by the {@link YamlConstructor}. The result is the same as
+ * constructing the whole document and passing it to
+ * {@link YamlConfiguration#convertMapsToSections(Map, ConfigurationSection)}.
+ * <p>
+ * The document is loaded into detached sections, which are only applied to
+ * the root once the whole document was loaded, so that a malformed document
+ * leaves the root as it was.
+ */
+// Solar - whole class
+final class YamlSectionLoader {
+
+    /**
+     * Same limit as the default of the loader options of SnakeYAML
+     */
+    private static final int MAX_COLLECTION_ALIASES = 50;
+
+    private final YamlConstructor constructor;
+    private final Resolver resolver = new Resolver();
+    private final Map<String, Node> anchors = new HashMap<>();
+    /**
+     * The collections whose contents are being composed, which are
+     * recursive if aliased
+     */
+    private final Set<Node> composing = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int collectionAliases;
+    private PeekingIterator<Event> events;
+
+    YamlSectionLoader(YamlConstructor constructor) {
+        this.constructor = constructor;
+    }
+
+    /**
+     * Loads the single document of a stream into a section
+     *
+     * @param stream the events of the stream
+     * @param root the section to load into
+     * @throws InvalidConfigurationException if the document is not a mapping
+     *     or cannot be constructed
+     */
+    void load(Iterable<Event> stream, ConfigurationSection root) throws InvalidConfigurationException {
+        events = Iterators.peekingIterator(stream.iterator());
+        expect(Event.ID.StreamStart);
+        if (events.peek().is(Event.ID.StreamEnd)) {
+            return;
+        }
+        expect(Event.ID.DocumentStart);
+        StagedRoot staged = new StagedRoot(root.getRoot().options().pathSeparator());
+        if (isSectionStart(events.peek())) {
+            events.next();
+            if (loadSection(staged) != null) {
+                throw new InvalidConfigurationException("Top level is not a Map.");
+            }
+        } else {
+            Object value = constructor.construct(composeNode());
+            if (value instanceof Map) {
+                copy((Map<?, ?>) value, staged);
+            } else if (value != null) {
+                throw new InvalidConfigurationException("Top level is not a Map.");
+            }
+        }
+        expect(Event.ID.DocumentEnd);
+        if (!events.peek().is(Event.ID.StreamEnd)) {
+            throw new InvalidConfigurationException("expected a single document in the stream, but found another document at " + events.peek().getStartMark());
+        }
+        anchors.clear();
+        staged.apply(root);
+    }
+
+    /**
+     * Loads the entries of a mapping, whose start was consumed, into a
+     * section.
+     *
+     * @param section the section
+     * @return the deserialized object if the mapping turned out to be a
+     *     serialized object, otherwise null
+     */
+    private Object loadSection(ConfigurationSection section) throws InvalidConfigurationException {
+        // Keys set explicitly or by an earlier merge take precedence over merged keys
+        Set<String> keys = new HashSet<>();
+        while (!events.peek().is(Event.ID.MappingEnd)) {
+            Node keyNode = composeNode();
+            if (keyNode.getTag().equals(Tag.MERGE)) {
+                merge(section, composeNode(), keys);
+                continue;
+            }
+            Object key = constructor.construct(keyNode);
+            if (ConfigurationSerialization.SERIALIZED_TYPE_KEY.equals(key)) {
+                return loadSerialized(section);
+            }
+            String name = String.valueOf(key);
+            keys.add(name);
+            if (isSectionStart(events.peek())) {
+                events.next();
+                Object object = loadSection(section.createSection(name));
+                if (object != null) {
+                    section.set(name, object);
+                }
+            } else {
+                set(section, name, constructor.construct(composeNode()));
+            }
+        }
+        events.next();
+        return null;
+    }
+
+    private Object loadSerialized(ConfigurationSection section) throws InvalidConfigurationException {
+        Map<String, Object> typed = toMap(section);
+        typed.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, constructor.construct(composeNode()));
+        while (!events.peek().is(Event.ID.MappingEnd)) {
+            String key = String.valueOf(constructor.construct(composeNode()));
+            typed.put(key, constructor.construct(composeNode()));
+        }
+        events.next();
+        try {
+            return ConfigurationSerialization.deserializeObject(typed);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidConfigurationException("Could not deserialize object", ex);
+        }
+    }
+
+    private void merge(ConfigurationSection section, Node value, Set<String> keys) throws InvalidConfigurationException {
+        List<Node> sources = value instanceof SequenceNode ? ((SequenceNode) value).getValue() : Collections.singletonList(value);
+        for (Node source : sources) {
+            if (!(source instanceof MappingNode)) {
+                throw new InvalidConfigurationException("expected a mapping or list of mappings for merging, but found " + source.getNodeId() + " at " + source.getStartMark());
+            }
+            Object merged = constructor.construct(source);
+            if (!(merged instanceof Map)) {
+                throw new InvalidConfigurationException("Cannot merge a serialized object at " + source.getStartMark());
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) merged).entrySet()) {
+                String name = String.valueOf(entry.getKey());
+                if (keys.add(name)) {
+                    set(section, name, entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void set(ConfigurationSection section, String name, Object value) {
+        if (value instanceof Map) {
+            copy((Map<?, ?>) value, section.createSection(name));
+        } else {
+            section.set(name, value);
+        }
+    }
+
+    private void copy(Map<?, ?> input, ConfigurationSection section) {
+        for (Map.Entry<?, ?> entry : input.entrySet()) {
+            set(section, entry.getKey().toString(), entry.getValue());
+        }
+    }
+
+    private static void apply(ConfigurationSection values, ConfigurationSection section) {
+        for (Map.Entry<String, Object> entry : values.getValues(false).entrySet()) {
+            if (entry.getValue() instanceof ConfigurationSection) {
+                apply((ConfigurationSection) entry.getValue(), section.createSection(entry.getKey()));
+            } else {
+                section.set(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, Object> toMap(ConfigurationSection section) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String key : section.getKeys(false)) {
+            Object value = section.get(key);
+            values.put(key, value instanceof ConfigurationSection ? toMap((ConfigurationSection) value) : value);
+        }
+        return values;
+    }
+
+    /**
+     * Whether an event starts a mapping which can be loaded as a section,
+     * which is not the case for anchored mappings as they may be aliased
+     */
+    private static boolean isSectionStart(Event event) {
+        return event.is(Event.ID.MappingStart) && ((MappingStartEvent) event).getAnchor() == null
+                && isUntagged(((MappingStartEvent) event).getTag());
+    }
+
+    private static boolean isUntagged(String tag) {
+        return tag == null || tag.equals("!") || tag.equals(Tag.MAP.getValue());
+    }
+
+    /**
+     * Composes the node of the next events, in the same way as the composer
+     * of SnakeYAML
+     */
+    private Node composeNode() throws InvalidConfigurationException {
+        Event event = events.next();
+        if (event.is(Event.ID.Alias)) {
+            String anchor = ((AliasEvent) event).getAnchor();
+            Node node = anchors.get(anchor);
+            if (node == null) {
+                throw new InvalidConfigurationException("found undefined alias " + anchor + " at " + event.getStartMark());
+            }
+            if (node.getNodeId() != NodeId.scalar && ++collectionAliases > MAX_COLLECTION_ALIASES) {
+                throw new InvalidConfigurationException("Number of aliases for non-scalar nodes exceeds the specified max=" + MAX_COLLECTION_ALIASES);
+            }
+            if (composing.contains(node)) {
+                node.setTwoStepsConstruction(true);
+            }
+            return node;
+        }
+        // Collections are anchored before their contents are composed, as they may contain themselves
+        String anchor = ((NodeEvent) event).getAnchor();
+        if (event.is(Event.ID.Scalar)) {
+            ScalarEvent scalar = (ScalarEvent) event;
+            Tag tag = isUnresolved(scalar.getTag())
+                    ? resolver.resolve(NodeId.scalar, scalar.getValue(), scalar.getImplicit().canOmitTagInPlainScalar())
+                    : new Tag(scalar.getTag());
+            return anchor(anchor, new ScalarNode(tag, isUnresolved(scalar.getTag()), scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle()));
+        } else if (event.is(Event.ID.SequenceStart)) {
+            SequenceStartEvent start = (SequenceStartEvent) event;
+            Tag tag = isUnresolved(start.getTag()) ? resolver.resolve(NodeId.sequence, null, start.getImplicit()) : new Tag(start.getTag());
+            List<Node> items = new ArrayList<>();
+            SequenceNode node = anchor(anchor, new SequenceNode(tag, isUnresolved(start.getTag()), items, start.getStartMark(), start.getEndMark(), start.getFlowStyle()));
+            composing.add(node);
+            while (!events.peek().is(Event.ID.SequenceEnd)) {
+                items.add(composeNode());
+            }
+            composing.remove(node);
+            events.next();
+            return node;
+        } else if (event.is(Event.ID.MappingStart)) {
+            MappingStartEvent start = (MappingStartEvent) event;
+            Tag tag = isUnresolved(start.getTag()) ? resolver.resolve(NodeId.mapping, null, start.getImplicit()) : new Tag(start.getTag());
+            List<NodeTuple> tuples = new ArrayList<>();
+            MappingNode node = anchor(anchor, new MappingNode(tag, isUnresolved(start.getTag()), tuples, start.getStartMark(), start.getEndMark(), start.getFlowStyle()));
+            composing.add(node);
+            while (!events.peek().is(Event.ID.MappingEnd)) {
+                Node key = composeNode();
+                tuples.add(new NodeTuple(key, composeNode()));
+            }
+            composing.remove(node);
+            events.next();
+            return node;
+        }
+        throw new InvalidConfigurationException("Unexpected " + event);
+    }
+
+    private <N extends Node> N anchor(String anchor, N node) {
+        if (anchor != null) {
+            anchors.put(anchor, node);
+        }
+        return node;
+    }
+
+    private static boolean isUnresolved(String tag) {
+        return tag == null || tag.equals("!");
+    }
+
+    private void expect(Event.ID id) throws InvalidConfigurationException {
+        Event event = events.next();
+        if (!event.is(id)) {
+            throw new InvalidConfigurationException("Expected " + id + " but found " + event);
+        }
+    }
+
+    /**
+     * Records the sections and values set on the root, so that they can be
+     * replayed in order. A path set on the root may point into a section the
+     * root already has, which it then has to be merged into.
+     */
+    private static final class StagedRoot extends MemoryConfiguration {
+        private final List<Map.Entry<String, Object>> entries = new ArrayList<>();
+
+        StagedRoot(char pathSeparator) {
+            options().pathSeparator(pathSeparator);
+        }
+
+        @Override
+        public ConfigurationSection createSection(String path) {
+            MemoryConfiguration section = new MemoryConfiguration();
+            section.options().pathSeparator(options().pathSeparator());
+            entries.add(new AbstractMap.SimpleEntry<>(path, section));
+            return section;
+        }
+
+        @Override
+        public void set(String path, Object value) {
+            entries.add(new AbstractMap.SimpleEntry<>(path, value));
+        }
+
+        void apply(ConfigurationSection root) {
+            for (Map.Entry<String, Object> entry : entries) {
+                if (entry.getValue() instanceof ConfigurationSection) {
+                    YamlSectionLoader.apply((ConfigurationSection) entry.getValue(), root.createSection(entry.getKey()));
+                } else {
+                    root.set(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+}
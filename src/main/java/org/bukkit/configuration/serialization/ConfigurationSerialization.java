@@ -1,10 +1,14 @@
 package org.bukkit.configuration.serialization;
 
+import java.lang.invoke.MethodHandle; // Solar
+import java.lang.invoke.MethodHandles; // Solar
+import java.lang.invoke.MethodType; // Solar
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
+import java.util.ArrayList; // Solar
+import java.util.List; // Solar
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,7 +31,35 @@ import org.bukkit.util.Vector;
 public class ConfigurationSerialization {
     public static final String SERIALIZED_TYPE_KEY = "==";
     private final Class<? extends ConfigurationSerializable> clazz;
-    private static Map<String, Class<? extends ConfigurationSerializable>> aliases = new HashMap<String, Class<? extends ConfigurationSerializable>>();
+    private static Map<String, Class<? extends ConfigurationSerializable>> aliases = new java.util.concurrent.ConcurrentHashMap<String, Class<? extends ConfigurationSerializable>>(); // Solar - plugins may be loaded concurrently
+
+    // Solar start
+    /**
+     * The factories of each class, in the order they are attempted
+     */
+    private static final ClassValue<Factory[]> FACTORIES = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Factory[] computeValue(Class<?> type) {
+            ConfigurationSerialization serialization = new ConfigurationSerialization((Class<? extends ConfigurationSerializable>) type);
+            // Method handles, unlike reflection, require the class to be readable
+            ConfigurationSerialization.class.getModule().addReads(type.getModule());
+
+            List<Factory> factories = new ArrayList<>(3);
+            for (String name : new String[] {"deserialize", "valueOf"}) {
+                Method method = serialization.getMethod(name, true);
+                if (method != null) {
+                    factories.add(new Factory(method, null));
+                }
+            }
+            Constructor<? extends ConfigurationSerializable> constructor = serialization.getConstructor();
+            if (constructor != null) {
+                factories.add(new Factory(null, constructor));
+            }
+            return factories.toArray(new Factory[0]);
+        }
+    };
+    // Solar end
 
     static {
         registerClass(Vector.class);
@@ -109,6 +141,12 @@ public class ConfigurationSerialization {
     public ConfigurationSerializable deserialize(Map<String, ?> args) {
         Validate.notNull(args, "Args must not be null");
 
+        // Solar start - subclasses may override how the class is deserialized
+        if (getClass() == ConfigurationSerialization.class) {
+            return deserialize(clazz, args);
+        }
+        // Solar end
+
         ConfigurationSerializable result = null;
         Method method = null;
 
@@ -139,6 +177,75 @@ public class ConfigurationSerialization {
         return result;
     }
 
+    // Solar start
+    private static ConfigurationSerializable deserialize(Class<? extends ConfigurationSerializable> clazz, Map<String, ?> args) {
+        Validate.notNull(args, "Args must not be null");
+
+        for (Factory factory : FACTORIES.get(clazz)) {
+            ConfigurationSerializable result = factory.deserialize(clazz, args);
+
+            if (result != null) {
+                return result;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * A way of deserializing a class, being its deserialize or valueOf method
+     * or its constructor, resolved once
+     */
+    private static final class Factory {
+        private static final MethodType TYPE = MethodType.methodType(ConfigurationSerializable.class, Map.class);
+
+        private final Method method;
+        private final Constructor<? extends ConfigurationSerializable> constructor;
+        /**
+         * Invokes the method or constructor, or null if it is not accessible
+         * and must be called reflectively, in order to fail as it used to
+         */
+        private final MethodHandle handle;
+
+        Factory(Method method, Constructor<? extends ConfigurationSerializable> constructor) {
+            this.method = method;
+            this.constructor = constructor;
+            MethodHandle handle;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                handle = (method != null) ? lookup.unreflect(method) : lookup.unreflectConstructor(constructor);
+                handle = handle.asType(TYPE);
+            } catch (IllegalAccessException ex) {
+                handle = null;
+            }
+            this.handle = handle;
+        }
+
+        ConfigurationSerializable deserialize(Class<? extends ConfigurationSerializable> clazz, Map<String, ?> args) {
+            if (handle == null) {
+                ConfigurationSerialization serialization = new ConfigurationSerialization(clazz);
+                return (method != null) ? serialization.deserializeViaMethod(method, args) : serialization.deserializeViaCtor(constructor, args);
+            }
+            try {
+                ConfigurationSerializable result = (ConfigurationSerializable) handle.invokeExact((Map) args);
+
+                if (result == null) {
+                    Logger.getLogger(ConfigurationSerialization.class.getName()).log(Level.SEVERE, "Could not call method '" + method.toString() + "' of " + clazz + " for deserialization: method returned null");
+                }
+                return result;
+            } catch (Throwable ex) {
+                Logger.getLogger(ConfigurationSerialization.class.getName()).log(
+                        Level.SEVERE,
+                        "Could not call " + ((method != null) ? "method '" + method : "constructor '" + constructor) + "' of " + clazz + " for deserialization",
+                        ex);
+            }
+
+            return null;
+        }
+    }
+
+    // Solar end
+
     /**
      * Attempts to deserialize the given arguments into a new instance of the
      * given class.
@@ -155,7 +262,7 @@ public class ConfigurationSerialization {
      * @return New instance of the specified class
      */
     public static ConfigurationSerializable deserializeObject(Map<String, ?> args, Class<? extends ConfigurationSerializable> clazz) {
-        return new ConfigurationSerialization(clazz).deserialize(args);
+        return deserialize(clazz, args); // Solar
     }
 
     /**
@@ -194,7 +301,7 @@ public class ConfigurationSerialization {
             throw new IllegalArgumentException("Args doesn't contain type key ('" + SERIALIZED_TYPE_KEY + "')");
         }
 
-        return new ConfigurationSerialization(clazz).deserialize(args);
+        return deserialize(clazz, args); // Solar
     }
 
     /**
@@ -221,6 +328,7 @@ public class ConfigurationSerialization {
      * @see SerializableAs
      */
     public static void registerClass(Class<? extends ConfigurationSerializable> clazz, String alias) {
+        FACTORIES.get(clazz); // Solar - resolve the factories ahead of deserialization
         aliases.put(alias, clazz);
     }
 
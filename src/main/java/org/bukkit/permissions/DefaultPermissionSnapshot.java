@@ -0,0 +1,99 @@
+package org.bukkit.permissions;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The default permissions for either operators or non-operators, with all
+ * children expanded, as an immutable snapshot.
+ * <p>
+ * A single snapshot is shared by every {@link PermissibleBase} of the same op
+ * status, which layers the permissions of its own attachments on top of it.
+ * A new snapshot is created whenever the default permissions change.
+ */
+// Solar - whole class
+public final class DefaultPermissionSnapshot {
+
+    private final boolean op;
+    private final Map<String, Boolean> permissions;
+    private final PermissionTrie trie;
+
+    private DefaultPermissionSnapshot(boolean op, Map<String, Boolean> permissions) {
+        this.op = op;
+        this.permissions = permissions;
+        this.trie = PermissionTrie.compile(permissions, false); // registered names ending in * are not wildcards
+    }
+
+    /**
+     * Creates a snapshot of the given default permissions
+     *
+     * @param op the op status the defaults are for
+     * @param defaults the default permissions
+     * @param permissionLookup looks up registered permissions by name, to expand children
+     * @return the snapshot
+     */
+    public static DefaultPermissionSnapshot create(boolean op, Collection<Permission> defaults,
+                                                   Function<String, Permission> permissionLookup) {
+        Map<String, Boolean> permissions = new HashMap<>();
+        for (Permission perm : defaults) {
+            expand(perm.getName(), true, permissions, permissionLookup);
+        }
+        return new DefaultPermissionSnapshot(op, Map.copyOf(permissions));
+    }
+
+    /**
+     * Expands a permission and, recursively, its children. Where a permission
+     * is reached more than once, the last value wins
+     *
+     * @param name the permission name
+     * @param value the permission value
+     * @param expansion the map to write the lowercase names and values into
+     * @param permissionLookup looks up registered permissions by name
+     */
+    static void expand(String name, boolean value, Map<String, Boolean> expansion,
+                       Function<String, Permission> permissionLookup) {
+        expansion.put(name.toLowerCase(java.util.Locale.ENGLISH), value);
+
+        Permission perm = permissionLookup.apply(name);
+        if (perm != null) {
+            for (Map.Entry<String, Boolean> child : perm.getChildren().entrySet()) {
+                expand(child.getKey(), child.getValue() ^ !value, expansion, permissionLookup);
+            }
+        }
+    }
+
+    /**
+     * Gets the op status these defaults are for
+     *
+     * @return true if for operators
+     */
+    public boolean isOp() {
+        return op;
+    }
+
+    /**
+     * Gets the expanded default permissions
+     *
+     * @return an immutable map of lowercase permission names to values
+     */
+    public Map<String, Boolean> getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * Whether the given permission is set by these defaults, directly or as a
+     * child of another default permission
+     *
+     * @param name the permission name, in any case
+     * @return true if set
+     */
+    public boolean contains(String name) {
+        return trie.lookup(name, false) != null;
+    }
+
+    PermissionTrie getTrie() {
+        return trie;
+    }
+}
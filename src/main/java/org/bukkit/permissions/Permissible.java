@@ -112,6 +112,37 @@ public interface Permissible extends ServerOperator {
      */
     public void recalculatePermissions();
 
+    // Solar start
+    /**
+     * Recalculates the permissions for this object after the given
+     * permissions of one of its attachments have changed. Implementations may
+     * use this to only re-resolve the affected permissions and their children.
+     * <p>
+     * By default, this recalculates all permissions.
+     *
+     * @param attachment the attachment whose permissions changed
+     * @param permissions the names of the permissions which were set or unset
+     */
+    default void recalculatePermissions(PermissionAttachment attachment, java.util.Collection<String> permissions) {
+        recalculatePermissions();
+    }
+
+    /**
+     * Gets a number which changes whenever the permissions or op status of
+     * this object may have changed, so that permission checks can be cached
+     * until it changes. Permissions registered with the plugin manager may
+     * additionally change the result of permission checks, see
+     * {@link org.bukkit.plugin.PluginManager#getPermissionEpoch()}.
+     * <p>
+     * By default, changes are not tracked.
+     *
+     * @return the permission epoch, or -1 if not tracked
+     */
+    default long getPermissionEpoch() {
+        return -1;
+    }
+    // Solar end
+
     /**
      * Gets a set containing all of the permissions currently in effect by
      * this object
@@ -1,7 +1,10 @@
 package org.bukkit.permissions;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -12,12 +15,31 @@ import org.bukkit.plugin.Plugin;
 
 /**
  * Base Permissible for use in any Permissible object via proxy or extension
+ * <p>
+ * Permission checks are answered from an immutable snapshot of the effective
+ * permissions, compiled whenever they are recalculated, and do not lock. A
+ * permission ending in {@code .*} which is set on this object also applies
+ * to every permission below it which is not set itself.
+ * <p>
+ * The default permissions are shared with every other permissible of the same
+ * op status through a {@link DefaultPermissionSnapshot}, and the permissions
+ * of the attachments are layered on top of it copy-on-write.
  */
 public class PermissibleBase implements Permissible {
     private ServerOperator opable = null;
     private Permissible parent = this;
     private final List<PermissionAttachment> attachments = new LinkedList<PermissionAttachment>();
     private final Map<String, PermissionAttachmentInfo> permissions = new HashMap<String, PermissionAttachmentInfo>();
+    private volatile PermissionTrie compiledPermissions = PermissionTrie.EMPTY; // Solar - lock-free lookups
+    private volatile long epoch; // Solar - changes with compiledPermissions
+    // Solar start - incremental recalculation
+    private final Map<PermissionAttachment, AttachmentLayer> layers = new IdentityHashMap<>();
+    private final Map<String, List<Root>> contributions = new HashMap<>();
+    private DefaultPermissionSnapshot defaults;
+    private long nextOrder;
+    private boolean calculated;
+    private long permissionEpoch; // The permission graph the expansions were computed from
+    // Solar end
 
     public PermissibleBase(ServerOperator opable) {
         this.opable = opable;
@@ -45,12 +67,20 @@ public class PermissibleBase implements Permissible {
         }
     }
 
+    // Solar start
+    @Override
+    public long getPermissionEpoch() {
+        // Permissions which are not set fall back to their default for the op status
+        return (epoch << 1) | (isOp() ? 1 : 0);
+    }
+    // Solar end
+
     public boolean isPermissionSet(String name) {
         if (name == null) {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        return permissions.containsKey(name.toLowerCase(java.util.Locale.ENGLISH));
+        return compiledPermissions.lookup(name, false) != null; // Solar
     }
 
     public boolean isPermissionSet(Permission perm) {
@@ -66,15 +96,13 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        String name = inName.toLowerCase(java.util.Locale.ENGLISH);
-
         // Paper start
-        PermissionAttachmentInfo info = permissions.get(name);
-        if (info != null) {
-            return info.getValue();
+        Boolean value = compiledPermissions.lookup(inName, true); // Solar - use compiled trie
+        if (value != null) {
+            return value;
             // Paper end
         } else {
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
+            Permission perm = Bukkit.getServer().getPluginManager().getPermission(inName); // Solar - already case insensitive
 
             if (perm != null) {
                 return perm.getDefault().getValue(isOp());
@@ -89,12 +117,10 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission cannot be null");
         }
 
-        String name = perm.getName().toLowerCase(java.util.Locale.ENGLISH);
-
         // Paper start
-        PermissionAttachmentInfo info = permissions.get(name);
-        if (info != null) {
-            return info.getValue();
+        Boolean value = compiledPermissions.lookup(perm.getName(), true); // Solar - use compiled trie
+        if (value != null) {
+            return value;
         }
         // Paper end
         return perm.getDefault().getValue(isOp());
@@ -110,9 +136,7 @@ public class PermissibleBase implements Permissible {
         }
 
         PermissionAttachment result = addAttachment(plugin);
-        result.setPermission(name, value);
-
-        recalculatePermissions();
+        result.setPermission(name, value); // Solar - recalculates incrementally
 
         return result;
     }
@@ -127,7 +151,13 @@ public class PermissibleBase implements Permissible {
         PermissionAttachment result = new PermissionAttachment(plugin, parent);
 
         attachments.add(result);
-        recalculatePermissions();
+        // Solar start - an empty attachment changes nothing
+        if (calculated) {
+            layers.put(result, new AttachmentLayer(result, nextOrder++));
+        } else {
+            recalculatePermissions();
+        }
+        // Solar end
 
         return result;
     }
@@ -145,30 +175,63 @@ public class PermissibleBase implements Permissible {
                 ex.attachmentRemoved(attachment);
             }
 
-            recalculatePermissions();
+            // Solar start - only re-resolve the attachment's own permissions
+            AttachmentLayer layer = layers.remove(attachment);
+            if (isCurrent() && layer != null) {
+                Set<String> affected = new HashSet<>();
+                for (Root root : layer.roots.values()) {
+                    removeRoot(root, affected);
+                }
+                applyChanges(affected);
+            } else {
+                recalculatePermissions();
+            }
+            // Solar end
         } else {
             throw new IllegalArgumentException("Given attachment is not part of Permissible object " + parent);
         }
     }
 
     public synchronized void recalculatePermissions() { // Paper - synchronized
-        clearPermissions();
-        Set<Permission> defaults = Bukkit.getServer().getPluginManager().getDefaultPermissions(isOp());
+        resetPermissions(); // Solar - keep answering from the previous permissions until the new ones are published
+        permissionEpoch = Bukkit.getServer().getPluginManager().getPermissionEpoch(); // Solar - before expanding anything
+        defaults = Bukkit.getServer().getPluginManager().getDefaultPermissionSnapshot(isOp()); // Solar - shared
         Bukkit.getServer().getPluginManager().subscribeToDefaultPerms(isOp(), parent);
 
-        for (Permission perm : defaults) {
-            String name = perm.getName().toLowerCase(java.util.Locale.ENGLISH);
-            permissions.put(name, new PermissionAttachmentInfo(parent, name, null, true));
-            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
-            calculateChildPermissions(perm.getChildren(), false, null);
+        // Solar start - build the layers which incremental recalculation works from
+        for (PermissionAttachment attachment : attachments) {
+            AttachmentLayer layer = new AttachmentLayer(attachment, nextOrder++);
+            layers.put(attachment, layer);
+            for (Map.Entry<String, Boolean> entry : attachment.getPermissionsView().entrySet()) {
+                Root root = new Root(layer, nextOrder++, entry.getKey(), entry.getValue());
+                layer.roots.put(root.name, root);
+                addRoot(root, null);
+            }
         }
 
-        for (PermissionAttachment attachment : attachments) {
-            calculateChildPermissions(attachment.getPermissions(), false, attachment);
+        // Only the permissions of attachments are tracked here, the defaults are shared
+        Map<String, Boolean> values = new HashMap<>();
+        for (String name : contributions.keySet()) {
+            PermissionAttachmentInfo info = resolve(name);
+            permissions.put(name, info);
+            values.put(name, info.getValue());
+            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
         }
+        calculated = true;
+        compiledPermissions = defaults.getTrie().update(values, true); // Publish
+        epoch++;
+        // Solar end
     }
 
     public synchronized void clearPermissions() {
+        // Solar start
+        resetPermissions();
+        compiledPermissions = PermissionTrie.EMPTY;
+        epoch++;
+    }
+
+    private void resetPermissions() {
+        // Solar end
         Set<String> perms = permissions.keySet();
 
         for (String name : perms) {
@@ -179,25 +242,164 @@ public class PermissibleBase implements Permissible {
         Bukkit.getServer().getPluginManager().unsubscribeFromDefaultPerms(true, parent);
 
         permissions.clear();
+        // Solar start
+        layers.clear();
+        contributions.clear();
+        defaults = null;
+        calculated = false;
+        // Solar end
     }
 
-    private void calculateChildPermissions(Map<String, Boolean> children, boolean invert, PermissionAttachment attachment) {
-        for (Map.Entry<String, Boolean> entry : children.entrySet()) {
-            String name = entry.getKey();
-
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
-            boolean value = entry.getValue() ^ invert;
+    // Solar start - incremental recalculation
+    @Override
+    public synchronized void recalculatePermissions(PermissionAttachment attachment, Collection<String> changed) {
+        if (!isCurrent()) {
+            recalculatePermissions();
+            return;
+        }
+        AttachmentLayer layer = layers.get(attachment);
+        if (layer == null) {
+            // Not attached to this permissible
+            return;
+        }
+        Map<String, Boolean> current = attachment.getPermissionsView();
+        Set<String> affected = new HashSet<>();
+        for (String name : changed) {
             String lname = name.toLowerCase(java.util.Locale.ENGLISH);
+            Boolean value = current.get(lname);
+            Root previous = layer.roots.get(lname);
+            if (previous != null) {
+                if (value != null && previous.value == value) {
+                    continue;
+                }
+                removeRoot(previous, affected);
+            }
+            if (value == null) {
+                layer.roots.remove(lname);
+                continue;
+            }
+            // Re-setting a permission keeps its place in the attachment, as it does in the attachment's own map
+            Root root = new Root(layer, (previous != null) ? previous.order : nextOrder++, lname, value);
+            layer.roots.put(lname, root);
+            addRoot(root, affected);
+        }
+        applyChanges(affected);
+    }
 
-            permissions.put(lname, new PermissionAttachmentInfo(parent, lname, attachment, value));
-            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
+    /**
+     * Whether the expansions computed by the last full recalculation are still
+     * current. Only the permissions whose value changed are expanded again
+     * incrementally, so once a permission is added or removed, or its
+     * children change, everything is recalculated
+     */
+    private boolean isCurrent() {
+        long current = Bukkit.getServer().getPluginManager().getPermissionEpoch();
+        return calculated && current != -1 && current == permissionEpoch;
+    }
 
-            if (perm != null) {
-                calculateChildPermissions(perm.getChildren(), !value, attachment);
+    private void addRoot(Root root, Set<String> affected) {
+        for (String name : root.expansion.keySet()) {
+            List<Root> roots = contributions.computeIfAbsent(name, (k) -> new ArrayList<>(1));
+            // Roots are kept in ascending precedence, and are usually added with the highest
+            int index = roots.size();
+            while (index > 0 && roots.get(index - 1).compareTo(root) > 0) {
+                index--;
+            }
+            roots.add(index, root);
+            if (affected != null) {
+                affected.add(name);
+            }
+        }
+    }
+
+    private void removeRoot(Root root, Set<String> affected) {
+        for (String name : root.expansion.keySet()) {
+            List<Root> roots = contributions.get(name);
+            roots.remove(root);
+            if (roots.isEmpty()) {
+                contributions.remove(name);
+            }
+            affected.add(name);
+        }
+    }
+
+    private PermissionAttachmentInfo resolve(String name) {
+        List<Root> roots = contributions.get(name);
+        if (roots == null) {
+            return null;
+        }
+        Root root = roots.get(roots.size() - 1);
+        return new PermissionAttachmentInfo(parent, name, root.layer.attachment, root.expansion.get(name));
+    }
+
+    private void applyChanges(Set<String> affected) {
+        Map<String, Boolean> changes = new HashMap<>();
+        Map<String, Boolean> restored = new HashMap<>(); // defaults, which never act as wildcards
+        for (String name : affected) {
+            PermissionAttachmentInfo info = resolve(name);
+            PermissionAttachmentInfo previous = (info == null) ? permissions.remove(name) : permissions.put(name, info);
+            if (previous == null && info != null) {
+                Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
+            } else if (previous != null && info == null) {
+                Bukkit.getServer().getPluginManager().unsubscribeFromPermission(name, parent);
+            }
+            if (info != null) {
+                changes.put(name, info.getValue());
+            } else {
+                // Fall back to the shared default once no attachment sets the permission
+                restored.put(name, defaults.getPermissions().get(name));
             }
         }
+        if (!changes.isEmpty() || !restored.isEmpty()) {
+            compiledPermissions = compiledPermissions.update(changes, true).update(restored, false);
+            epoch++;
+        }
+    }
+
+    /**
+     * The permissions set by an attachment. Attachments added later take
+     * precedence over those added earlier
+     */
+    private static final class AttachmentLayer {
+
+        final PermissionAttachment attachment;
+        final long order;
+        final Map<String, Root> roots = new HashMap<>();
+
+        AttachmentLayer(PermissionAttachment attachment, long order) {
+            this.attachment = attachment;
+            this.order = order;
+        }
     }
 
+    /**
+     * A permission set directly by an attachment, with its expanded children.
+     * Within an attachment, permissions set later take precedence
+     */
+    private final class Root implements Comparable<Root> {
+
+        final AttachmentLayer layer;
+        final long order;
+        final String name;
+        final boolean value;
+        final Map<String, Boolean> expansion = new HashMap<>();
+
+        Root(AttachmentLayer layer, long order, String name, boolean value) {
+            this.layer = layer;
+            this.order = order;
+            this.name = name;
+            this.value = value;
+            DefaultPermissionSnapshot.expand(name, value, expansion, Bukkit.getServer().getPluginManager()::getPermission);
+        }
+
+        @Override
+        public int compareTo(Root other) {
+            int comparison = Long.compare(layer.order, other.layer.order);
+            return (comparison != 0) ? comparison : Long.compare(order, other.order);
+        }
+    }
+    // Solar end
+
     public synchronized PermissionAttachment addAttachment(Plugin plugin, String name, boolean value, int ticks) { // Paper - synchronized
         if (name == null) {
             throw new IllegalArgumentException("Permission name cannot be null");
@@ -235,7 +437,17 @@ public class PermissibleBase implements Permissible {
     }
 
     public synchronized Set<PermissionAttachmentInfo> getEffectivePermissions() { // Paper - synchronized
-        return new HashSet<PermissionAttachmentInfo>(permissions.values());
+        // Solar start - include the shared defaults not overridden by an attachment
+        Set<PermissionAttachmentInfo> effective = new HashSet<PermissionAttachmentInfo>(permissions.values());
+        if (defaults != null) {
+            for (Map.Entry<String, Boolean> entry : defaults.getPermissions().entrySet()) {
+                if (!permissions.containsKey(entry.getKey())) {
+                    effective.add(new PermissionAttachmentInfo(parent, entry.getKey(), null, entry.getValue()));
+                }
+            }
+        }
+        return effective;
+        // Solar end
     }
 
     private static class RemoveAttachmentRunnable implements Runnable {
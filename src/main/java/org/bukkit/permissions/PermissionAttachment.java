@@ -1,6 +1,10 @@
 package org.bukkit.permissions;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.bukkit.plugin.Plugin;
 
@@ -76,6 +80,18 @@ public class PermissionAttachment {
         return new LinkedHashMap<String, Boolean>(permissions);
     }
 
+    // Solar start
+    /**
+     * Gets a read-only view of the permissions of this attachment, without
+     * copying them
+     *
+     * @return a view of the permissions, keyed by lowercase name
+     */
+    Map<String, Boolean> getPermissionsView() {
+        return Collections.unmodifiableMap(permissions);
+    }
+    // Solar end
+
     /**
      * Sets a permission to the given value, by its fully qualified name
      *
@@ -83,8 +99,11 @@ public class PermissionAttachment {
      * @param value New value of the permission
      */
     public void setPermission(String name, boolean value) {
-        permissions.put(name.toLowerCase(java.util.Locale.ENGLISH), value);
-        permissible.recalculatePermissions();
+        // Solar start - recalculate incrementally
+        String lname = name.toLowerCase(java.util.Locale.ENGLISH);
+        permissions.put(lname, value);
+        permissible.recalculatePermissions(this, List.of(lname));
+        // Solar end
     }
 
     /**
@@ -106,8 +125,11 @@ public class PermissionAttachment {
      * @param name Name of the permission to remove
      */
     public void unsetPermission(String name) {
-        permissions.remove(name.toLowerCase(java.util.Locale.ENGLISH));
-        permissible.recalculatePermissions();
+        // Solar start - recalculate incrementally
+        String lname = name.toLowerCase(java.util.Locale.ENGLISH);
+        permissions.remove(lname);
+        permissible.recalculatePermissions(this, List.of(lname));
+        // Solar end
     }
 
     /**
@@ -122,6 +144,47 @@ public class PermissionAttachment {
         unsetPermission(perm.getName());
     }
 
+    // Solar start - bulk mutation
+    /**
+     * Sets many permissions to the given values at once. This is equivalent
+     * to calling {@link #setPermission(String, boolean)} for each entry in
+     * turn, but the {@link Permissible} only recalculates once.
+     *
+     * @param permissions the permissions and their values
+     */
+    public void setPermissions(Map<String, Boolean> permissions) {
+        List<String> names = new ArrayList<>(permissions.size());
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            String lname = entry.getKey().toLowerCase(java.util.Locale.ENGLISH);
+            this.permissions.put(lname, entry.getValue());
+            names.add(lname);
+        }
+        if (!names.isEmpty()) {
+            permissible.recalculatePermissions(this, names);
+        }
+    }
+
+    /**
+     * Removes many permissions from this attachment at once. This is
+     * equivalent to calling {@link #unsetPermission(String)} for each name in
+     * turn, but the {@link Permissible} only recalculates once.
+     *
+     * @param names the names of the permissions to remove
+     */
+    public void unsetPermissions(Collection<String> names) {
+        List<String> lnames = new ArrayList<>(names.size());
+        for (String name : names) {
+            String lname = name.toLowerCase(java.util.Locale.ENGLISH);
+            if (permissions.remove(lname) != null) {
+                lnames.add(lname);
+            }
+        }
+        if (!lnames.isEmpty()) {
+            permissible.recalculatePermissions(this, lnames);
+        }
+    }
+    // Solar end
+
     /**
      * Removes this attachment from its registered {@link Permissible}
      *
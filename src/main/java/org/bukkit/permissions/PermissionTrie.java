@@ -0,0 +1,277 @@
+package org.bukkit.permissions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * An immutable trie of permission values, with one node per dot-separated
+ * segment of a permission name.
+ * <p>
+ * Lookups are case insensitive and do not allocate for ASCII permission
+ * names, which is to say practically all of them. A permission whose last
+ * segment is {@code *}, such as {@code plugin.command.*}, and which was
+ * added as a wildcard is additionally treated as a wildcard for every
+ * permission below its parent when looking up with wildcards enabled,
+ * unless a more specific permission is set. The deepest matching wildcard
+ * wins. Other such permissions, such as registered permissions which are
+ * merely named like wildcards, only match themselves.
+ */
+// Solar - whole class
+final class PermissionTrie {
+
+    static final String WILDCARD = "*";
+
+    static final PermissionTrie EMPTY = new PermissionTrie(Node.EMPTY);
+
+    private final Node root;
+
+    private PermissionTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles a trie from the given permissions
+     *
+     * @param permissions the permission values, keyed by lowercase name
+     * @param wildcards whether permissions ending in {@code *} act as wildcards
+     * @return the trie
+     */
+    static PermissionTrie compile(Map<String, Boolean> permissions, boolean wildcards) {
+        if (permissions.isEmpty()) {
+            return EMPTY;
+        }
+        Builder root = new Builder(wildcards);
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            String name = entry.getKey();
+            Builder node = root;
+            int start = 0;
+            while (true) {
+                int end = name.indexOf('.', start);
+                if (end == -1) {
+                    end = name.length();
+                }
+                node = node.children.computeIfAbsent(name.substring(start, end), (k) -> new Builder(wildcards));
+                if (end == name.length()) {
+                    break;
+                }
+                start = end + 1;
+            }
+            node.value = entry.getValue();
+        }
+        return new PermissionTrie(root.build());
+    }
+
+    /**
+     * Creates a trie with the given permissions changed, sharing every
+     * unchanged node with this trie
+     *
+     * @param changes the changed permission values, keyed by lowercase name,
+     *     with a null value for removed permissions
+     * @param wildcards whether changed permissions ending in {@code *} act as
+     *     wildcards
+     * @return the updated trie
+     */
+    PermissionTrie update(Map<String, Boolean> changes, boolean wildcards) {
+        Node updated = root;
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            updated = updated.with(change.getKey(), 0, change.getValue(), wildcards);
+        }
+        return (updated == root) ? this : (updated.isEmpty()) ? EMPTY : new PermissionTrie(updated);
+    }
+
+    /**
+     * Looks up a permission
+     *
+     * @param name the permission name, in any case
+     * @param wildcards whether to consider wildcard permissions
+     * @return the permission value, or null if not set
+     */
+    Boolean lookup(String name, boolean wildcards) {
+        boolean ascii = true;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (!ascii) {
+            // Lowercasing outside ASCII is not a per-character operation
+            name = name.toLowerCase(java.util.Locale.ENGLISH);
+        }
+        Node node = root;
+        Boolean wildcard = null;
+        int start = 0;
+        int length = name.length();
+        while (true) {
+            if (wildcards && node.wildcard != null) {
+                wildcard = node.wildcard;
+            }
+            int end = name.indexOf('.', start);
+            if (end == -1) {
+                end = length;
+            }
+            int index = node.find(name, start, end, ascii);
+            if (index < 0) {
+                return wildcard;
+            }
+            node = node.children[index];
+            if (end == length) {
+                return (node.value != null) ? node.value : wildcard;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static final class Builder {
+
+        private final Map<String, Builder> children = new TreeMap<>();
+        private final boolean wildcards;
+        private Boolean value;
+
+        Builder(boolean wildcards) {
+            this.wildcards = wildcards;
+        }
+
+        Node build() {
+            String[] keys = children.keySet().toArray(new String[0]);
+            Node[] nodes = new Node[keys.length];
+            Boolean wildcard = null;
+            List<Builder> builders = new ArrayList<>(children.values());
+            for (int n = 0; n < keys.length; n++) {
+                nodes[n] = builders.get(n).build();
+                if (keys[n].equals(WILDCARD)) {
+                    wildcard = nodes[n].wildcardValue();
+                }
+            }
+            return new Node(keys, nodes, value, wildcard, wildcards);
+        }
+    }
+
+    private static final class Node {
+
+        static final Node EMPTY = new Node(new String[0], new Node[0], null, null, false);
+
+        /**
+         * Lowercase segments, sorted by {@link String#compareTo(String)}
+         */
+        final String[] keys;
+        final Node[] children;
+        final Boolean value;
+        final Boolean wildcard;
+        /**
+         * Whether the value, if this is a {@code *} node, applies to its siblings
+         */
+        final boolean matchesSiblings;
+
+        Node(String[] keys, Node[] children, Boolean value, Boolean wildcard, boolean matchesSiblings) {
+            this.keys = keys;
+            this.children = children;
+            this.value = value;
+            this.wildcard = wildcard;
+            this.matchesSiblings = matchesSiblings;
+        }
+
+        Boolean wildcardValue() {
+            return (matchesSiblings) ? value : null;
+        }
+
+        boolean isEmpty() {
+            return value == null && keys.length == 0;
+        }
+
+        Node with(String name, int start, Boolean newValue, boolean wildcards) {
+            int end = name.indexOf('.', start);
+            if (end == -1) {
+                end = name.length();
+            }
+            int index = find(name, start, end, false);
+            Node child = (index >= 0) ? children[index] : EMPTY;
+            Node updated;
+            if (end == name.length()) {
+                boolean matches = wildcards && newValue != null;
+                updated = (Objects.equals(child.value, newValue) && child.matchesSiblings == matches) ? child
+                        : new Node(child.keys, child.children, newValue, child.wildcard, matches);
+            } else {
+                updated = child.with(name, end + 1, newValue, wildcards);
+            }
+            if (updated == child) {
+                return this;
+            }
+
+            String[] newKeys;
+            Node[] newChildren;
+            String key;
+            if (index >= 0) {
+                key = keys[index];
+                if (updated.isEmpty()) {
+                    newKeys = new String[keys.length - 1];
+                    newChildren = new Node[keys.length - 1];
+                    System.arraycopy(keys, 0, newKeys, 0, index);
+                    System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+                    System.arraycopy(children, 0, newChildren, 0, index);
+                    System.arraycopy(children, index + 1, newChildren, index, keys.length - index - 1);
+                } else {
+                    newKeys = keys;
+                    newChildren = children.clone();
+                    newChildren[index] = updated;
+                }
+            } else {
+                if (updated.isEmpty()) {
+                    return this;
+                }
+                key = name.substring(start, end);
+                int insertion = -(index + 1);
+                newKeys = new String[keys.length + 1];
+                newChildren = new Node[keys.length + 1];
+                System.arraycopy(keys, 0, newKeys, 0, insertion);
+                System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+                System.arraycopy(children, 0, newChildren, 0, insertion);
+                System.arraycopy(children, insertion, newChildren, insertion + 1, keys.length - insertion);
+                newKeys[insertion] = key;
+                newChildren[insertion] = updated;
+            }
+            Boolean newWildcard = wildcard;
+            if (key.equals(WILDCARD)) {
+                newWildcard = updated.wildcardValue();
+            }
+            return new Node(newKeys, newChildren, value, newWildcard, matchesSiblings);
+        }
+
+        int find(String name, int start, int end, boolean foldCase) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(keys[middle], name, start, end, foldCase);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private static int compare(String key, String name, int start, int end, boolean foldCase) {
+            int keyLength = key.length();
+            int segmentLength = end - start;
+            int limit = Math.min(keyLength, segmentLength);
+            for (int i = 0; i < limit; i++) {
+                char c = name.charAt(start + i);
+                if (foldCase && c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+                int difference = key.charAt(i) - c;
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return keyLength - segmentLength;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Set;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.permissions.DefaultPermissionSnapshot;
 import org.bukkit.permissions.Permissible;
 import org.bukkit.permissions.Permission;
 
@@ -220,6 +221,31 @@ public interface PluginManager {
      */
     public Set<Permission> getDefaultPermissions(boolean op);
 
+    // Solar start
+    /**
+     * Gets the default permissions for the given op status, with all
+     * children expanded, as an immutable snapshot which may be shared
+     *
+     * @param op Which set of default permissions to get
+     * @return The default permission snapshot
+     */
+    default DefaultPermissionSnapshot getDefaultPermissionSnapshot(boolean op) {
+        return DefaultPermissionSnapshot.create(op, getDefaultPermissions(op), this::getPermission);
+    }
+
+    /**
+     * Gets a number which changes whenever a permission is added or removed,
+     * or the defaults or children of a permission change
+     * <p>
+     * By default, changes are not tracked.
+     *
+     * @return the permission epoch, or -1 if not tracked
+     */
+    default long getPermissionEpoch() {
+        return -1;
+    }
+    // Solar end
+
     /**
      * Recalculates the defaults for the given {@link Permission}.
      * <p>
@@ -260,6 +286,20 @@ public interface PluginManager {
      */
     public Set<Permissible> getPermissionSubscriptions(String permission);
 
+    // Solar start
+    /**
+     * Runs an action for each {@link Permissible} subscribed to the given
+     * permission, by name, without copying the subscriptions. This is the
+     * preferred way to broadcast to a permission
+     *
+     * @param permission Permission to query for
+     * @param action Action to run for each subscribed permissible
+     */
+    default void forEachPermissionSubscriber(String permission, java.util.function.Consumer<? super Permissible> action) {
+        getPermissionSubscriptions(permission).forEach(action);
+    }
+    // Solar end
+
     /**
      * Subscribes to the given Default permissions by operator status
      * <p>
@@ -0,0 +1,83 @@
+package org.bukkit.plugin;
+
+/**
+ * A handle to the highest priority provider of a service, which follows the
+ * providers registered and unregistered with a {@link ServicesManager}.
+ * <p>
+ * References may be kept for as long as the service is used, instead of
+ * querying the services manager whenever a provider is needed. The
+ * references of a {@link SimpleServicesManager} are updated as providers
+ * change, so that a lookup is a single read.
+ *
+ * @param <T> Service
+ */
+// Solar - whole class
+public final class ServiceReference<T> {
+    private final Class<T> service;
+    private final ServicesManager manager;
+    private volatile RegisteredServiceProvider<T> registration;
+
+    /**
+     * Creates a reference which queries the services manager on every
+     * lookup.
+     */
+    ServiceReference(Class<T> service, ServicesManager manager) {
+        this.service = service;
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a reference which is updated by its services manager.
+     */
+    ServiceReference(Class<T> service, RegisteredServiceProvider<T> registration) {
+        this.service = service;
+        this.manager = null;
+        this.registration = registration;
+    }
+
+    void update(RegisteredServiceProvider<T> registration) {
+        this.registration = registration;
+    }
+
+    /**
+     * Gets the service interface.
+     *
+     * @return The service interface
+     */
+    public Class<T> getService() {
+        return service;
+    }
+
+    /**
+     * Gets the registration of the highest priority provider.
+     *
+     * @return provider registration or null
+     */
+    public RegisteredServiceProvider<T> getRegistration() {
+        return (manager != null) ? manager.getRegistration(service) : registration;
+    }
+
+    /**
+     * Gets the highest priority provider.
+     *
+     * @return provider or null
+     */
+    public T get() {
+        RegisteredServiceProvider<T> registration = getRegistration();
+        return (registration != null) ? registration.getProvider() : null;
+    }
+
+    /**
+     * Returns whether a provider is registered for the service.
+     *
+     * @return true if and only if there is a registered provider
+     */
+    public boolean isPresent() {
+        return getRegistration() != null;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceReference{" + service.getName() + "}";
+    }
+}
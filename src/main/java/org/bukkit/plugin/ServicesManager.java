@@ -103,4 +103,24 @@ public interface ServicesManager {
      */
     public <T> boolean isProvidedFor(Class<T> service);
 
+    // Solar start
+    /**
+     * Gets a reference to the highest priority provider of a service, which
+     * follows the providers registered and unregistered afterwards.
+     * <p>
+     * The default implementation queries {@link #getRegistration(Class)} on
+     * every lookup.
+     *
+     * @param <T> The service interface
+     * @param service The service interface
+     * @return reference to the provider
+     */
+    public default <T> ServiceReference<T> getReference(Class<T> service) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+
+        return new ServiceReference<T>(service, this);
+    }
+    // Solar end
 }
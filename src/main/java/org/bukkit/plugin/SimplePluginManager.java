@@ -5,15 +5,24 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -30,6 +39,7 @@ import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.permissions.DefaultPermissionSnapshot;
 import org.bukkit.permissions.Permissible;
 import org.bukkit.permissions.Permission;
 import org.bukkit.permissions.PermissionDefault;
@@ -37,6 +47,7 @@ import org.bukkit.plugin.internal.PluginHolder;
 import org.bukkit.util.FileUtil;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import space.arim.omnibus.util.ThisClass;
@@ -51,11 +62,19 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
     private final Map<String, Plugin> lookupNames = new HashMap<String, Plugin>();
     private File updateDirectory;
     private final SimpleCommandMap commandMap;
-    private final Map<String, Permission> permissions = new HashMap<String, Permission>();
+    private final Map<String, Permission> permissions = new ConcurrentHashMap<String, Permission>(); // Solar - read by permissibles without locking
     private final Map<Boolean, Set<Permission>> defaultPerms = new LinkedHashMap<Boolean, Set<Permission>>();
-    private final Map<String, Map<Permissible, Boolean>> permSubs = new HashMap<String, Map<Permissible, Boolean>>();
-    private final Map<Boolean, Map<Permissible, Boolean>> defSubs = new HashMap<Boolean, Map<Permissible, Boolean>>();
+    private final Map<String, SubscriberSet> permSubs = new ConcurrentHashMap<String, SubscriberSet>(); // Solar - lock-free reads
+    private final SubscriberSet opDefSubs = new SubscriberSet(); // Solar
+    private final SubscriberSet nonOpDefSubs = new SubscriberSet(); // Solar
+    // Solar start - shared default permission snapshots, built lazily
+    private final Object permissionLock = new Object(); // Guards permissions, defaultPerms and permissionEpoch writes
+    private final AtomicReference<CachedDefaults> opDefaults = new AtomicReference<>();
+    private final AtomicReference<CachedDefaults> nonOpDefaults = new AtomicReference<>();
+    private volatile long permissionEpoch;
+    // Solar end
     private boolean useTimings = false;
+    private volatile boolean parallelLoading; // Solar
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ThisClass.get()); // Solar
 
@@ -130,7 +149,11 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
             updateDirectory = new File(directory, server.getUpdateFolder());
         }
 
+        // Solar start - read descriptions in parallel if enabled
+        ExecutorService executor = (parallelLoading) ? createLoadingExecutor() : null;
+        try {
         Map<File, PluginDescriptionFile> pluginFiles = new LinkedHashMap<>(); // Solar
+        Map<File, CompletableFuture<PluginDescriptionFile>> pendingDescriptions = new LinkedHashMap<>();
         // This is where it figures out all possible plugins
         for (File file : directory.listFiles()) {
             PluginLoader loader = null;
@@ -143,9 +166,16 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
 
             if (loader == null) continue;
 
+            PluginLoader descriptionLoader = loader;
+            pendingDescriptions.put(file, supply(() -> descriptionLoader.getPluginDescription(file), executor));
+        }
+        for (Map.Entry<File, CompletableFuture<PluginDescriptionFile>> pendingDescription : pendingDescriptions.entrySet()) {
+            File file = pendingDescription.getKey();
+        // Solar end
+
             PluginDescriptionFile description = null;
             try {
-                description = loader.getPluginDescription(file);
+                description = await(pendingDescription.getValue(), InvalidDescriptionException.class); // Solar
                 String name = description.getName();
                 if (name.equalsIgnoreCase("bukkit") || name.equalsIgnoreCase("minecraft") || name.equalsIgnoreCase("mojang")) {
                     server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "': Restricted Name");
@@ -160,11 +190,117 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
             }
             pluginFiles.put(file, description); // Solar
         }
-        return sortPluginDependencies(pluginFiles, this::loadPlugin).toArray(Plugin[]::new); // Solar - use generic method
+        return sortPluginDependencies(pluginFiles, this::loadPlugin, executor).toArray(Plugin[]::new); // Solar - use generic method
+        // Solar start - shut down executor
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+        // Solar end
+    }
+
+    // Solar start - parallel loading
+    /**
+     * Sets whether plugins are loaded in parallel by {@link #loadPlugins(File)}.
+     * <p>
+     * When enabled, plugin descriptions are read and plugin jars indexed
+     * concurrently, and plugins whose dependencies have all been loaded are
+     * themselves loaded concurrently. The resulting load order still respects
+     * every dependency, soft dependency and load-before relation. Plugins are
+     * enabled sequentially regardless.
+     *
+     * @param parallelLoading whether to load plugins in parallel
+     */
+    public void setParallelLoading(boolean parallelLoading) {
+        this.parallelLoading = parallelLoading;
+    }
+
+    /**
+     * Whether plugins are loaded in parallel
+     *
+     * @return true if plugins are loaded in parallel
+     * @see #setParallelLoading(boolean)
+     */
+    public boolean isParallelLoading() {
+        return parallelLoading;
+    }
+
+    /**
+     * Creates an executor for parallel plugin loading. The caller is responsible
+     * for shutting it down
+     *
+     * @return the executor
+     */
+    protected ExecutorService createLoadingExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setNameFormat("Plugin Loader #%d").setDaemon(true).build());
     }
 
+    private interface ThrowingSupplier<R> {
+
+        R get() throws Exception;
+    }
+
+    private static <R> CompletableFuture<R> supply(ThrowingSupplier<R> supplier, Executor executor) {
+        if (executor == null) {
+            // Run inline so that sequential loading behaves exactly as before
+            try {
+                return CompletableFuture.completedFuture(supplier.get());
+            } catch (Exception ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return supplier.get();
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor);
+    }
+
+    private record WaveEntry<T>(T source, CompletableFuture<Plugin> plugin) { }
+
+    private static <R, X extends Exception> R await(CompletableFuture<R> future, Class<X> exceptionType) throws X {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (exceptionType.isInstance(cause)) {
+                throw exceptionType.cast(cause);
+            }
+            if (cause instanceof RuntimeException runtimeEx) {
+                throw runtimeEx;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+    // Solar end
+
     // Solar start - refactor this to support more than just plugins as File objects
     protected <T> List<Plugin> sortPluginDependencies(Map<T, PluginDescriptionFile> pluginInfo, PluginHolder.ObjectToPlugin<T> toPlugin) {
+        return sortPluginDependencies(pluginInfo, toPlugin, null);
+    }
+
+    /**
+     * Sorts and loads plugins according to their dependencies. If an executor
+     * is given, plugins whose dependencies are all loaded are loaded concurrently
+     * on it, in successive waves
+     *
+     * @param pluginInfo the plugins to load
+     * @param toPlugin the loading function
+     * @param executor the executor, or null to load sequentially
+     * @param <T> the plugin source type
+     * @return the loaded plugins, in load order
+     */
+    protected <T> List<Plugin> sortPluginDependencies(Map<T, PluginDescriptionFile> pluginInfo, PluginHolder.ObjectToPlugin<T> toPlugin,
+                                                      Executor executor) {
         List<Plugin> result = new ArrayList<Plugin>();
 
         Map<String, T> plugins = new HashMap<>(); // Solar
@@ -220,6 +356,7 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
         while (!plugins.isEmpty()) {
             boolean missingDependency = true;
             Iterator<Map.Entry<String, T>> pluginIterator = plugins.entrySet().iterator(); // Solar
+            Map<String, WaveEntry<T>> wave = new LinkedHashMap<>(); // Solar - parallel loading
 
             while (pluginIterator.hasNext()) {
                 Map.Entry<String, T> entry = pluginIterator.next(); // Solar
@@ -236,7 +373,7 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
                             dependencyIterator.remove();
 
                         // We have a dependency not found
-                        } else if (!plugins.containsKey(dependency)) {
+                        } else if (!plugins.containsKey(dependency) && !wave.containsKey(dependency)) { // Solar - or loading in this wave
                             missingDependency = false;
                             pluginIterator.remove();
                             softDependencies.remove(plugin);
@@ -262,7 +399,7 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
                         String softDependency = softDependencyIterator.next();
 
                         // Soft depend is no longer around
-                        if (!plugins.containsKey(softDependency)) {
+                        if (!plugins.containsKey(softDependency) && !wave.containsKey(softDependency)) { // Solar - or loading in this wave
                             softDependencyIterator.remove();
                         }
                     }
@@ -277,6 +414,12 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
                     pluginIterator.remove();
                     missingDependency = false;
 
+                    // Solar start - defer to the end of the wave so that dependents only load once this has
+                    if (executor != null) {
+                        wave.put(plugin, new WaveEntry<>(file, supply(() -> toPlugin.toPlugin(file), executor)));
+                        continue;
+                    }
+                    // Solar end
                     try {
                         result.add(toPlugin.toPlugin(file)); // Solar
                         loadedPlugins.add(plugin);
@@ -286,6 +429,22 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
                     }
                 }
             }
+            // Solar start - collect the wave in a deterministic order
+            List<Plugin> waveResult = new ArrayList<>(wave.size());
+            for (Map.Entry<String, WaveEntry<T>> loading : wave.entrySet()) {
+                String plugin = loading.getKey();
+                try {
+                    waveResult.add(await(loading.getValue().plugin(), InvalidPluginException.class));
+                    loadedPlugins.add(plugin);
+                } catch (InvalidPluginException | UnknownDependencyException ex) {
+                    LOGGER.error("Could not load {} from {}", plugin, loading.getValue().source(), ex);
+                }
+            }
+            if (!waveResult.isEmpty()) {
+                result.addAll(waveResult);
+                restoreLoadOrder(waveResult);
+            }
+            // Solar end
 
             if (missingDependency) {
                 // We now iterate over plugins until something loads
@@ -340,29 +499,35 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
      * @throws UnknownDependencyException If a required dependency could not
      *     be found
      */
-    public synchronized Plugin loadPlugin(File file) throws InvalidPluginException, UnknownDependencyException {
+    public Plugin loadPlugin(File file) throws InvalidPluginException, UnknownDependencyException { // Solar - only lock for bookkeeping
         Validate.notNull(file, "File cannot be null");
 
+        // Solar start - do not hold the lock while loading, so that plugins may be loaded in parallel
+        List<PluginLoader> matchingLoaders = new ArrayList<>(1);
+        synchronized (this) {
         checkUpdate(file);
 
         Set<Pattern> filters = fileAssociations.keySet();
-        Plugin result = null;
 
         for (Pattern filter : filters) {
             String name = file.getName();
             Matcher match = filter.matcher(name);
 
             if (match.find()) {
-                PluginLoader loader = fileAssociations.get(filter);
-
-                result = loader.loadPlugin(file);
+                matchingLoaders.add(fileAssociations.get(filter));
             }
         }
+        }
+
+        Plugin result = null;
+        for (PluginLoader loader : matchingLoaders) {
+            result = loader.loadPlugin(file);
+        }
 
         if (result != null) {
-            plugins.add(result);
-            lookupNames.put(result.getDescription().getName().toLowerCase(java.util.Locale.ENGLISH), result); // Spigot
+            internalAddPlugin(result);
         }
+        // Solar end
 
         return result;
     }
@@ -372,6 +537,35 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
         plugins.add(plugin);
         lookupNames.put(plugin.getDescription().getName().toLowerCase(java.util.Locale.ENGLISH), plugin);
     }
+
+    /**
+     * Plugins loaded in parallel are added as they finish loading. Puts them
+     * back in the order in which they were collected, so that the order of
+     * {@link #getPlugins()} does not depend on thread scheduling
+     *
+     * @param loaded the plugins of a wave, in the order they were collected
+     */
+    private synchronized void restoreLoadOrder(List<Plugin> loaded) {
+        List<Integer> positions = new ArrayList<>(loaded.size());
+        List<Plugin> present = new ArrayList<>(loaded.size());
+        for (Plugin plugin : loaded) {
+            int position = plugins.indexOf(plugin);
+            if (position != -1) {
+                positions.add(position);
+                present.add(plugin);
+            }
+        }
+        Collections.sort(positions);
+        for (int n = 0; n < positions.size(); n++) {
+            plugins.set(positions.get(n), present.get(n));
+        }
+        // Classes contained in several plugins are looked up in the same order
+        for (PluginLoader loader : fileAssociations.values()) {
+            if (loader instanceof org.bukkit.plugin.java.JavaPluginLoader javaLoader) {
+                javaLoader.restoreLoadOrder(present);
+            }
+        }
+    }
     // Solar end
 
     private void checkUpdate(File file) {
@@ -521,9 +715,12 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
             lookupNames.clear();
             HandlerList.unregisterAll();
             fileAssociations.clear();
+            synchronized (permissionLock) { // Solar
             permissions.clear();
             defaultPerms.get(true).clear();
             defaultPerms.get(false).clear();
+            invalidateDefaultPermissions(); // Solar
+            } // Solar
         }
     }
     private void fireEvent(Event event) { callEvent(event); } // Paper - support old method incase plugin uses reflection
@@ -654,48 +851,106 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
     public void addPermission(Permission perm, boolean dirty) {
         String name = perm.getName().toLowerCase(java.util.Locale.ENGLISH);
 
+        synchronized (permissionLock) { // Solar
         if (permissions.containsKey(name)) {
             throw new IllegalArgumentException("The permission " + name + " is already defined!");
         }
 
         permissions.put(name, perm);
+        invalidateDefaultPermissions(); // Solar - may be the child of a default permission
+        } // Solar
         calculatePermissionDefault(perm, dirty);
     }
 
     public Set<Permission> getDefaultPermissions(boolean op) {
+        synchronized (permissionLock) { // Solar
         return ImmutableSet.copyOf(defaultPerms.get(op));
+        } // Solar
+    }
+
+    // Solar start
+    @Override
+    public DefaultPermissionSnapshot getDefaultPermissionSnapshot(boolean op) {
+        AtomicReference<CachedDefaults> cache = op ? opDefaults : nonOpDefaults;
+        CachedDefaults cached = cache.get();
+        if (cached != null && cached.epoch() == permissionEpoch) {
+            return cached.snapshot();
+        }
+        CachedDefaults created;
+        synchronized (permissionLock) {
+            // Neither the defaults nor the permission graph change while the snapshot is created
+            created = new CachedDefaults(permissionEpoch, DefaultPermissionSnapshot.create(op, defaultPerms.get(op), this::getPermission));
+        }
+        // Never replace the snapshot of a later epoch with an earlier one
+        cache.accumulateAndGet(created, (current, update) -> (current == null || current.epoch() < update.epoch()) ? update : current);
+        return created.snapshot();
+    }
+
+    @Override
+    public long getPermissionEpoch() {
+        return permissionEpoch;
+    }
+
+    /**
+     * Invalidates the cached default permission snapshots, which are only
+     * served while their epoch is the current one
+     */
+    private void invalidateDefaultPermissions() {
+        synchronized (permissionLock) {
+            permissionEpoch++;
+        }
     }
 
+    private record CachedDefaults(long epoch, DefaultPermissionSnapshot snapshot) { }
+    // Solar end
+
     public void removePermission(Permission perm) {
         removePermission(perm.getName());
     }
 
     public void removePermission(String name) {
+        synchronized (permissionLock) { // Solar
         permissions.remove(name.toLowerCase(java.util.Locale.ENGLISH));
+        invalidateDefaultPermissions(); // Solar
+        } // Solar
     }
 
     public void recalculatePermissionDefaults(Permission perm) {
-        if (perm != null && permissions.containsKey(perm.getName().toLowerCase(java.util.Locale.ENGLISH))) {
+        // Solar start - the children of the permission may have changed
+        synchronized (permissionLock) {
+            invalidateDefaultPermissions();
+            if (perm == null || !permissions.containsKey(perm.getName().toLowerCase(java.util.Locale.ENGLISH))) {
+                return;
+            }
             defaultPerms.get(true).remove(perm);
             defaultPerms.get(false).remove(perm);
-
-            calculatePermissionDefault(perm, true);
         }
+        calculatePermissionDefault(perm, true);
+        // Solar end
     }
 
     private void calculatePermissionDefault(Permission perm, boolean dirty) {
-        if ((perm.getDefault() == PermissionDefault.OP) || (perm.getDefault() == PermissionDefault.TRUE)) {
-            defaultPerms.get(true).add(perm);
-            if (dirty) {
-                dirtyPermissibles(true);
+        // Solar start - only dirty permissibles outside the lock, as they recalculate with their own locks held
+        boolean op = (perm.getDefault() == PermissionDefault.OP) || (perm.getDefault() == PermissionDefault.TRUE);
+        boolean nonOp = (perm.getDefault() == PermissionDefault.NOT_OP) || (perm.getDefault() == PermissionDefault.TRUE);
+        synchronized (permissionLock) {
+            if (op) {
+                defaultPerms.get(true).add(perm);
+            }
+            if (nonOp) {
+                defaultPerms.get(false).add(perm);
             }
+            invalidateDefaultPermissions();
         }
-        if ((perm.getDefault() == PermissionDefault.NOT_OP) || (perm.getDefault() == PermissionDefault.TRUE)) {
-            defaultPerms.get(false).add(perm);
-            if (dirty) {
+        if (dirty) {
+            if (op) {
+                dirtyPermissibles(true);
+            }
+            if (nonOp) {
                 dirtyPermissibles(false);
             }
         }
+        // Solar end
     }
 
     @Deprecated
@@ -705,6 +960,7 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
     }
 
     private void dirtyPermissibles(boolean op) {
+        invalidateDefaultPermissions(); // Solar
         Set<Permissible> permissibles = getDefaultPermSubscriptions(op);
 
         for (Permissible p : permissibles) {
@@ -712,74 +968,88 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
         }
     }
 
+    // Solar start - copy-on-write subscriber sets, which are read without locking or copying
     public void subscribeToPermission(String permission, Permissible permissible) {
         String name = permission.toLowerCase(java.util.Locale.ENGLISH);
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            permSubs.put(name, map);
-        }
-
-        map.put(permissible, true);
+        permSubs.compute(name, (key, subscribers) -> {
+            if (subscribers == null) {
+                subscribers = new SubscriberSet();
+            }
+            subscribers.add(permissible);
+            return subscribers;
+        });
     }
 
     public void unsubscribeFromPermission(String permission, Permissible permissible) {
         String name = permission.toLowerCase(java.util.Locale.ENGLISH);
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map != null) {
-            map.remove(permissible);
-
-            if (map.isEmpty()) {
-                permSubs.remove(name);
-            }
-        }
+        permSubs.computeIfPresent(name, (key, subscribers) -> {
+            subscribers.remove(permissible);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
     }
 
     public Set<Permissible> getPermissionSubscriptions(String permission) {
         String name = permission.toLowerCase(java.util.Locale.ENGLISH);
-        Map<Permissible, Boolean> map = permSubs.get(name);
-
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
+        SubscriberSet subscribers = permSubs.get(name);
+        Set<Permissible> subscriptions = (subscribers == null) ? ImmutableSet.of() : subscribers.snapshot();
+
+        // Permissibles do not subscribe to each of their default permissions individually
+        boolean opDefault = getDefaultPermissionSnapshot(true).contains(name);
+        boolean nonOpDefault = getDefaultPermissionSnapshot(false).contains(name);
+        if (!opDefault && !nonOpDefault) {
+            return subscriptions;
         }
+        ImmutableSet.Builder<Permissible> builder = ImmutableSet.builder();
+        forEachPermissionSubscriber(name, builder::add);
+        return builder.build();
     }
 
-    public void subscribeToDefaultPerms(boolean op, Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
+    @Override
+    public void forEachPermissionSubscriber(String permission, Consumer<? super Permissible> action) {
+        String name = permission.toLowerCase(java.util.Locale.ENGLISH);
+        SubscriberSet subscribers = permSubs.get(name);
+        boolean opDefault = getDefaultPermissionSnapshot(true).contains(name);
+        boolean nonOpDefault = getDefaultPermissionSnapshot(false).contains(name);
+        if (!opDefault && !nonOpDefault) {
+            if (subscribers != null) {
+                subscribers.forEach(action);
+            }
+            return;
+        }
 
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            defSubs.put(op, map);
+        // Permissibles which override a default permission are subscribed to it explicitly, and are only visited once
+        Set<Permissible> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (subscribers != null) {
+            subscribers.forEach((permissible) -> {
+                visited.add(permissible);
+                action.accept(permissible);
+            });
+        }
+        Consumer<Permissible> defaultAction = (permissible) -> {
+            if (visited.isEmpty() || !visited.contains(permissible)) {
+                action.accept(permissible);
+            }
+        };
+        if (opDefault) {
+            opDefSubs.forEach(defaultAction);
+        }
+        if (nonOpDefault) {
+            nonOpDefSubs.forEach(defaultAction);
         }
+    }
 
-        map.put(permissible, true);
+    public void subscribeToDefaultPerms(boolean op, Permissible permissible) {
+        (op ? opDefSubs : nonOpDefSubs).add(permissible);
     }
 
     public void unsubscribeFromDefaultPerms(boolean op, Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
-
-        if (map != null) {
-            map.remove(permissible);
-
-            if (map.isEmpty()) {
-                defSubs.remove(op);
-            }
-        }
+        (op ? opDefSubs : nonOpDefSubs).remove(permissible);
     }
 
     public Set<Permissible> getDefaultPermSubscriptions(boolean op) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
-
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
-        }
+        return (op ? opDefSubs : nonOpDefSubs).snapshot();
     }
+    // Solar end
 
     public Set<Permission> getPermissions() {
         return new HashSet<Permission>(permissions.values());
@@ -800,9 +1070,12 @@ public class SimplePluginManager implements PluginManager { // Solar - non-final
 
     // Paper start
     public void clearPermissions() {
+        synchronized (permissionLock) { // Solar
         permissions.clear();
         defaultPerms.get(true).clear();
         defaultPerms.get(false).clear();
+        invalidateDefaultPermissions(); // Solar
+        } // Solar
     }
     // Paper end
 
@@ -8,23 +8,81 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Arrays; // Solar
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap; // Solar
+import java.util.concurrent.ConcurrentMap; // Solar
+import java.util.function.Predicate; // Solar
 
 /**
  * A simple services manager.
  */
 public class SimpleServicesManager implements ServicesManager {
 
+    // Solar start - publish immutable arrays of providers, so that lookups do not lock
+    private static final RegisteredServiceProvider<?>[] NO_PROVIDERS = new RegisteredServiceProvider<?>[0];
+
+    /**
+     * Map of providers, sorted by priority. The arrays are never changed,
+     * but replaced while holding the lock.
+     */
+    private final ConcurrentMap<Class<?>, RegisteredServiceProvider<?>[]> providers = new ConcurrentHashMap<Class<?>, RegisteredServiceProvider<?>[]>();
+    private final Object lock = new Object();
+    private final ClassValue<ServiceReference<?>> references = new ClassValue<ServiceReference<?>>() {
+        @Override
+        protected ServiceReference<?> computeValue(Class<?> type) {
+            synchronized (lock) {
+                RegisteredServiceProvider<Object> registration = uncheckedCast(first(providers.get(type)));
+                return new ServiceReference<Object>(uncheckedCast(type), registration);
+            }
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private static <T> T uncheckedCast(Object value) {
+        return (T) value;
+    }
+
+    private static RegisteredServiceProvider<?> first(RegisteredServiceProvider<?>[] registered) {
+        return (registered != null) ? registered[0] : null;
+    }
+
     /**
-     * Map of providers.
+     * Replaces the providers of a service, while holding the lock.
      */
-    private final Map<Class<?>, List<RegisteredServiceProvider<?>>> providers = new HashMap<Class<?>, List<RegisteredServiceProvider<?>>>();
+    private void publish(Class<?> service, RegisteredServiceProvider<?>[] registered) {
+        if (registered.length == 0) {
+            providers.remove(service);
+        } else {
+            providers.put(service, registered);
+        }
+        ServiceReference<Object> reference = uncheckedCast(references.get(service));
+        reference.update(uncheckedCast(first(providers.get(service))));
+    }
+
+    /**
+     * Removes the matching providers of a service, while holding the lock.
+     */
+    private void remove(Class<?> service, Predicate<RegisteredServiceProvider<?>> filter, List<ServiceUnregisterEvent> unregisteredEvents) {
+        RegisteredServiceProvider<?>[] registered = providers.get(service);
+        if (registered == null) {
+            return;
+        }
+
+        List<RegisteredServiceProvider<?>> remaining = new ArrayList<RegisteredServiceProvider<?>>(registered.length);
+        for (RegisteredServiceProvider<?> provider : registered) {
+            if (filter.test(provider)) {
+                unregisteredEvents.add(new ServiceUnregisterEvent(provider));
+            } else {
+                remaining.add(provider);
+            }
+        }
+        if (remaining.size() != registered.length) {
+            publish(service, remaining.toArray(NO_PROVIDERS));
+        }
+    }
+    // Solar end
 
     /**
      * Register a provider of a service.
@@ -36,25 +94,23 @@ public class SimpleServicesManager implements ServicesManager {
      * @param priority priority of the provider
      */
     public <T> void register(Class<T> service, T provider, Plugin plugin, ServicePriority priority) {
-        RegisteredServiceProvider<T> registeredProvider = null;
-        synchronized (providers) {
-            List<RegisteredServiceProvider<?>> registered = providers.get(service);
-            if (registered == null) {
-                registered = new ArrayList<RegisteredServiceProvider<?>>();
-                providers.put(service, registered);
-            }
-
-            registeredProvider = new RegisteredServiceProvider<T>(service, provider, priority, plugin);
+        RegisteredServiceProvider<T> registeredProvider = new RegisteredServiceProvider<T>(service, provider, priority, plugin); // Solar
+        // Solar start - copy the array of providers
+        synchronized (lock) {
+            RegisteredServiceProvider<?>[] registered = providers.getOrDefault(service, NO_PROVIDERS);
 
             // Insert the provider into the collection, much more efficient big O than sort
-            int position = Collections.binarySearch(registered, registeredProvider);
+            int position = Arrays.binarySearch(registered, registeredProvider);
             if (position < 0) {
-                registered.add(-(position + 1), registeredProvider);
-            } else {
-                registered.add(position, registeredProvider);
+                position = -(position + 1);
             }
-
+            RegisteredServiceProvider<?>[] updated = new RegisteredServiceProvider<?>[registered.length + 1];
+            System.arraycopy(registered, 0, updated, 0, position);
+            updated[position] = registeredProvider;
+            System.arraycopy(registered, position, updated, position + 1, registered.length - position);
+            publish(service, updated);
         }
+        // Solar end
         Bukkit.getServer().getPluginManager().callEvent(new ServiceRegisterEvent(registeredProvider));
     }
 
@@ -65,35 +121,13 @@ public class SimpleServicesManager implements ServicesManager {
      */
     public void unregisterAll(Plugin plugin) {
         ArrayList<ServiceUnregisterEvent> unregisteredEvents = new ArrayList<ServiceUnregisterEvent>();
-        synchronized (providers) {
-            Iterator<Map.Entry<Class<?>, List<RegisteredServiceProvider<?>>>> it = providers.entrySet().iterator();
-
-            try {
-                while (it.hasNext()) {
-                    Map.Entry<Class<?>, List<RegisteredServiceProvider<?>>> entry = it.next();
-                    Iterator<RegisteredServiceProvider<?>> it2 = entry.getValue().iterator();
-
-                    try {
-                        // Removed entries that are from this plugin
-
-                        while (it2.hasNext()) {
-                            RegisteredServiceProvider<?> registered = it2.next();
-
-                            if (registered.getPlugin().equals(plugin)) {
-                                it2.remove();
-                                unregisteredEvents.add(new ServiceUnregisterEvent(registered));
-                            }
-                        }
-                    } catch (NoSuchElementException e) { // Why does Java suck
-                    }
-
-                    // Get rid of the empty list
-                    if (entry.getValue().size() == 0) {
-                        it.remove();
-                    }
-                }
-            } catch (NoSuchElementException e) {}
+        // Solar start - remove through copies of the arrays
+        synchronized (lock) {
+            for (Class<?> service : providers.keySet()) {
+                remove(service, (registered) -> registered.getPlugin().equals(plugin), unregisteredEvents);
+            }
         }
+        // Solar end
         for (ServiceUnregisterEvent event : unregisteredEvents) {
             Bukkit.getServer().getPluginManager().callEvent(event);
         }
@@ -107,41 +141,11 @@ public class SimpleServicesManager implements ServicesManager {
      */
     public void unregister(Class<?> service, Object provider) {
         ArrayList<ServiceUnregisterEvent> unregisteredEvents = new ArrayList<ServiceUnregisterEvent>();
-        synchronized (providers) {
-            Iterator<Map.Entry<Class<?>, List<RegisteredServiceProvider<?>>>> it = providers.entrySet().iterator();
-
-            try {
-                while (it.hasNext()) {
-                    Map.Entry<Class<?>, List<RegisteredServiceProvider<?>>> entry = it.next();
-
-                    // We want a particular service
-                    if (entry.getKey() != service) {
-                        continue;
-                    }
-
-                    Iterator<RegisteredServiceProvider<?>> it2 = entry.getValue().iterator();
-
-                    try {
-                        // Removed entries that are from this plugin
-
-                        while (it2.hasNext()) {
-                            RegisteredServiceProvider<?> registered = it2.next();
-
-                            if (registered.getProvider() == provider) {
-                                it2.remove();
-                                unregisteredEvents.add(new ServiceUnregisterEvent(registered));
-                            }
-                        }
-                    } catch (NoSuchElementException e) { // Why does Java suck
-                    }
-
-                    // Get rid of the empty list
-                    if (entry.getValue().size() == 0) {
-                        it.remove();
-                    }
-                }
-            } catch (NoSuchElementException e) {}
+        // Solar start - remove through a copy of the array
+        synchronized (lock) {
+            remove(service, (registered) -> registered.getProvider() == provider, unregisteredEvents);
         }
+        // Solar end
         for (ServiceUnregisterEvent event : unregisteredEvents) {
             Bukkit.getServer().getPluginManager().callEvent(event);
         }
@@ -154,35 +158,13 @@ public class SimpleServicesManager implements ServicesManager {
      */
     public void unregister(Object provider) {
         ArrayList<ServiceUnregisterEvent> unregisteredEvents = new ArrayList<ServiceUnregisterEvent>();
-        synchronized (providers) {
-            Iterator<Map.Entry<Class<?>, List<RegisteredServiceProvider<?>>>> it = providers.entrySet().iterator();
-
-            try {
-                while (it.hasNext()) {
-                    Map.Entry<Class<?>, List<RegisteredServiceProvider<?>>> entry = it.next();
-                    Iterator<RegisteredServiceProvider<?>> it2 = entry.getValue().iterator();
-
-                    try {
-                        // Removed entries that are from this plugin
-
-                        while (it2.hasNext()) {
-                            RegisteredServiceProvider<?> registered = it2.next();
-
-                            if (registered.getProvider().equals(provider)) {
-                                it2.remove();
-                                unregisteredEvents.add(new ServiceUnregisterEvent(registered));
-                            }
-                        }
-                    } catch (NoSuchElementException e) { // Why does Java suck
-                    }
-
-                    // Get rid of the empty list
-                    if (entry.getValue().size() == 0) {
-                        it.remove();
-                    }
-                }
-            } catch (NoSuchElementException e) {}
+        // Solar start - remove through copies of the arrays
+        synchronized (lock) {
+            for (Class<?> service : providers.keySet()) {
+                remove(service, (registered) -> registered.getProvider().equals(provider), unregisteredEvents);
+            }
         }
+        // Solar end
         for (ServiceUnregisterEvent event : unregisteredEvents) {
             Bukkit.getServer().getPluginManager().callEvent(event);
         }
@@ -197,16 +179,16 @@ public class SimpleServicesManager implements ServicesManager {
      * @return provider or null
      */
     public <T> T load(Class<T> service) {
-        synchronized (providers) {
-            List<RegisteredServiceProvider<?>> registered = providers.get(service);
-
-            if (registered == null) {
-                return null;
-            }
+        // Solar start - read the published array without locking
+        RegisteredServiceProvider<?>[] registered = providers.get(service);
 
-            // This should not be null!
-            return service.cast(registered.get(0).getProvider());
+        if (registered == null) {
+            return null;
         }
+
+        // This should not be null!
+        return service.cast(registered[0].getProvider());
+        // Solar end
     }
 
     /**
@@ -219,16 +201,16 @@ public class SimpleServicesManager implements ServicesManager {
      */
     @SuppressWarnings("unchecked")
     public <T> RegisteredServiceProvider<T> getRegistration(Class<T> service) {
-        synchronized (providers) {
-            List<RegisteredServiceProvider<?>> registered = providers.get(service);
-
-            if (registered == null) {
-                return null;
-            }
+        // Solar start - read the published array without locking
+        RegisteredServiceProvider<?>[] registered = providers.get(service);
 
-            // This should not be null!
-            return (RegisteredServiceProvider<T>) registered.get(0);
+        if (registered == null) {
+            return null;
         }
+
+        // This should not be null!
+        return (RegisteredServiceProvider<T>) registered[0];
+        // Solar end
     }
 
     /**
@@ -239,12 +221,10 @@ public class SimpleServicesManager implements ServicesManager {
      */
     public List<RegisteredServiceProvider<?>> getRegistrations(Plugin plugin) {
         ImmutableList.Builder<RegisteredServiceProvider<?>> ret = ImmutableList.<RegisteredServiceProvider<?>>builder();
-        synchronized (providers) {
-            for (List<RegisteredServiceProvider<?>> registered : providers.values()) {
-                for (RegisteredServiceProvider<?> provider : registered) {
-                    if (provider.getPlugin().equals(plugin)) {
-                        ret.add(provider);
-                    }
+        for (RegisteredServiceProvider<?>[] registered : providers.values()) { // Solar
+            for (RegisteredServiceProvider<?> provider : registered) {
+                if (provider.getPlugin().equals(plugin)) {
+                    ret.add(provider);
                 }
             }
         }
@@ -262,20 +242,18 @@ public class SimpleServicesManager implements ServicesManager {
     @SuppressWarnings("unchecked")
     public <T> List<RegisteredServiceProvider<T>> getRegistrations(Class<T> service) {
         ImmutableList.Builder<RegisteredServiceProvider<T>> ret;
-        synchronized (providers) {
-            List<RegisteredServiceProvider<?>> registered = providers.get(service);
-
-            if (registered == null) {
-                return ImmutableList.<RegisteredServiceProvider<T>>of();
-            }
+        RegisteredServiceProvider<?>[] registered = providers.get(service); // Solar
 
-            ret = ImmutableList.<RegisteredServiceProvider<T>>builder();
+        if (registered == null) {
+            return ImmutableList.<RegisteredServiceProvider<T>>of();
+        }
 
-            for (RegisteredServiceProvider<?> provider : registered) {
-                ret.add((RegisteredServiceProvider<T>) provider);
-            }
+        ret = ImmutableList.<RegisteredServiceProvider<T>>builderWithExpectedSize(registered.length); // Solar
 
+        for (RegisteredServiceProvider<?> provider : registered) {
+            ret.add((RegisteredServiceProvider<T>) provider);
         }
+
         return ret.build();
     }
 
@@ -286,9 +264,7 @@ public class SimpleServicesManager implements ServicesManager {
      * @return a copy of the set of known services
      */
     public Set<Class<?>> getKnownServices() {
-        synchronized (providers) {
-            return ImmutableSet.<Class<?>>copyOf(providers.keySet());
-        }
+        return ImmutableSet.<Class<?>>copyOf(providers.keySet()); // Solar
     }
 
     /**
@@ -299,8 +275,25 @@ public class SimpleServicesManager implements ServicesManager {
      * @return true if and only if there are registered providers
      */
     public <T> boolean isProvidedFor(Class<T> service) {
-        synchronized (providers) {
-            return providers.containsKey(service);
+        return providers.containsKey(service); // Solar
+    }
+
+    // Solar start
+    /**
+     * Gets a reference to the highest priority provider of a service, which
+     * is updated whenever the providers of the service change.
+     *
+     * @param <T> The service interface
+     * @param service The service interface
+     * @return reference to the provider
+     */
+    @Override
+    public <T> ServiceReference<T> getReference(Class<T> service) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
         }
+
+        return uncheckedCast(references.get(service));
     }
+    // Solar end
 }
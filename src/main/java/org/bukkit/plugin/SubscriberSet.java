@@ -0,0 +1,189 @@
+package org.bukkit.plugin;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.bukkit.permissions.Permissible;
+
+/**
+ * A copy-on-write set of weakly referenced permissibles, compared by
+ * identity.
+ * <p>
+ * Reads do not lock and do not copy: {@link #snapshot()} returns an
+ * unmodifiable view of the subscribers at the time of the last change, which
+ * skips permissibles that have since been garbage collected. Writes are
+ * serialized and drop collected permissibles as they go.
+ */
+// Solar - whole class
+final class SubscriberSet {
+
+    @SuppressWarnings("unchecked")
+    private static final WeakReference<Permissible>[] EMPTY = new WeakReference[0];
+
+    private volatile Snapshot snapshot = new Snapshot(EMPTY);
+
+    /**
+     * Adds a permissible
+     *
+     * @param permissible the permissible
+     * @return true if it was not already present
+     */
+    synchronized boolean add(Permissible permissible) {
+        WeakReference<Permissible>[] subscribers = snapshot.subscribers;
+        for (WeakReference<Permissible> reference : subscribers) {
+            if (reference.get() == permissible) {
+                return false;
+            }
+        }
+        WeakReference<Permissible>[] updated = compact(subscribers, null, 1);
+        updated[updated.length - 1] = new WeakReference<>(permissible);
+        snapshot = new Snapshot(updated);
+        return true;
+    }
+
+    /**
+     * Removes a permissible
+     *
+     * @param permissible the permissible
+     * @return true if it was present
+     */
+    synchronized boolean remove(Permissible permissible) {
+        WeakReference<Permissible>[] subscribers = snapshot.subscribers;
+        int live = 0;
+        boolean found = false;
+        for (WeakReference<Permissible> reference : subscribers) {
+            Permissible subscriber = reference.get();
+            if (subscriber == permissible) {
+                found = true;
+            } else if (subscriber != null) {
+                live++;
+            }
+        }
+        if (found || live != subscribers.length) {
+            snapshot = new Snapshot(compact(subscribers, permissible, 0));
+        }
+        return found;
+    }
+
+    /**
+     * Whether no live permissible is present
+     *
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        for (WeakReference<Permissible> reference : snapshot.subscribers) {
+            if (reference.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets an unmodifiable view of the current permissibles. The view does
+     * not reflect later additions or removals
+     *
+     * @return the permissibles
+     */
+    Set<Permissible> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Runs an action for each current permissible
+     *
+     * @param action the action
+     */
+    void forEach(Consumer<? super Permissible> action) {
+        for (WeakReference<Permissible> reference : snapshot.subscribers) {
+            Permissible subscriber = reference.get();
+            if (subscriber != null) {
+                action.accept(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Copies the live references other than the excluded permissible, with
+     * the given number of empty slots at the end
+     */
+    @SuppressWarnings("unchecked")
+    private static WeakReference<Permissible>[] compact(WeakReference<Permissible>[] subscribers, Permissible excluded, int extra) {
+        WeakReference<Permissible>[] compacted = new WeakReference[subscribers.length + extra];
+        int index = 0;
+        for (WeakReference<Permissible> reference : subscribers) {
+            Permissible subscriber = reference.get();
+            if (subscriber != null && subscriber != excluded) {
+                compacted[index++] = reference;
+            }
+        }
+        return (index == subscribers.length) ? compacted : Arrays.copyOf(compacted, index + extra);
+    }
+
+    private static final class Snapshot extends AbstractSet<Permissible> {
+
+        final WeakReference<Permissible>[] subscribers;
+
+        Snapshot(WeakReference<Permissible>[] subscribers) {
+            this.subscribers = subscribers;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (WeakReference<Permissible> reference : subscribers) {
+                if (reference.get() == o && o != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (WeakReference<Permissible> reference : subscribers) {
+                if (reference.get() != null) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<Permissible> iterator() {
+            return new Iterator<Permissible>() {
+                private int index;
+                private Permissible next = advance();
+
+                private Permissible advance() {
+                    while (index < subscribers.length) {
+                        Permissible subscriber = subscribers[index++].get();
+                        if (subscriber != null) {
+                            return subscriber;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Permissible next() {
+                    Permissible current = next;
+                    if (current == null) {
+                        throw new NoSuchElementException();
+                    }
+                    next = advance();
+                    return current;
+                }
+            };
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.bukkit.plugin.UnknownDependencyException;
 import java.io.File;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public final class BridgePluginManager extends SimplePluginManager implements PluginHolder {
 
@@ -51,4 +52,9 @@ public final class BridgePluginManager extends SimplePluginManager implements Pl
         return sortPluginDependencies(plugins, toPlugin);
     }
 
+    @Override
+    public <T> List<Plugin> sortPlugins(Map<T, PluginDescriptionFile> plugins, ObjectToPlugin<T> toPlugin, Executor executor) {
+        return sortPluginDependencies(plugins, toPlugin, executor);
+    }
+
 }
@@ -6,6 +6,7 @@ import org.bukkit.plugin.PluginDescriptionFile;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public interface PluginHolder {
 
@@ -13,6 +14,18 @@ public interface PluginHolder {
 
     <T> List<Plugin> sortPlugins(Map<T, PluginDescriptionFile> plugins, ObjectToPlugin<T> toPlugin);
 
+    /**
+     * Sorts and loads plugins, loading plugins whose dependencies are all loaded
+     * concurrently on the given executor
+     *
+     * @param plugins the plugins
+     * @param toPlugin the loading function, which must be thread safe
+     * @param executor the executor on which to load plugins
+     * @param <T> the plugin source type
+     * @return the loaded plugins, in an order respecting all dependencies
+     */
+    <T> List<Plugin> sortPlugins(Map<T, PluginDescriptionFile> plugins, ObjectToPlugin<T> toPlugin, Executor executor);
+
     interface ObjectToPlugin<T> {
 
         Plugin toPlugin(T object) throws InvalidPluginException;
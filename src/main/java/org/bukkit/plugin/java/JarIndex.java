@@ -0,0 +1,59 @@
+package org.bukkit.plugin.java;
+
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * The binary names of all classes contained in a plugin jar, including
+ * versioned entries of multi-release jars. Lets a {@link PluginClassLoader}
+ * answer lookups for classes it does not contain without touching the jar.
+ */
+// Solar - whole class
+final class JarIndex {
+
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Set<String> classNames;
+
+    private JarIndex(Set<String> classNames) {
+        this.classNames = classNames;
+    }
+
+    /**
+     * Indexes the given jar
+     *
+     * @param jar the opened jar
+     * @return the index
+     */
+    static JarIndex index(JarFile jar) {
+        Set<String> classNames = new HashSet<>();
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String entryName = entries.nextElement().getName();
+            if (!entryName.endsWith(CLASS_SUFFIX)) {
+                continue;
+            }
+            int start = 0;
+            if (entryName.startsWith(VERSIONS_PREFIX)) {
+                start = entryName.indexOf('/', VERSIONS_PREFIX.length()) + 1;
+                if (start == 0) {
+                    continue;
+                }
+            }
+            classNames.add(entryName.substring(start, entryName.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+        }
+        return new JarIndex(Set.copyOf(classNames));
+    }
+
+    boolean contains(String className) {
+        return classNames.contains(className);
+    }
+
+    Set<String> classNames() {
+        return classNames;
+    }
+}
@@ -49,7 +49,17 @@ public class JavaPluginLoader implements PluginLoader { // Solar - non-final, se
     final Server server;
     private final Pattern[] fileFilters = new Pattern[] { Pattern.compile("\\.jar$"), };
     private final Map<String, Class<?>> classes = new java.util.concurrent.ConcurrentHashMap<String, Class<?>>(); // Spigot
-    private final List<PluginClassLoader> loaders = new CopyOnWriteArrayList<PluginClassLoader>();
+    private final List<PluginClassLoader> loaders = new CopyOnWriteArrayList<PluginClassLoader>(); // Solar - in load order
+    // Solar start - global class name index
+    private final Map<String, PluginClassLoader> classOwners = new java.util.concurrent.ConcurrentHashMap<>();
+    private final Set<String> sharedClasses = java.util.concurrent.ConcurrentHashMap.newKeySet(); // classes contained in several jars
+    private volatile int classPathLoaders; // loaders whose manifest declares a Class-Path, which the index does not cover
+    /**
+     * Guards changes to the loaders and the index, which class loading reads
+     * without locking
+     */
+    private final Object loadersLock = new Object();
+    // Solar end
 
     /**
      * This class was not meant to be constructed explicitly
@@ -132,7 +142,7 @@ public class JavaPluginLoader implements PluginLoader { // Solar - non-final, se
             throw new InvalidPluginException(ex);
         }
 
-        loaders.add(loader);
+        addLoader(loader); // Solar
 
         return loader.plugin;
     }
@@ -186,21 +196,121 @@ public class JavaPluginLoader implements PluginLoader { // Solar - non-final, se
         if (cachedClass != null) {
             return cachedClass;
         } else {
-            for (PluginClassLoader loader : loaders) {
+            // Solar start - single lookup in the class name index rather than probing every loader
+            // A miss is definitive, since the index covers every class of every registered jar,
+            // unless a jar declares a Class-Path which may contain the class
+            PluginClassLoader owner = classOwners.get(name);
+            if (owner == null && classPathLoaders == 0) {
+                return null;
+            }
+            PluginClassLoader tried = null;
+            if (owner != null && !sharedClasses.contains(name)) {
                 try {
-                    cachedClass = loader.findClass(name, false);
+                    return owner.findClass(name, false);
                 } catch (ClassNotFoundException cnfe) {}
-                if (cachedClass != null) {
-                    return cachedClass;
+                tried = owner;
+            }
+            // The class is contained in several jars, its owner could not define it, or it may be
+            // on a Class-Path, so probe the loaders in load order, as was always done
+            for (PluginClassLoader loader : loaders) {
+                if (loader != tried && (loader.getJarIndex().contains(name) || loader.hasClassPath())) {
+                    try {
+                        return loader.findClass(name, false);
+                    } catch (ClassNotFoundException cnfe) {}
                 }
             }
+            // Solar end
         }
         return null;
     }
 
+    // Solar start - maintain the class name index alongside the loaders
+    private void addLoader(PluginClassLoader loader) {
+        synchronized (loadersLock) {
+            loaders.add(loader);
+            for (String className : loader.getJarIndex().classNames()) {
+                if (classOwners.putIfAbsent(className, loader) != null) {
+                    sharedClasses.add(className);
+                }
+            }
+            if (loader.hasClassPath()) {
+                classPathLoaders++;
+            }
+        }
+    }
+
+    /**
+     * Orders the loaders of plugins loaded in parallel as the plugin manager
+     * orders the plugins, rather than in the order in which they happened to
+     * register their loaders. The loaders take the positions the plugins'
+     * loaders already had, in the given order.
+     *
+     * @param plugins the plugins, in load order
+     * @deprecated Not intended for public access
+     */
+    @Deprecated
+    public void restoreLoadOrder(List<Plugin> plugins) {
+        synchronized (loadersLock) {
+            List<Integer> positions = new java.util.ArrayList<>(plugins.size());
+            List<PluginClassLoader> present = new java.util.ArrayList<>(plugins.size());
+            for (Plugin plugin : plugins) {
+                if (plugin instanceof JavaPlugin && ((JavaPlugin) plugin).getClassLoader() instanceof PluginClassLoader loader) {
+                    int position = loaders.indexOf(loader);
+                    if (position != -1) {
+                        positions.add(position);
+                        present.add(loader);
+                    }
+                }
+            }
+            java.util.Collections.sort(positions);
+            Map<PluginClassLoader, PluginClassLoader> moved = new java.util.IdentityHashMap<>();
+            for (int n = 0; n < positions.size(); n++) {
+                moved.put(loaders.get(positions.get(n)), present.get(n));
+            }
+            // Publishes the new order at once, since the loaders are read without locking
+            loaders.replaceAll(loader -> moved.getOrDefault(loader, loader));
+        }
+    }
+
+    private void removeLoader(PluginClassLoader loader) {
+        synchronized (loadersLock) {
+            if (!loaders.remove(loader)) {
+                return;
+            }
+            if (loader.hasClassPath()) {
+                classPathLoaders--;
+            }
+            for (String className : loader.getJarIndex().classNames()) {
+                if (!sharedClasses.contains(className)) {
+                    classOwners.remove(className, loader);
+                    continue;
+                }
+                // Another plugin may contain the same class, such as a shaded library
+                PluginClassLoader next = null;
+                int containing = 0;
+                for (PluginClassLoader other : loaders) {
+                    if (other.getJarIndex().contains(className)) {
+                        if (next == null) {
+                            next = other;
+                        }
+                        containing++;
+                    }
+                }
+                if (next == null) {
+                    classOwners.remove(className, loader);
+                } else {
+                    classOwners.replace(className, loader, next);
+                }
+                if (containing <= 1) {
+                    sharedClasses.remove(className);
+                }
+            }
+        }
+    }
+    // Solar end
+
     void setClass(final String name, final Class<?> clazz) {
-        if (!classes.containsKey(name)) {
-            classes.put(name, clazz);
+        if (classes.putIfAbsent(name, clazz) == null) { // Solar - plugins may be loaded concurrently
 
             if (ConfigurationSerializable.class.isAssignableFrom(clazz)) {
                 Class<? extends ConfigurationSerializable> serializable = clazz.asSubclass(ConfigurationSerializable.class);
@@ -315,7 +425,7 @@ public class JavaPluginLoader implements PluginLoader { // Solar - non-final, se
             if (jPlugin.getClassLoader() instanceof PluginClassLoader pluginLoader) {
 
             if (!loaders.contains(pluginLoader)) {
-                loaders.add(pluginLoader);
+                addLoader(pluginLoader); // Solar
                 server.getLogger().log(Level.WARNING, "Enabled plugin with unregistered PluginClassLoader " + plugin.getDescription().getFullName());
             }
             }
@@ -363,7 +473,7 @@ public class JavaPluginLoader implements PluginLoader { // Solar - non-final, se
 
             if (cloader instanceof PluginClassLoader) {
                 PluginClassLoader loader = (PluginClassLoader) cloader;
-                loaders.remove(loader);
+                removeLoader(loader); // Solar
 
                 Set<String> names = loader.getClasses();
 
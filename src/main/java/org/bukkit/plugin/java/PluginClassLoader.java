@@ -33,6 +33,10 @@ public final class PluginClassLoader extends URLClassLoader { // Spigot
     private final JarFile jar;
     private final Manifest manifest;
     private final URL url;
+    // Solar start
+    private final JarIndex jarIndex;
+    private final boolean hasClassPath; // the jar may refer to classes outside of it
+    // Solar end
     final JavaPlugin plugin;
     private JavaPlugin pluginInit;
     private IllegalStateException pluginState;
@@ -56,6 +60,10 @@ public final class PluginClassLoader extends URLClassLoader { // Spigot
         this.jar = new JarFile(file);
         this.manifest = jar.getManifest();
         this.url = file.toURI().toURL();
+        // Solar start
+        this.jarIndex = JarIndex.index(jar);
+        this.hasClassPath = manifest != null && manifest.getMainAttributes().containsKey(java.util.jar.Attributes.Name.CLASS_PATH);
+        // Solar end
 
         this.logger = com.destroystokyo.paper.utils.PaperPluginLogger.getLogger(description); // Paper - Register logger early
 
@@ -101,7 +109,20 @@ public final class PluginClassLoader extends URLClassLoader { // Spigot
                 result = loader.getClassByName(name);
             }
 
+            // Solar start - skip the jar entirely for classes it does not contain
+            // The index only covers the jar itself, not the jars on its Class-Path
+            if (result == null && !hasClassPath && !jarIndex.contains(name)) {
+                throw new ClassNotFoundException(name);
+            }
+            // Solar end
             if (result == null) {
+                // Solar start - plugins may be loaded concurrently, so another thread may be defining this class
+                synchronized (getClassLoadingLock(name)) {
+                Class<?> defined = classes.get(name);
+                if (defined != null) {
+                    return defined;
+                }
+                // Solar end
                 String path = name.replace('.', '/').concat(".class");
                 JarEntry entry = jar.getJarEntry(path);
 
@@ -145,6 +166,10 @@ public final class PluginClassLoader extends URLClassLoader { // Spigot
                 if (result != null) {
                     loader.setClass(name, result);
                 }
+
+                classes.put(name, result); // Solar - moved into lock
+                return result; // Solar
+                } // Solar
             }
 
             classes.put(name, result);
@@ -166,6 +191,16 @@ public final class PluginClassLoader extends URLClassLoader { // Spigot
         return classes.keySet();
     }
 
+    // Solar start
+    JarIndex getJarIndex() {
+        return jarIndex;
+    }
+
+    boolean hasClassPath() {
+        return hasClassPath;
+    }
+    // Solar end
+
     synchronized void initialize(JavaPlugin javaPlugin) {
         Validate.notNull(javaPlugin, "Initializing plugin cannot be null");
         Validate.isTrue(javaPlugin.getClass().getClassLoader() == this, "Cannot initialize plugin outside of this class loader");
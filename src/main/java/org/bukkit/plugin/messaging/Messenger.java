@@ -1,5 +1,8 @@
 package org.bukkit.plugin.messaging;
 
+import java.nio.ByteBuffer; // Solar
+import java.util.Collections; // Solar
+import java.util.Map; // Solar
 import java.util.Set;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
@@ -213,4 +216,109 @@ public interface Messenger {
      * @param message Raw payload of the message.
      */
     public void dispatchIncomingMessage(Player source, String channel, byte[] message);
+
+    // Solar start
+    /**
+     * Dispatches the specified incoming message to any registered listeners,
+     * with the message as a buffer.
+     * <p>
+     * The buffer may be a view of the received packet, which only needs to
+     * remain valid until this method returns. Its position is not changed.
+     * The default implementation copies it into an array for
+     * {@link #dispatchIncomingMessage(Player, String, byte[])}.
+     *
+     * @param source Source of the message.
+     * @param channel Channel that the message was sent by.
+     * @param message Buffer whose remaining bytes are the payload of the
+     *     message.
+     */
+    public default void dispatchIncomingMessage(Player source, String channel, ByteBuffer message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+
+        byte[] bytes = new byte[message.remaining()];
+        message.duplicate().get(bytes);
+        dispatchIncomingMessage(source, channel, bytes);
+    }
+
+    /**
+     * Queues a Plugin Message to be sent to a recipient, together with the
+     * other messages queued for it by the same plugin on the same channel.
+     * <p>
+     * The queued messages are sent as {@link PluginMessageBatch}es, when
+     * {@link #flushQueuedPluginMessages()} is called at the end of the tick,
+     * or earlier if they would not fit into a single plugin message. The
+     * receiver must split the batches into the messages again. The default
+     * implementation sends a batch of this message alone at once.
+     *
+     * @param source The plugin that sent this message.
+     * @param recipient The recipient of this message.
+     * @param channel The channel to send this message on.
+     * @param message The raw message to send.
+     * @throws IllegalArgumentException Thrown if the source plugin is
+     *     disabled.
+     * @throws IllegalArgumentException Thrown if source, recipient, channel
+     *     or message is null.
+     * @throws MessageTooLargeException Thrown if the message is larger than
+     *     {@link PluginMessageBatch#MAX_ENTRY_SIZE}.
+     * @throws ChannelNotRegisteredException Thrown if the channel is not
+     *     registered for this plugin.
+     */
+    public default void queuePluginMessage(Plugin source, PluginMessageRecipient recipient, String channel, byte[] message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+
+        queuePluginMessage(source, recipient, channel, ByteBuffer.wrap(message));
+    }
+
+    /**
+     * Queues a Plugin Message held by a buffer to be sent to a recipient, as
+     * {@link #queuePluginMessage(Plugin, PluginMessageRecipient, String, byte[])}
+     * does.
+     * <p>
+     * The remaining bytes of the buffer are copied into the batch, so the
+     * buffer may be reused once this method returns.
+     *
+     * @param source The plugin that sent this message.
+     * @param recipient The recipient of this message.
+     * @param channel The channel to send this message on.
+     * @param message The buffer holding the message.
+     * @throws IllegalArgumentException Thrown if the source plugin is
+     *     disabled.
+     * @throws IllegalArgumentException Thrown if source, recipient, channel
+     *     or message is null.
+     * @throws MessageTooLargeException Thrown if the message is larger than
+     *     {@link PluginMessageBatch#MAX_ENTRY_SIZE}.
+     * @throws ChannelNotRegisteredException Thrown if the channel is not
+     *     registered for this plugin.
+     */
+    public default void queuePluginMessage(Plugin source, PluginMessageRecipient recipient, String channel, ByteBuffer message) {
+        if (recipient == null) {
+            throw new IllegalArgumentException("Recipient cannot be null");
+        }
+        StandardMessenger.validatePluginMessage(this, source, channel, message);
+
+        recipient.sendPluginMessage(source, channel, PluginMessageBatch.of(message));
+    }
+
+    /**
+     * Sends all queued Plugin Messages.
+     * <p>
+     * This is called by the server at the end of every tick.
+     */
+    public default void flushQueuedPluginMessages() {
+    }
+
+    /**
+     * Gets the counts of the messages handled on each channel.
+     *
+     * @return Immutable map of the channels to their counts, which is empty
+     *     if this messenger does not count messages.
+     */
+    public default Map<String, PluginChannelStatistics> getChannelStatistics() {
+        return Collections.emptyMap();
+    }
+    // Solar end
 }
@@ -0,0 +1,134 @@
+package org.bukkit.plugin.messaging;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Coalesces the messages queued by a {@link StandardMessenger} into
+ * {@link PluginMessageBatch}es, one per plugin, recipient and channel.
+ * <p>
+ * A batch is sent when it is flushed, or when the next message would not
+ * fit into it. Batches keep their buffers between flushes while they are
+ * used, and are discarded after a flush in which they were empty.
+ */
+// Solar - whole class
+final class OutgoingMessageQueue {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final StandardMessenger messenger;
+    private final ConcurrentMap<Key, Batch> batches = new ConcurrentHashMap<>();
+
+    OutgoingMessageQueue(StandardMessenger messenger) {
+        this.messenger = messenger;
+    }
+
+    void queue(Plugin source, PluginMessageRecipient recipient, String channel, ByteBuffer message) {
+        if (message.remaining() > PluginMessageBatch.MAX_ENTRY_SIZE) {
+            throw new MessageTooLargeException(message.remaining());
+        }
+
+        Key key = new Key(source, recipient, channel);
+        while (true) {
+            Batch batch = batches.computeIfAbsent(key, Batch::new);
+            synchronized (batch) {
+                if (batch.discarded) {
+                    // Discarded by a concurrent flush
+                    continue;
+                }
+                if (!batch.fits(message.remaining())) {
+                    send(batch);
+                }
+                batch.append(message);
+            }
+            messenger.getCounters(channel).outgoing(message.remaining());
+            return;
+        }
+    }
+
+    void flush() {
+        for (Batch batch : batches.values()) {
+            synchronized (batch) {
+                if (batch.length == 0) {
+                    batch.discarded = true;
+                    batches.remove(batch.key, batch);
+                } else {
+                    send(batch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the queued messages of a plugin, which can no longer send
+     * them
+     */
+    void discard(Plugin source) {
+        discard(source, null);
+    }
+
+    /**
+     * Discards the queued messages of a plugin on a channel it unregistered
+     *
+     * @param source the plugin
+     * @param channel the channel, or null to discard all of its channels
+     */
+    void discard(Plugin source, String channel) {
+        for (Batch batch : batches.values()) {
+            if (batch.key.source().equals(source) && (channel == null || batch.key.channel().equals(channel))) {
+                synchronized (batch) {
+                    batch.discarded = true;
+                    batches.remove(batch.key, batch);
+                }
+            }
+        }
+    }
+
+    private void send(Batch batch) {
+        Key key = batch.key;
+        try {
+            key.recipient().sendPluginMessage(key.source(), key.channel(), ByteBuffer.wrap(batch.buffer, 0, batch.length).asReadOnlyBuffer());
+            messenger.getCounters(key.channel()).outgoingPacket();
+        } catch (RuntimeException ex) {
+            key.source().getLogger().log(Level.WARNING,
+                String.format("Plugin %s could not send queued plugin messages on channel %s",
+                    key.source().getDescription().getFullName(), key.channel()
+                ), ex);
+        } finally {
+            batch.length = 0;
+        }
+    }
+
+    private record Key(Plugin source, PluginMessageRecipient recipient, String channel) {
+    }
+
+    private static final class Batch {
+        private final Key key;
+        private byte[] buffer = new byte[INITIAL_CAPACITY];
+        private int length;
+        private boolean discarded;
+
+        Batch(Key key) {
+            this.key = key;
+        }
+
+        boolean fits(int size) {
+            return length + PluginMessageBatch.sizeOf(size) + size <= Messenger.MAX_MESSAGE_SIZE;
+        }
+
+        void append(ByteBuffer message) {
+            int size = message.remaining();
+            int required = length + PluginMessageBatch.sizeOf(size) + size;
+            if (required > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length * 2, required), Messenger.MAX_MESSAGE_SIZE));
+            }
+            length = PluginMessageBatch.writeLength(buffer, length, size);
+            message.duplicate().get(buffer, length, size);
+            length += size;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package org.bukkit.plugin.messaging;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Calls {@link RpcMethod}s on the other side of a plugin channel, usually a
+ * proxy, and handles the calls it makes in turn.
+ * <p>
+ * Any number of calls to any number of methods may be outstanding on a
+ * channel at once. Requests and responses are queued with
+ * {@link Messenger#queuePluginMessage(Plugin, PluginMessageRecipient, String, byte[])},
+ * so those made within a tick are sent together at its end, and each plugin
+ * message on the channel is a {@link PluginMessageBatch} of frames. A frame
+ * starts with its kind as a byte and the id of the call as an int, chosen by
+ * the caller from a random start:
+ * <ul>
+ * <li>0, a request, is followed by the name of the method in modified UTF-8
+ *     and the request as written by its codec.
+ * <li>1, a response, is followed by the response as written by its codec.
+ * <li>2, a failure, is followed by its message in modified UTF-8.
+ * </ul>
+ * <p>
+ * Responses and failures are only accepted from the player a call was made
+ * through. Calls made through another recipient, such as the server, accept
+ * them from any player.
+ * <p>
+ * Calls complete on the thread dispatching their responses, except for
+ * those which time out.
+ */
+// Solar - whole class
+public final class PluginChannelRpc implements AutoCloseable {
+
+    private static final byte REQUEST = 0;
+    private static final byte RESPONSE = 1;
+    private static final byte FAILURE = 2;
+    private static final int MAX_FAILURE_LENGTH = 1024;
+
+    private final Plugin plugin;
+    private final Messenger messenger;
+    private final String channel;
+    private final PluginMessageListener listener;
+    private final AtomicInteger nextId = new AtomicInteger(ThreadLocalRandom.current().nextInt());
+    private final ConcurrentMap<Integer, PendingCall<?>> pendingCalls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Handler<?, ?>> handlers = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private PluginChannelRpc(Plugin plugin, Messenger messenger, String channel) {
+        this.plugin = plugin;
+        this.messenger = messenger;
+        this.channel = channel;
+        this.listener = PluginMessageBatch.unbatching((PluginMessageBufferListener) this::receive);
+    }
+
+    /**
+     * Opens a channel for calls, registering it in both directions for the
+     * plugin
+     *
+     * @param plugin Plugin making and handling the calls
+     * @param messenger Messenger to register the channel with
+     * @param channel Name of the channel, which is used for calls only
+     * @return The opened channel
+     * @throws IllegalArgumentException if plugin, messenger or channel is
+     *     null
+     * @throws ReservedChannelException if the channel is reserved
+     */
+    public static PluginChannelRpc open(Plugin plugin, Messenger messenger, String channel) {
+        if (plugin == null) {
+            throw new IllegalArgumentException("Plugin cannot be null");
+        }
+        if (messenger == null) {
+            throw new IllegalArgumentException("Messenger cannot be null");
+        }
+
+        PluginChannelRpc rpc = new PluginChannelRpc(plugin, messenger, channel);
+        messenger.registerIncomingPluginChannel(plugin, channel, rpc.listener);
+        messenger.registerOutgoingPluginChannel(plugin, channel);
+        return rpc;
+    }
+
+    /**
+     * Gets the name of the channel.
+     *
+     * @return Name of the channel.
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Gets the number of calls waiting for their responses.
+     *
+     * @return Number of outstanding calls.
+     */
+    public int getPendingCalls() {
+        return pendingCalls.size();
+    }
+
+    /**
+     * Handles the calls to a method made by the other side
+     *
+     * @param <Q> Type of the requests
+     * @param <R> Type of the responses
+     * @param method The method
+     * @param handler Handler of its requests
+     * @throws IllegalArgumentException if method or handler is null, or if
+     *     a method of the same name is already handled
+     */
+    public <Q, R> void handle(RpcMethod<Q, R> method, RpcHandler<Q, R> handler) {
+        if (method == null) {
+            throw new IllegalArgumentException("Method cannot be null");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Handler cannot be null");
+        }
+
+        if (handlers.putIfAbsent(method.getName(), new Handler<Q, R>(method, handler)) != null) {
+            throw new IllegalArgumentException("Method " + method.getName() + " is already handled");
+        }
+    }
+
+    /**
+     * Calls a method on the other side of a connection.
+     * <p>
+     * The request is sent with the next flush of queued plugin messages. The
+     * returned future completes with the response, or exceptionally with an
+     * {@link RpcException} if the call failed on the other side, with a
+     * {@link java.util.concurrent.TimeoutException} if no response arrived
+     * in time, or with an {@link IllegalStateException} if this channel is
+     * closed first. Completing it beforehand, for example by cancelling it,
+     * abandons the call.
+     *
+     * @param <Q> Type of the request
+     * @param <R> Type of the response
+     * @param recipient Connection to send the request through
+     * @param method The method
+     * @param request The request
+     * @param timeout Time to wait for the response
+     * @return a future completing with the response
+     * @throws IllegalArgumentException if recipient, method or timeout is
+     *     null, or if the plugin is disabled
+     * @throws IllegalStateException if this channel is closed
+     * @throws MessageTooLargeException if the request is too large for a
+     *     plugin message
+     */
+    public <Q, R> CompletableFuture<R> call(PluginMessageRecipient recipient, RpcMethod<Q, R> method, Q request, Duration timeout) {
+        if (recipient == null) {
+            throw new IllegalArgumentException("Recipient cannot be null");
+        }
+        if (method == null) {
+            throw new IllegalArgumentException("Method cannot be null");
+        }
+        if (timeout == null) {
+            throw new IllegalArgumentException("Timeout cannot be null");
+        }
+        if (closed) {
+            throw new IllegalStateException("Channel " + channel + " is closed");
+        }
+
+        int id = nextId.getAndIncrement();
+        byte[] frame;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeByte(REQUEST);
+            output.writeInt(id);
+            output.writeUTF(method.getName());
+            method.getRequestCodec().write(output, request);
+            frame = bytes.toByteArray();
+        } catch (IOException | RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        PendingCall<R> call = new PendingCall<R>(recipient, method.getResponseCodec());
+        pendingCalls.put(id, call);
+        call.whenComplete((response, ex) -> pendingCalls.remove(id, call));
+        try {
+            messenger.queuePluginMessage(plugin, recipient, channel, frame);
+        } catch (RuntimeException ex) {
+            pendingCalls.remove(id, call);
+            throw ex;
+        }
+        if (closed) {
+            // Raced with close, which may not have seen the call
+            call.completeExceptionally(new IllegalStateException("Channel " + channel + " is closed"));
+        }
+        return call.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Closes this channel, unregistering it and failing the outstanding
+     * calls. Calls received afterwards are not handled.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        messenger.unregisterIncomingPluginChannel(plugin, channel, listener);
+        messenger.unregisterOutgoingPluginChannel(plugin, channel);
+        for (PendingCall<?> call : pendingCalls.values()) {
+            call.completeExceptionally(new IllegalStateException("Channel " + channel + " is closed"));
+        }
+    }
+
+    private void receive(String channel, Player player, ByteBuffer message) {
+        byte[] bytes = new byte[message.remaining()];
+        message.get(bytes);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            byte kind = input.readByte();
+            int id = input.readInt();
+            switch (kind) {
+                case REQUEST:
+                    receiveRequest(player, id, input);
+                    break;
+                case RESPONSE:
+                    PendingCall<?> call = removePendingCall(player, id);
+                    if (call != null) {
+                        call.receive(input);
+                    }
+                    break;
+                case FAILURE:
+                    PendingCall<?> failed = removePendingCall(player, id);
+                    if (failed != null) {
+                        failed.completeExceptionally(new RpcException(input.readUTF()));
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown kind of frame " + kind);
+            }
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.WARNING,
+                String.format("Plugin %s received a malformed frame on channel %s from %s",
+                    plugin.getDescription().getFullName(), channel, player.getName()
+                ), ex);
+        }
+    }
+
+    /**
+     * Removes the call a response is for, unless it was made through another
+     * player than the one the response came from
+     */
+    private PendingCall<?> removePendingCall(Player player, int id) {
+        PendingCall<?> call = pendingCalls.get(id);
+        if (call == null || !call.isFrom(player)) {
+            return null;
+        }
+        return pendingCalls.remove(id, call) ? call : null;
+    }
+
+    private void receiveRequest(Player player, int id, DataInputStream input) throws IOException {
+        if (closed) {
+            return;
+        }
+        String name = input.readUTF();
+        Handler<?, ?> handler = handlers.get(name);
+        if (handler == null) {
+            fail(player, id, new RpcException("Method " + name + " is not handled on channel " + channel));
+            return;
+        }
+        handler.handle(this, player, id, input);
+    }
+
+    private void fail(Player player, int id, Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        String message = String.valueOf(failure.getMessage());
+        if (message.length() > MAX_FAILURE_LENGTH) {
+            message = message.substring(0, MAX_FAILURE_LENGTH);
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeByte(FAILURE);
+            output.writeInt(id);
+            output.writeUTF(message);
+            send(player, bytes.toByteArray());
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private <R> void respond(Player player, int id, RpcMethod<?, R> method, R response, Throwable failure) {
+        if (failure != null) {
+            fail(player, id, failure);
+            return;
+        }
+
+        byte[] frame;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeByte(RESPONSE);
+            output.writeInt(id);
+            method.getResponseCodec().write(output, response);
+            frame = bytes.toByteArray();
+        } catch (IOException | RuntimeException ex) {
+            fail(player, id, ex);
+            return;
+        }
+        if (frame.length > PluginMessageBatch.MAX_ENTRY_SIZE) {
+            fail(player, id, new MessageTooLargeException(frame.length));
+            return;
+        }
+        send(player, frame);
+    }
+
+    private void send(Player player, byte[] frame) {
+        try {
+            messenger.queuePluginMessage(plugin, player, channel, frame);
+        } catch (RuntimeException ex) {
+            plugin.getLogger().log(Level.WARNING,
+                String.format("Plugin %s could not respond to a call on channel %s",
+                    plugin.getDescription().getFullName(), channel
+                ), ex);
+        }
+    }
+
+    private static final class Handler<Q, R> {
+        private final RpcMethod<Q, R> method;
+        private final RpcHandler<Q, R> handler;
+
+        Handler(RpcMethod<Q, R> method, RpcHandler<Q, R> handler) {
+            this.method = method;
+            this.handler = handler;
+        }
+
+        void handle(PluginChannelRpc rpc, Player player, int id, DataInputStream input) {
+            CompletionStage<R> response;
+            try {
+                response = handler.handle(player, method.getRequestCodec().read(input));
+            } catch (IOException | RuntimeException ex) {
+                rpc.fail(player, id, ex);
+                return;
+            }
+            if (response == null) {
+                rpc.fail(player, id, new RpcException("Handler of " + method.getName() + " returned no response"));
+                return;
+            }
+            response.whenComplete((value, ex) -> rpc.respond(player, id, method, value, ex));
+        }
+    }
+
+    private static final class PendingCall<R> extends CompletableFuture<R> {
+        private final PluginMessageRecipient recipient;
+        private final RpcCodec<R> codec;
+
+        PendingCall(PluginMessageRecipient recipient, RpcCodec<R> codec) {
+            this.recipient = recipient;
+            this.codec = codec;
+        }
+
+        boolean isFrom(Player player) {
+            return !(recipient instanceof Player) || recipient.equals(player);
+        }
+
+        void receive(DataInputStream input) {
+            R response;
+            try {
+                response = codec.read(input);
+            } catch (IOException | RuntimeException ex) {
+                completeExceptionally(ex);
+                return;
+            }
+            complete(response);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.bukkit.plugin.messaging;
+
+/**
+ * Counts of the plugin messages a {@link Messenger} has handled on a
+ * channel.
+ * <p>
+ * Incoming messages are those dispatched to listeners. Outgoing messages
+ * are those queued by
+ * {@link Messenger#queuePluginMessage(org.bukkit.plugin.Plugin, PluginMessageRecipient, String, byte[])},
+ * and outgoing packets the batches they were sent in, so that the ratio of
+ * the two shows how well they were coalesced. Messages sent directly to a
+ * {@link PluginMessageRecipient} are not counted.
+ *
+ * @param incomingMessages Number of messages dispatched
+ * @param incomingBytes Total size of the messages dispatched
+ * @param outgoingMessages Number of messages queued
+ * @param outgoingBytes Total size of the messages queued, without framing
+ * @param outgoingPackets Number of batches sent
+ */
+// Solar - whole class
+public record PluginChannelStatistics(long incomingMessages, long incomingBytes,
+                                      long outgoingMessages, long outgoingBytes, long outgoingPackets) {
+}
@@ -0,0 +1,124 @@
+package org.bukkit.plugin.messaging;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * The format of the plugin messages sent by
+ * {@link Messenger#queuePluginMessage(org.bukkit.plugin.Plugin, PluginMessageRecipient, String, ByteBuffer)},
+ * which hold several messages each.
+ * <p>
+ * Each message in a batch is prefixed by its length, as a VarInt in the
+ * same encoding as the lengths of the Minecraft protocol. A batch may hold a
+ * single message, so every message on a channel used for batches must be
+ * split again by the receiver, for example by registering a listener wrapped
+ * by {@link #unbatching(PluginMessageListener)}.
+ */
+// Solar - whole class
+public final class PluginMessageBatch {
+
+    /**
+     * Represents the largest size that a message within a batch may be,
+     * leaving room for its length within {@link Messenger#MAX_MESSAGE_SIZE}.
+     */
+    public static final int MAX_ENTRY_SIZE = Messenger.MAX_MESSAGE_SIZE - 3;
+
+    private PluginMessageBatch() {}
+
+    /**
+     * Creates a batch holding a single message
+     *
+     * @param message Buffer whose remaining bytes are the message
+     * @return The batch
+     * @throws MessageTooLargeException if the message is larger than
+     *     {@link #MAX_ENTRY_SIZE}
+     */
+    public static ByteBuffer of(ByteBuffer message) {
+        if (message.remaining() > MAX_ENTRY_SIZE) {
+            throw new MessageTooLargeException(message.remaining());
+        }
+
+        byte[] batch = new byte[sizeOf(message.remaining()) + message.remaining()];
+        int position = writeLength(batch, 0, message.remaining());
+        message.duplicate().get(batch, position, message.remaining());
+        return ByteBuffer.wrap(batch);
+    }
+
+    /**
+     * Splits a batch into its messages
+     *
+     * @param batch Buffer whose remaining bytes are the batch, which is not
+     *     changed
+     * @param action Receives each message as a read-only view of the batch
+     * @throws IllegalArgumentException if the batch is malformed
+     */
+    public static void forEach(ByteBuffer batch, Consumer<ByteBuffer> action) {
+        ByteBuffer input = batch.asReadOnlyBuffer();
+        while (input.hasRemaining()) {
+            int length = readLength(input);
+            if (length > input.remaining()) {
+                throw new IllegalArgumentException("Message of " + length + " bytes exceeds the batch, which has " + input.remaining() + " bytes left");
+            }
+
+            ByteBuffer message = input.slice();
+            message.limit(length);
+            input.position(input.position() + length);
+            action.accept(message);
+        }
+    }
+
+    /**
+     * Wraps a listener, so that it receives each message of the batches
+     * received on its channel.
+     * <p>
+     * Listeners of arrays receive a copy of each message, while those
+     * overriding
+     * {@link PluginMessageListener#onPluginMessageReceived(String, org.bukkit.entity.Player, ByteBuffer)}
+     * receive views of the batch.
+     *
+     * @param listener The listener of the messages
+     * @return The listener of the batches
+     */
+    public static PluginMessageBufferListener unbatching(PluginMessageListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+
+        return (channel, player, batch) -> forEach(batch, (message) -> listener.onPluginMessageReceived(channel, player, message));
+    }
+
+    static int sizeOf(int length) {
+        int size = 1;
+        while ((length >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    static int writeLength(byte[] output, int position, int length) {
+        while ((length & ~0x7F) != 0) {
+            output[position++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        output[position++] = (byte) length;
+        return position;
+    }
+
+    private static int readLength(ByteBuffer input) {
+        int length = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!input.hasRemaining()) {
+                throw new IllegalArgumentException("Batch ends within the length of a message");
+            }
+            byte next = input.get();
+            length |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                if (length < 0) {
+                    throw new IllegalArgumentException("Negative message length " + length);
+                }
+                return length;
+            }
+        }
+        throw new IllegalArgumentException("Length of a message is longer than 5 bytes");
+    }
+}
@@ -0,0 +1,33 @@
+package org.bukkit.plugin.messaging;
+
+import java.nio.ByteBuffer;
+import org.bukkit.entity.Player;
+
+/**
+ * A {@link PluginMessageListener} which receives messages as read-only
+ * buffers rather than arrays.
+ * <p>
+ * Messages dispatched as buffers are passed on without being copied. The
+ * buffer may be a view of the received packet, so it must not be used after
+ * {@link #onPluginMessageReceived(String, Player, ByteBuffer)} returns.
+ */
+// Solar - whole class
+@FunctionalInterface
+public interface PluginMessageBufferListener extends PluginMessageListener {
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, ByteBuffer message);
+
+    /**
+     * Wraps the message in a read-only buffer for
+     * {@link #onPluginMessageReceived(String, Player, ByteBuffer)}.
+     *
+     * @param channel Channel that the message was sent through.
+     * @param player Source of the message.
+     * @param message The raw message that was sent.
+     */
+    @Override
+    public default void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        onPluginMessageReceived(channel, player, ByteBuffer.wrap(message).asReadOnlyBuffer());
+    }
+}
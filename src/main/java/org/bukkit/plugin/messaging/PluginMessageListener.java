@@ -1,5 +1,6 @@
 package org.bukkit.plugin.messaging;
 
+import java.nio.ByteBuffer; // Solar
 import org.bukkit.entity.Player;
 
 /**
@@ -17,4 +18,26 @@ public interface PluginMessageListener {
      * @param message The raw message that was sent.
      */
     public void onPluginMessageReceived(String channel, Player player, byte[] message);
+
+    // Solar start
+    /**
+     * A method that will be thrown when a PluginMessageSource sends a plugin
+     * message on a registered channel, with the message as a read-only
+     * buffer.
+     * <p>
+     * The buffer may be a view of the received packet, which is only valid
+     * until this method returns. The default implementation copies it into
+     * an array for {@link #onPluginMessageReceived(String, Player, byte[])}.
+     *
+     * @param channel Channel that the message was sent through.
+     * @param player Source of the message.
+     * @param message The remaining bytes of the buffer are the message.
+     * @see PluginMessageBufferListener
+     */
+    public default void onPluginMessageReceived(String channel, Player player, ByteBuffer message) {
+        byte[] bytes = new byte[message.remaining()];
+        message.duplicate().get(bytes);
+        onPluginMessageReceived(channel, player, bytes);
+    }
+    // Solar end
 }
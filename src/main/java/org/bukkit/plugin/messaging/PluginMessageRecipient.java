@@ -1,5 +1,6 @@
 package org.bukkit.plugin.messaging;
 
+import java.nio.ByteBuffer; // Solar
 import java.util.Set;
 import org.bukkit.plugin.Plugin;
 
@@ -28,6 +29,41 @@ public interface PluginMessageRecipient {
      */
     public void sendPluginMessage(Plugin source, String channel, byte[] message);
 
+    // Solar start
+    /**
+     * Sends this recipient a Plugin Message on the specified outgoing
+     * channel, consisting of the remaining bytes of a buffer.
+     * <p>
+     * The position of the buffer is not changed, and the buffer may be
+     * reused once this method returns. Implementations may write the bytes
+     * directly into the outgoing packet, rather than copying them into an
+     * array first as the default implementation does.
+     *
+     * @param source The plugin that sent this message.
+     * @param channel The channel to send this message on.
+     * @param message The buffer holding the message.
+     * @throws IllegalArgumentException Thrown if the source plugin is
+     *     disabled.
+     * @throws IllegalArgumentException Thrown if source, channel or message
+     *     is null.
+     * @throws MessageTooLargeException Thrown if the message is too big.
+     * @throws ChannelNotRegisteredException Thrown if the channel is not
+     *     registered for this plugin.
+     */
+    public default void sendPluginMessage(Plugin source, String channel, ByteBuffer message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        if (message.remaining() > Messenger.MAX_MESSAGE_SIZE) {
+            throw new MessageTooLargeException(message.remaining());
+        }
+
+        byte[] bytes = new byte[message.remaining()];
+        message.duplicate().get(bytes);
+        sendPluginMessage(source, channel, bytes);
+    }
+    // Solar end
+
     /**
      * Gets a set containing all the Plugin Channels that this client is
      * listening on.
@@ -0,0 +1,190 @@
+package org.bukkit.plugin.messaging;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Writes and reads the requests or responses of an {@link RpcMethod}.
+ *
+ * @param <T> Type of the values
+ */
+// Solar - whole class
+public interface RpcCodec<T> {
+
+    /**
+     * Writes a value
+     *
+     * @param output The output to write to
+     * @param value The value
+     * @throws IOException if the value could not be written
+     */
+    void write(DataOutput output, T value) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(DataOutput, Object)}
+     *
+     * @param input The input to read from
+     * @return The value
+     * @throws IOException if the value could not be read
+     */
+    T read(DataInput input) throws IOException;
+
+    /**
+     * Creates a codec of values converted to and from the values of this
+     * codec
+     *
+     * @param <U> Type of the converted values
+     * @param to Converts values read by this codec
+     * @param from Converts values to be written by this codec
+     * @return The codec of the converted values
+     */
+    default <U> RpcCodec<U> map(Function<? super T, ? extends U> to, Function<? super U, ? extends T> from) {
+        RpcCodec<T> codec = this;
+        return of((output, value) -> codec.write(output, from.apply(value)), (input) -> to.apply(codec.read(input)));
+    }
+
+    /**
+     * Creates a codec from a writer and a reader
+     *
+     * @param <T> Type of the values
+     * @param writer Writes values
+     * @param reader Reads values
+     * @return The codec
+     */
+    static <T> RpcCodec<T> of(Writer<T> writer, Reader<T> reader) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Writer cannot be null");
+        }
+        if (reader == null) {
+            throw new IllegalArgumentException("Reader cannot be null");
+        }
+
+        return new RpcCodec<T>() {
+            @Override
+            public void write(DataOutput output, T value) throws IOException {
+                writer.write(output, value);
+            }
+
+            @Override
+            public T read(DataInput input) throws IOException {
+                return reader.read(input);
+            }
+        };
+    }
+
+    /**
+     * Gets the codec of no value, which writes nothing and reads null
+     *
+     * @return The codec
+     */
+    static RpcCodec<Void> none() {
+        return of((output, value) -> {}, (input) -> null);
+    }
+
+    /**
+     * Gets the codec of strings, as modified UTF-8
+     *
+     * @return The codec
+     */
+    static RpcCodec<String> string() {
+        return of(DataOutput::writeUTF, DataInput::readUTF);
+    }
+
+    /**
+     * Gets the codec of booleans
+     *
+     * @return The codec
+     */
+    static RpcCodec<Boolean> bool() {
+        return of(DataOutput::writeBoolean, DataInput::readBoolean);
+    }
+
+    /**
+     * Gets the codec of integers
+     *
+     * @return The codec
+     */
+    static RpcCodec<Integer> integer() {
+        return of(DataOutput::writeInt, DataInput::readInt);
+    }
+
+    /**
+     * Gets the codec of longs
+     *
+     * @return The codec
+     */
+    static RpcCodec<Long> longInteger() {
+        return of(DataOutput::writeLong, DataInput::readLong);
+    }
+
+    /**
+     * Gets the codec of UUIDs
+     *
+     * @return The codec
+     */
+    static RpcCodec<UUID> uuid() {
+        return of((output, value) -> {
+            output.writeLong(value.getMostSignificantBits());
+            output.writeLong(value.getLeastSignificantBits());
+        }, (input) -> new UUID(input.readLong(), input.readLong()));
+    }
+
+    /**
+     * Gets the codec of byte arrays, prefixed by their length
+     *
+     * @return The codec
+     */
+    static RpcCodec<byte[]> bytes() {
+        return of((output, value) -> {
+            output.writeInt(value.length);
+            output.write(value);
+        }, (input) -> {
+            int length = input.readInt();
+            if (length < 0 || length > Messenger.MAX_MESSAGE_SIZE) {
+                throw new IOException("Invalid length " + length);
+            }
+            byte[] value = new byte[length];
+            input.readFully(value);
+            return value;
+        });
+    }
+
+    /**
+     * Writes a value
+     *
+     * @param <T> Type of the values
+     */
+    @FunctionalInterface
+    interface Writer<T> {
+
+        /**
+         * Writes a value
+         *
+         * @param output The output to write to
+         * @param value The value
+         * @throws IOException if the value could not be written
+         */
+        void write(DataOutput output, T value) throws IOException;
+    }
+
+    /**
+     * Reads a value
+     *
+     * @param <T> Type of the values
+     */
+    @FunctionalInterface
+    interface Reader<T> {
+
+        /**
+         * Reads a value
+         *
+         * @param input The input to read from
+         * @return The value
+         * @throws IOException if the value could not be read
+         */
+        T read(DataInput input) throws IOException;
+    }
+}
@@ -0,0 +1,13 @@
+package org.bukkit.plugin.messaging;
+
+/**
+ * Thrown if a call over a {@link PluginChannelRpc} fails on the side which
+ * handles it.
+ */
+// Solar - whole class
+@SuppressWarnings("serial")
+public class RpcException extends RuntimeException {
+    public RpcException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package org.bukkit.plugin.messaging;
+
+import java.util.concurrent.CompletionStage;
+import org.bukkit.entity.Player;
+
+/**
+ * Handles the requests to an {@link RpcMethod} received by a
+ * {@link PluginChannelRpc}.
+ *
+ * @param <Q> Type of the requests
+ * @param <R> Type of the responses
+ */
+// Solar - whole class
+@FunctionalInterface
+public interface RpcHandler<Q, R> {
+
+    /**
+     * Handles a request.
+     * <p>
+     * This is called on the thread dispatching the plugin message, and the
+     * response is sent to the caller once the returned stage completes. Any
+     * {@link CompletionStage} may be returned, including the
+     * {@code ReactionStage}s of the data center. If the stage completes
+     * exceptionally, the call fails with an {@link RpcException} holding the
+     * message of the exception.
+     *
+     * @param source Player whose connection carried the request
+     * @param request The request
+     * @return a stage completing with the response
+     */
+    CompletionStage<R> handle(Player source, Q request);
+}
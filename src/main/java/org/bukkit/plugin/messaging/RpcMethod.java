@@ -0,0 +1,77 @@
+package org.bukkit.plugin.messaging;
+
+/**
+ * A procedure which may be called over a {@link PluginChannelRpc}, known to
+ * both sides by its name.
+ *
+ * @param <Q> Type of the requests
+ * @param <R> Type of the responses
+ */
+// Solar - whole class
+public final class RpcMethod<Q, R> {
+    private final String name;
+    private final RpcCodec<Q> requestCodec;
+    private final RpcCodec<R> responseCodec;
+
+    private RpcMethod(String name, RpcCodec<Q> requestCodec, RpcCodec<R> responseCodec) {
+        this.name = name;
+        this.requestCodec = requestCodec;
+        this.responseCodec = responseCodec;
+    }
+
+    /**
+     * Creates a method
+     *
+     * @param <Q> Type of the requests
+     * @param <R> Type of the responses
+     * @param name Name of the method, which is unique within a channel
+     * @param requestCodec Codec of the requests
+     * @param responseCodec Codec of the responses
+     * @return The method
+     */
+    public static <Q, R> RpcMethod<Q, R> of(String name, RpcCodec<Q> requestCodec, RpcCodec<R> responseCodec) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty");
+        }
+        if (requestCodec == null) {
+            throw new IllegalArgumentException("Request codec cannot be null");
+        }
+        if (responseCodec == null) {
+            throw new IllegalArgumentException("Response codec cannot be null");
+        }
+
+        return new RpcMethod<Q, R>(name, requestCodec, responseCodec);
+    }
+
+    /**
+     * Gets the name of this method.
+     *
+     * @return Name of the method.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the codec of the requests.
+     *
+     * @return Codec of the requests.
+     */
+    public RpcCodec<Q> getRequestCodec() {
+        return requestCodec;
+    }
+
+    /**
+     * Gets the codec of the responses.
+     *
+     * @return Codec of the responses.
+     */
+    public RpcCodec<R> getResponseCodec() {
+        return responseCodec;
+    }
+
+    @Override
+    public String toString() {
+        return "RpcMethod{" + name + "}";
+    }
+}
@@ -1,11 +1,16 @@
 package org.bukkit.plugin.messaging;
 
+import com.google.common.collect.ImmutableMap; // Solar
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import java.nio.ByteBuffer; // Solar
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap; // Solar
+import java.util.concurrent.ConcurrentMap; // Solar
+import java.util.concurrent.atomic.LongAdder; // Solar
 import java.util.logging.Level;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
@@ -17,9 +22,73 @@ public class StandardMessenger implements Messenger {
     private final Map<String, Set<PluginMessageListenerRegistration>> incomingByChannel = new HashMap<String, Set<PluginMessageListenerRegistration>>();
     private final Map<Plugin, Set<PluginMessageListenerRegistration>> incomingByPlugin = new HashMap<Plugin, Set<PluginMessageListenerRegistration>>();
     private final Map<String, Set<Plugin>> outgoingByChannel = new HashMap<String, Set<Plugin>>();
-    private final Map<Plugin, Set<String>> outgoingByPlugin = new HashMap<Plugin, Set<String>>();
+    private final ConcurrentMap<Plugin, Set<String>> outgoingByPlugin = new ConcurrentHashMap<Plugin, Set<String>>(); // Solar - immutable sets, read without locking
     private final Object incomingLock = new Object();
     private final Object outgoingLock = new Object();
+    // Solar start - copy-on-write registrations by channel, read without locking
+    private static final PluginMessageListenerRegistration[] NO_REGISTRATIONS = new PluginMessageListenerRegistration[0];
+    private final ConcurrentMap<String, PluginMessageListenerRegistration[]> incomingListeners = new ConcurrentHashMap<String, PluginMessageListenerRegistration[]>();
+
+    /**
+     * Republishes the registrations of a channel, while holding the incoming
+     * lock
+     */
+    private void publishIncoming(String channel, Set<PluginMessageListenerRegistration> registrations) {
+        if (registrations == null || registrations.isEmpty()) {
+            incomingListeners.remove(channel);
+        } else {
+            incomingListeners.put(channel, registrations.toArray(NO_REGISTRATIONS));
+        }
+    }
+    // Solar end
+    // Solar start - batched outgoing messages and statistics
+    private final OutgoingMessageQueue outgoingQueue = new OutgoingMessageQueue(this);
+    private final ConcurrentMap<String, ChannelCounters> counters = new ConcurrentHashMap<String, ChannelCounters>();
+
+    ChannelCounters getCounters(String channel) {
+        ChannelCounters result = counters.get(channel);
+        return (result != null) ? result : counters.computeIfAbsent(channel, (key) -> new ChannelCounters());
+    }
+
+    static final class ChannelCounters {
+        private final LongAdder incomingMessages = new LongAdder();
+        private final LongAdder incomingBytes = new LongAdder();
+        private final LongAdder outgoingMessages = new LongAdder();
+        private final LongAdder outgoingBytes = new LongAdder();
+        private final LongAdder outgoingPackets = new LongAdder();
+
+        void incoming(int bytes) {
+            incomingMessages.increment();
+            incomingBytes.add(bytes);
+        }
+
+        void outgoing(int bytes) {
+            outgoingMessages.increment();
+            outgoingBytes.add(bytes);
+        }
+
+        void outgoingPacket() {
+            outgoingPackets.increment();
+        }
+
+        PluginChannelStatistics snapshot() {
+            return new PluginChannelStatistics(incomingMessages.sum(), incomingBytes.sum(),
+                outgoingMessages.sum(), outgoingBytes.sum(), outgoingPackets.sum());
+        }
+    }
+    // Solar end
+    // Solar start - pass buffers on to the listeners which override the method receiving them
+    private static final ClassValue<Boolean> RECEIVES_BUFFERS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("onPluginMessageReceived", String.class, Player.class, ByteBuffer.class).getDeclaringClass() != PluginMessageListener.class;
+            } catch (NoSuchMethodException ex) {
+                throw new AssertionError(ex);
+            }
+        }
+    };
+    // Solar end
 
     private void addToOutgoing(Plugin plugin, String channel) {
         synchronized (outgoingLock) {
@@ -31,13 +100,14 @@ public class StandardMessenger implements Messenger {
                 outgoingByChannel.put(channel, plugins);
             }
 
+            plugins.add(plugin);
+            // Solar start
             if (channels == null) {
-                channels = new HashSet<String>();
-                outgoingByPlugin.put(plugin, channels);
+                outgoingByPlugin.put(plugin, ImmutableSet.of(channel));
+            } else if (!channels.contains(channel)) {
+                outgoingByPlugin.put(plugin, ImmutableSet.<String>builder().addAll(channels).add(channel).build());
             }
-
-            plugins.add(plugin);
-            channels.add(channel);
+            // Solar end
         }
     }
 
@@ -54,13 +124,21 @@ public class StandardMessenger implements Messenger {
                 }
             }
 
-            if (channels != null) {
-                channels.remove(channel);
-
-                if (channels.isEmpty()) {
-                    outgoingByChannel.remove(channel);
+            // Solar start
+            if (channels != null && channels.contains(channel)) {
+                if (channels.size() == 1) {
+                    outgoingByPlugin.remove(plugin);
+                } else {
+                    Builder<String> builder = ImmutableSet.builder();
+                    for (String other : channels) {
+                        if (!other.equals(channel)) {
+                            builder.add(other);
+                        }
+                    }
+                    outgoingByPlugin.put(plugin, builder.build());
                 }
             }
+            // Solar end
         }
     }
 
@@ -69,11 +147,8 @@ public class StandardMessenger implements Messenger {
             Set<String> channels = outgoingByPlugin.get(plugin);
 
             if (channels != null) {
-                String[] toRemove = channels.toArray(new String[channels.size()]);
-
-                outgoingByPlugin.remove(plugin);
-
-                for (String channel : toRemove) {
+                // Solar - the set is immutable, so it needs no copy
+                for (String channel : channels) {
                     removeFromOutgoing(plugin, channel);
                 }
             }
@@ -94,6 +169,7 @@ public class StandardMessenger implements Messenger {
             }
 
             registrations.add(registration);
+            publishIncoming(registration.getChannel(), registrations); // Solar
 
             registrations = incomingByPlugin.get(registration.getPlugin());
 
@@ -120,6 +196,7 @@ public class StandardMessenger implements Messenger {
                 if (registrations.isEmpty()) {
                     incomingByChannel.remove(registration.getChannel());
                 }
+                publishIncoming(registration.getChannel(), registrations); // Solar
             }
 
             registrations = incomingByPlugin.get(registration.getPlugin());
@@ -181,7 +258,7 @@ public class StandardMessenger implements Messenger {
             throw new ReservedChannelException(channel);
         }
 
-        addToOutgoing(plugin, channel);
+        addToOutgoing(plugin, channel.intern()); // Solar - intern channels, which are compared on every send
     }
 
     public void unregisterOutgoingPluginChannel(Plugin plugin, String channel) {
@@ -191,6 +268,7 @@ public class StandardMessenger implements Messenger {
         validateChannel(channel);
 
         removeFromOutgoing(plugin, channel);
+        outgoingQueue.discard(plugin, channel); // Solar
     }
 
     public void unregisterOutgoingPluginChannel(Plugin plugin) {
@@ -199,6 +277,7 @@ public class StandardMessenger implements Messenger {
         }
 
         removeFromOutgoing(plugin);
+        outgoingQueue.discard(plugin); // Solar - a plugin whose channels are unregistered cannot send its queued messages
     }
 
     public PluginMessageListenerRegistration registerIncomingPluginChannel(Plugin plugin, String channel, PluginMessageListener listener) {
@@ -213,7 +292,7 @@ public class StandardMessenger implements Messenger {
             throw new IllegalArgumentException("Listener cannot be null");
         }
 
-        PluginMessageListenerRegistration result = new PluginMessageListenerRegistration(this, plugin, channel, listener);
+        PluginMessageListenerRegistration result = new PluginMessageListenerRegistration(this, plugin, channel.intern(), listener); // Solar - intern channels, which are compared on every dispatch
 
         addToIncoming(result);
 
@@ -261,22 +340,19 @@ public class StandardMessenger implements Messenger {
             throw new IllegalArgumentException("Plugin cannot be null");
         }
 
-        synchronized (outgoingLock) {
-            Set<String> channels = outgoingByPlugin.get(plugin);
+        // Solar start - read without locking
+        Set<String> channels = outgoingByPlugin.get(plugin);
 
-            if (channels != null) {
-                return ImmutableSet.copyOf(channels);
-            } else {
-                return ImmutableSet.of();
-            }
+        if (channels != null) {
+            return channels;
+        } else {
+            return ImmutableSet.of();
         }
+        // Solar end
     }
 
     public Set<String> getIncomingChannels() {
-        synchronized (incomingLock) {
-            Set<String> keys = incomingByChannel.keySet();
-            return ImmutableSet.copyOf(keys);
-        }
+        return ImmutableSet.copyOf(incomingListeners.keySet()); // Solar - read without locking
     }
 
     public Set<String> getIncomingChannels(Plugin plugin) {
@@ -320,15 +396,7 @@ public class StandardMessenger implements Messenger {
     public Set<PluginMessageListenerRegistration> getIncomingChannelRegistrations(String channel) {
         validateChannel(channel);
 
-        synchronized (incomingLock) {
-            Set<PluginMessageListenerRegistration> registrations = incomingByChannel.get(channel);
-
-            if (registrations != null) {
-                return ImmutableSet.copyOf(registrations);
-            } else {
-                return ImmutableSet.of();
-            }
-        }
+        return ImmutableSet.copyOf(incomingListeners.getOrDefault(channel, NO_REGISTRATIONS)); // Solar - read without locking
     }
 
     public Set<PluginMessageListenerRegistration> getIncomingChannelRegistrations(Plugin plugin, String channel) {
@@ -399,15 +467,15 @@ public class StandardMessenger implements Messenger {
         }
         validateChannel(channel);
 
-        synchronized (outgoingLock) {
-            Set<String> channels = outgoingByPlugin.get(plugin);
-
-            if (channels != null) {
-                return channels.contains(channel);
-            }
+        // Solar start - read without locking
+        Set<String> channels = outgoingByPlugin.get(plugin);
 
-            return false;
+        if (channels != null) {
+            return channels.contains(channel);
         }
+
+        return false;
+        // Solar end
     }
 
     public void dispatchIncomingMessage(Player source, String channel, byte[] message) {
@@ -419,7 +487,12 @@ public class StandardMessenger implements Messenger {
         }
         validateChannel(channel);
 
-        Set<PluginMessageListenerRegistration> registrations = getIncomingChannelRegistrations(channel);
+        // Solar start - iterate the published array, without locking or copying
+        PluginMessageListenerRegistration[] registrations = incomingListeners.getOrDefault(channel, NO_REGISTRATIONS);
+        if (registrations.length != 0) {
+            getCounters(channel).incoming(message.length);
+        }
+        // Solar end
 
         for (PluginMessageListenerRegistration registration : registrations) {
             try {
@@ -433,6 +506,77 @@ public class StandardMessenger implements Messenger {
         }
     }
 
+    // Solar start
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Listeners which override
+     * {@link PluginMessageListener#onPluginMessageReceived(String, Player, ByteBuffer)}
+     * receive read-only views of the buffer. The message is copied into an
+     * array at most once, for the remaining listeners.
+     */
+    @Override
+    public void dispatchIncomingMessage(Player source, String channel, ByteBuffer message) {
+        if (source == null) {
+            throw new IllegalArgumentException("Player source cannot be null");
+        }
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        validateChannel(channel);
+
+        PluginMessageListenerRegistration[] registrations = incomingListeners.getOrDefault(channel, NO_REGISTRATIONS);
+        if (registrations.length != 0) {
+            getCounters(channel).incoming(message.remaining());
+        }
+
+        byte[] bytes = null;
+        for (PluginMessageListenerRegistration registration : registrations) {
+            PluginMessageListener listener = registration.getListener();
+            try {
+                if (RECEIVES_BUFFERS.get(listener.getClass())) {
+                    listener.onPluginMessageReceived(channel, source, message.asReadOnlyBuffer());
+                } else {
+                    if (bytes == null) {
+                        bytes = new byte[message.remaining()];
+                        message.duplicate().get(bytes);
+                    }
+                    listener.onPluginMessageReceived(channel, source, bytes);
+                }
+            } catch (Throwable t) {
+                registration.getPlugin().getLogger().log(Level.WARNING,
+                    String.format("Plugin %s generated an exception whilst handling plugin message",
+                        registration.getPlugin().getDescription().getFullName()
+                    ), t);
+            }
+        }
+    }
+
+    @Override
+    public void queuePluginMessage(Plugin source, PluginMessageRecipient recipient, String channel, ByteBuffer message) {
+        if (recipient == null) {
+            throw new IllegalArgumentException("Recipient cannot be null");
+        }
+        validatePluginMessage(this, source, channel, message);
+
+        outgoingQueue.queue(source, recipient, channel, message);
+    }
+
+    @Override
+    public void flushQueuedPluginMessages() {
+        outgoingQueue.flush();
+    }
+
+    @Override
+    public Map<String, PluginChannelStatistics> getChannelStatistics() {
+        ImmutableMap.Builder<String, PluginChannelStatistics> builder = ImmutableMap.builder();
+        for (Map.Entry<String, ChannelCounters> entry : counters.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return builder.build();
+    }
+    // Solar end
+
     /**
      * Validates a Plugin Channel name.
      *
@@ -486,4 +630,46 @@ public class StandardMessenger implements Messenger {
         }
         validateChannel(channel);
     }
+
+    // Solar start
+    /**
+     * Validates the input of a Plugin Message held by a buffer, ensuring the
+     * arguments are all valid.
+     *
+     * @param messenger Messenger to use for validation.
+     * @param source Source plugin of the Message.
+     * @param channel Plugin Channel to send the message by.
+     * @param message Buffer whose remaining bytes are the payload to send.
+     * @throws IllegalArgumentException Thrown if the source plugin is
+     *     disabled.
+     * @throws IllegalArgumentException Thrown if source, channel or message
+     *     is null.
+     * @throws MessageTooLargeException Thrown if the message is too big.
+     * @throws ChannelNameTooLongException Thrown if the channel name is too
+     *     long.
+     * @throws ChannelNotRegisteredException Thrown if the channel is not
+     *     registered for this plugin.
+     */
+    public static void validatePluginMessage(Messenger messenger, Plugin source, String channel, ByteBuffer message) {
+        if (messenger == null) {
+            throw new IllegalArgumentException("Messenger cannot be null");
+        }
+        if (source == null) {
+            throw new IllegalArgumentException("Plugin source cannot be null");
+        }
+        if (!source.isEnabled()) {
+            throw new IllegalArgumentException("Plugin must be enabled to send messages");
+        }
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        if (!messenger.isOutgoingChannelRegistered(source, channel)) {
+            throw new ChannelNotRegisteredException(channel);
+        }
+        if (message.remaining() > Messenger.MAX_MESSAGE_SIZE) {
+            throw new MessageTooLargeException(message.remaining());
+        }
+        validateChannel(channel);
+    }
+    // Solar end
 }
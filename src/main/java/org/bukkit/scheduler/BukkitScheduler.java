@@ -5,6 +5,15 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 import java.util.List;
 
+/**
+ * Schedules tasks for plugins.
+ * <p>
+ * Implementations should keep scheduling and cancellation of individual
+ * delayed tasks constant time, and {@link #cancelTasks(Plugin)} proportional
+ * to the plugin's own pending tasks, since plugins may keep very large
+ * numbers of delayed tasks pending at once. The server's scheduler uses
+ * a hierarchical timing wheel for this purpose.
+ */
 public interface BukkitScheduler {
 
     /**
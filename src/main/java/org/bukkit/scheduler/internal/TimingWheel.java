@@ -0,0 +1,332 @@
+package org.bukkit.scheduler.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A hierarchical timing wheel keyed by server tick, intended as the pending
+ * queue of a {@link org.bukkit.scheduler.BukkitScheduler} implementation.
+ * <p>
+ * Scheduling and cancelling a timer are O(1). Expiring timers is amortized
+ * O(1) per timer: each timer is cascaded at most once per wheel level on its
+ * way down to the lowest level. Timers are additionally indexed by owner, so
+ * that {@link #cancelAll(Object, Consumer)} only visits the owner's own timers
+ * rather than everything pending.
+ * <p>
+ * The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots, which
+ * covers the full range of a {@code long} tick, so no overflow list is
+ * needed. Timers which expire on the same tick are returned in the order they
+ * were scheduled.
+ * <p>
+ * This class is not thread safe. Callers must confine it to a single thread
+ * or guard it with their own lock.
+ *
+ * @param <O> the owner type, typically the plugin
+ * @param <T> the timer payload, typically the scheduled task
+ */
+public final class TimingWheel<O, T> {
+
+    private static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    /**
+     * Slot lists, as {@code heads[level * SLOTS + slot]}. Each list is a
+     * doubly linked list with the tail reachable through {@code head.prev}
+     */
+    @SuppressWarnings("unchecked")
+    private final Timer<O, T>[] heads = new Timer[LEVELS * SLOTS];
+    private final Map<O, Timer<O, T>> owners = new HashMap<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a timing wheel starting at the given tick
+     *
+     * @param currentTick the current tick
+     */
+    public TimingWheel(long currentTick) {
+        Validate.isTrue(currentTick >= 0, "Tick cannot be negative");
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * Gets the tick this wheel has advanced to
+     *
+     * @return the current tick
+     */
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Gets the number of pending timers
+     *
+     * @return the pending timer count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a timer. A delay of less than 1 is treated as 1, that is,
+     * the timer expires on the next call to {@link #advance(Consumer)}
+     *
+     * @param owner the owner of the timer
+     * @param value the payload
+     * @param delay the delay in ticks
+     * @return the timer, which may be passed to {@link #cancel(Timer)}
+     */
+    public Timer<O, T> schedule(O owner, T value, long delay) {
+        Validate.notNull(owner, "Owner cannot be null");
+        Validate.notNull(value, "Value cannot be null");
+        long deadline = currentTick + Math.max(delay, 1L);
+        if (deadline < 0) {
+            // Overflow
+            deadline = Long.MAX_VALUE;
+        }
+        Timer<O, T> timer = new Timer<>(this, owner, value, deadline);
+        insert(timer);
+        Timer<O, T> ownerHead = owners.get(owner);
+        if (ownerHead != null) {
+            timer.ownerNext = ownerHead;
+            ownerHead.ownerPrev = timer;
+        }
+        owners.put(owner, timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Cancels a timer if it is still pending
+     *
+     * @param timer the timer
+     * @return true if cancelled, false if it already expired or was cancelled
+     */
+    public boolean cancel(Timer<O, T> timer) {
+        if (timer.wheel != this) {
+            return false;
+        }
+        unlinkSlot(timer);
+        unlinkOwner(timer);
+        timer.wheel = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Cancels all pending timers of the specified owner
+     *
+     * @param owner the owner
+     * @param action an action to run for each cancelled payload
+     * @return the number of cancelled timers
+     */
+    public int cancelAll(O owner, Consumer<? super T> action) {
+        Timer<O, T> first = owners.remove(owner);
+        // Cancel every timer before running any action, so that actions may
+        // freely schedule and cancel timers
+        int count = 0;
+        for (Timer<O, T> timer = first; timer != null; timer = timer.ownerNext) {
+            unlinkSlot(timer);
+            timer.wheel = null;
+            size--;
+            count++;
+        }
+        Timer<O, T> timer = first;
+        while (timer != null) {
+            Timer<O, T> next = timer.ownerNext;
+            timer.ownerPrev = timer.ownerNext = null;
+            action.accept(timer.value);
+            timer = next;
+        }
+        return count;
+    }
+
+    /**
+     * Advances the wheel by a single tick, passing every timer due on the
+     * new tick to the given action. Every timer due on the new tick has
+     * expired before the first action runs
+     *
+     * @param action the action to run for each expired payload
+     * @return the number of expired timers
+     */
+    public int advance(Consumer<? super T> action) {
+        long tick = ++currentTick;
+        // Cascade from the highest affected level downward, so that timers
+        // moved out of an upper level may be cascaded again on this tick
+        int level = 0;
+        while (level + 1 < LEVELS && (tick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            int index = level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timer<O, T> timer = heads[index];
+            heads[index] = null;
+            while (timer != null) {
+                Timer<O, T> next = timer.next;
+                timer.next = timer.prev = null;
+                insert(timer);
+                timer = next;
+            }
+        }
+        int index = (int) (tick & SLOT_MASK);
+        Timer<O, T> first = heads[index];
+        heads[index] = null;
+        // Expire the whole slot before running any action, so that actions
+        // may freely schedule and cancel timers. A timer of this slot has
+        // already expired, even if an earlier action tries to cancel it
+        int count = 0;
+        for (Timer<O, T> timer = first; timer != null; timer = timer.next) {
+            unlinkOwner(timer);
+            timer.wheel = null;
+            size--;
+            count++;
+        }
+        Timer<O, T> timer = first;
+        while (timer != null) {
+            Timer<O, T> next = timer.next;
+            timer.next = timer.prev = null;
+            action.accept(timer.value);
+            timer = next;
+        }
+        return count;
+    }
+
+    /**
+     * Advances the wheel tick by tick until the given tick is reached
+     *
+     * @param tick the tick to advance to
+     * @param action the action to run for each expired payload
+     * @return the number of expired timers
+     */
+    public int advanceTo(long tick, Consumer<? super T> action) {
+        int count = 0;
+        while (currentTick < tick) {
+            count += advance(action);
+        }
+        return count;
+    }
+
+    private void insert(Timer<O, T> timer) {
+        long deadline = timer.deadline;
+        long diff = deadline ^ currentTick;
+        int level = (diff == 0) ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+        int index = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        timer.slot = index;
+        Timer<O, T> head = heads[index];
+        if (head == null) {
+            timer.prev = timer;
+            heads[index] = timer;
+        } else {
+            Timer<O, T> tail = head.prev;
+            tail.next = timer;
+            timer.prev = tail;
+            head.prev = timer;
+        }
+    }
+
+    private void unlinkSlot(Timer<O, T> timer) {
+        int index = timer.slot;
+        Timer<O, T> head = heads[index];
+        Timer<O, T> next = timer.next;
+        if (timer == head) {
+            heads[index] = next;
+            if (next != null) {
+                next.prev = timer.prev;
+            }
+        } else {
+            timer.prev.next = next;
+            if (next == null) {
+                head.prev = timer.prev;
+            } else {
+                next.prev = timer.prev;
+            }
+        }
+        timer.next = timer.prev = null;
+    }
+
+    private void unlinkOwner(Timer<O, T> timer) {
+        Timer<O, T> prev = timer.ownerPrev;
+        Timer<O, T> next = timer.ownerNext;
+        if (prev == null) {
+            if (next == null) {
+                owners.remove(timer.owner);
+            } else {
+                owners.put(timer.owner, next);
+            }
+        } else {
+            prev.ownerNext = next;
+        }
+        if (next != null) {
+            next.ownerPrev = prev;
+        }
+        timer.ownerPrev = timer.ownerNext = null;
+    }
+
+    /**
+     * A timer pending in a {@link TimingWheel}
+     *
+     * @param <O> the owner type
+     * @param <T> the payload type
+     */
+    public static final class Timer<O, T> {
+
+        private TimingWheel<O, T> wheel;
+        private final O owner;
+        private final T value;
+        private final long deadline;
+        private int slot;
+        private Timer<O, T> prev;
+        private Timer<O, T> next;
+        private Timer<O, T> ownerPrev;
+        private Timer<O, T> ownerNext;
+
+        Timer(TimingWheel<O, T> wheel, O owner, T value, long deadline) {
+            this.wheel = wheel;
+            this.owner = owner;
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Gets the owner of this timer
+         *
+         * @return the owner
+         */
+        public O owner() {
+            return owner;
+        }
+
+        /**
+         * Gets the payload of this timer
+         *
+         * @return the payload
+         */
+        public T value() {
+            return value;
+        }
+
+        /**
+         * Gets the tick on which this timer expires
+         *
+         * @return the deadline tick
+         */
+        public long deadline() {
+            return deadline;
+        }
+
+        /**
+         * Whether this timer is still pending, that is, has neither expired
+         * nor been cancelled
+         *
+         * @return true if pending
+         */
+        public boolean isPending() {
+            return wheel != null;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.bukkit.util.noise;
 
+import java.lang.reflect.Method; // Solar
+import java.util.Arrays; // Solar
+import org.apache.commons.lang3.Validate; // Solar
+
 /**
  * Base class for all noise generators
  */
@@ -8,6 +12,29 @@ public abstract class NoiseGenerator {
     protected double offsetX;
     protected double offsetY;
     protected double offsetZ;
+    // Solar start - bulk noise
+    private static final double[] ZERO = {0};
+    private static final ClassValue<Class<?>[]> NOISE_DECLARERS = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            try {
+                Method noise2D = type.getMethod("noise", double.class, double.class);
+                Method noise3D = type.getMethod("noise", double.class, double.class, double.class);
+                return new Class<?>[] {noise2D.getDeclaringClass(), noise3D.getDeclaringClass()};
+            } catch (NoSuchMethodException ex) {
+                throw new AssertionError(ex);
+            }
+        }
+    };
+
+    /**
+     * Whether bulk noise is computed with {@link VectorizedNoise}, which
+     * requires the server to be started with
+     * {@code --add-modules jdk.incubator.vector}. Setting the system property
+     * {@code org.bukkit.util.noise.disableVectorization} to true disables it.
+     */
+    static final boolean VECTORIZED = isVectorized();
+    // Solar end
 
     /**
      * Speedy floor, faster than (int)Math.floor(x)
@@ -173,4 +200,244 @@ public abstract class NoiseGenerator {
 
         return result;
     }
+
+    // Solar start - bulk noise
+    /**
+     * Computes the 2D noise for a grid of coordinates in 2D space, filling an
+     * array.
+     * <p>
+     * The noise at {@code (x + i * stepX, y + j * stepY)} is stored at index
+     * {@code i * sizeY + j} of the output, for every i below sizeX and j below
+     * sizeY, and is the same as that returned by {@link #noise(double, double)}.
+     *
+     * @param output Array to store the noise in
+     * @param x X coordinate of the first sample
+     * @param y Y coordinate of the first sample
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param sizeX Number of samples along the X axis
+     * @param sizeY Number of samples along the Y axis
+     */
+    public void noise(double[] output, double x, double y, double stepX, double stepY, int sizeX, int sizeY) {
+        int size = validateGrid(output, sizeX, sizeY, 1);
+
+        Arrays.fill(output, 0, size, 0);
+        addNoise(output, grid(x, stepX, sizeX, 1), grid(y, stepY, sizeY, 1), 1);
+    }
+
+    /**
+     * Computes the 3D noise for a grid of coordinates in 3D space, filling an
+     * array.
+     * <p>
+     * The noise at {@code (x + i * stepX, y + j * stepY, z + k * stepZ)} is
+     * stored at index {@code (i * sizeZ + k) * sizeY + j} of the output, so
+     * that each column along the Y axis is contiguous, and is the same as
+     * that returned by {@link #noise(double, double, double)}.
+     *
+     * @param output Array to store the noise in
+     * @param x X coordinate of the first sample
+     * @param y Y coordinate of the first sample
+     * @param z Z coordinate of the first sample
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @param sizeX Number of samples along the X axis
+     * @param sizeY Number of samples along the Y axis
+     * @param sizeZ Number of samples along the Z axis
+     */
+    public void noise(double[] output, double x, double y, double z, double stepX, double stepY, double stepZ, int sizeX, int sizeY, int sizeZ) {
+        int size = validateGrid(output, sizeX, sizeY, sizeZ);
+
+        Arrays.fill(output, 0, size, 0);
+        addNoise(output, grid(x, stepX, sizeX, 1), grid(y, stepY, sizeY, 1), grid(z, stepZ, sizeZ, 1), 1);
+    }
+
+    /**
+     * Generates noise for a grid of 2D coordinates using the specified number
+     * of octaves and parameters, filling an array in the layout of
+     * {@link #noise(double[], double, double, double, double, int, int)}.
+     * <p>
+     * Each value is the same as that returned by
+     * {@link #noise(double, double, int, double, double, boolean)}.
+     *
+     * @param output Array to store the noise in
+     * @param x X coordinate of the first sample
+     * @param y Y coordinate of the first sample
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param sizeX Number of samples along the X axis
+     * @param sizeY Number of samples along the Y axis
+     * @param octaves Number of octaves to use
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     */
+    public void noise(double[] output, double x, double y, double stepX, double stepY, int sizeX, int sizeY, int octaves, double frequency, double amplitude, boolean normalized) {
+        int size = validateGrid(output, sizeX, sizeY, 1);
+
+        addOctaves(output, size, repeat(octaves), grid(x, stepX, sizeX, 1), grid(y, stepY, sizeY, 1), ZERO, frequency, amplitude, normalized);
+    }
+
+    /**
+     * Generates noise for a grid of 3D coordinates using the specified number
+     * of octaves and parameters, filling an array in the layout of
+     * {@link #noise(double[], double, double, double, double, double, double, int, int, int)}.
+     * <p>
+     * Each value is the same as that returned by
+     * {@link #noise(double, double, double, int, double, double, boolean)}.
+     *
+     * @param output Array to store the noise in
+     * @param x X coordinate of the first sample
+     * @param y Y coordinate of the first sample
+     * @param z Z coordinate of the first sample
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @param sizeX Number of samples along the X axis
+     * @param sizeY Number of samples along the Y axis
+     * @param sizeZ Number of samples along the Z axis
+     * @param octaves Number of octaves to use
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     */
+    public void noise(double[] output, double x, double y, double z, double stepX, double stepY, double stepZ, int sizeX, int sizeY, int sizeZ, int octaves, double frequency, double amplitude, boolean normalized) {
+        int size = validateGrid(output, sizeX, sizeY, sizeZ);
+
+        addOctaves(output, size, repeat(octaves), grid(x, stepX, sizeX, 1), grid(y, stepY, sizeY, 1), grid(z, stepZ, sizeZ, 1), frequency, amplitude, normalized);
+    }
+
+    /**
+     * Adds the 2D noise at every pair of coordinates, multiplied by an
+     * amplitude, to an array.
+     * <p>
+     * The noise at {@code (xs[i], ys[j])} is added to index
+     * {@code i * ys.length + j}. Generators override this to share work
+     * between neighbouring samples; the default implementation calls
+     * {@link #noise(double, double)} for each.
+     *
+     * @param output Array to add the noise to
+     * @param xs X coordinates
+     * @param ys Y coordinates
+     * @param amplitude Factor of the noise
+     */
+    protected void addNoise(double[] output, double[] xs, double[] ys, double amplitude) {
+        int index = 0;
+        for (double x : xs) {
+            for (double y : ys) {
+                output[index++] += noise(x, y) * amplitude;
+            }
+        }
+    }
+
+    /**
+     * Adds the 3D noise at every triple of coordinates, multiplied by an
+     * amplitude, to an array.
+     * <p>
+     * The noise at {@code (xs[i], ys[j], zs[k])} is added to index
+     * {@code (i * zs.length + k) * ys.length + j}. Generators override this
+     * to share work between neighbouring samples; the default implementation
+     * calls {@link #noise(double, double, double)} for each.
+     *
+     * @param output Array to add the noise to
+     * @param xs X coordinates
+     * @param ys Y coordinates
+     * @param zs Z coordinates
+     * @param amplitude Factor of the noise
+     */
+    protected void addNoise(double[] output, double[] xs, double[] ys, double[] zs, double amplitude) {
+        int index = 0;
+        for (double x : xs) {
+            for (double z : zs) {
+                for (double y : ys) {
+                    output[index++] += noise(x, y, z) * amplitude;
+                }
+            }
+        }
+    }
+
+    private static boolean isVectorized() {
+        if (Boolean.getBoolean("org.bukkit.util.noise.disableVectorization")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorizedNoise.isSupported();
+        } catch (LinkageError ex) {
+            // The incubating API differs from the one compiled against
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the 2D or 3D noise of this generator is the one
+     * declared by a class, so that its bulk methods compute the same noise.
+     */
+    final boolean isNoiseDeclaredBy(Class<?> declarer, int dimensions) {
+        return NOISE_DECLARERS.get(getClass())[dimensions - 2] == declarer;
+    }
+
+    private NoiseGenerator[] repeat(int octaves) {
+        Validate.isTrue(octaves >= 0, "Number of octaves cannot be negative");
+        NoiseGenerator[] result = new NoiseGenerator[octaves];
+        Arrays.fill(result, this);
+        return result;
+    }
+
+    static int validateGrid(double[] output, int sizeX, int sizeY, int sizeZ) {
+        Validate.isTrue(output != null, "Output cannot be null");
+        Validate.isTrue(sizeX >= 0 && sizeY >= 0 && sizeZ >= 0, "Sizes cannot be negative");
+        long size = (long) sizeX * sizeY * sizeZ;
+        Validate.isTrue(size <= output.length, "Output of length %d cannot hold %d values", output.length, size);
+        return (int) size;
+    }
+
+    /**
+     * Computes the coordinates of the samples along an axis, in the same
+     * order of operations as the single sample methods.
+     */
+    static double[] grid(double start, double step, int size, double scale) {
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = (start + i * step) * scale;
+        }
+        return result;
+    }
+
+    static void addOctaves(double[] output, int size, NoiseGenerator[] octaves, double[] baseX, double[] baseY, double[] baseZ, double frequency, double amplitude, boolean normalized) {
+        Arrays.fill(output, 0, size, 0);
+        if (size == 0) {
+            return;
+        }
+
+        double[] xs = new double[baseX.length];
+        double[] ys = new double[baseY.length];
+        double[] zs = new double[baseZ.length];
+        double amp = 1;
+        double freq = 1;
+        double max = 0;
+
+        for (NoiseGenerator octave : octaves) {
+            scale(baseX, freq, xs);
+            scale(baseY, freq, ys);
+            scale(baseZ, freq, zs);
+            octave.addNoise(output, xs, ys, zs, amp);
+            max += amp;
+            freq *= frequency;
+            amp *= amplitude;
+        }
+
+        if (normalized) {
+            for (int i = 0; i < size; i++) {
+                output[i] /= max;
+            }
+        }
+    }
+
+    private static void scale(double[] coordinates, double frequency, double[] result) {
+        for (int i = 0; i < coordinates.length; i++) {
+            result[i] = coordinates[i] * frequency;
+        }
+    }
+    // Solar end
 }
@@ -196,4 +196,66 @@ public abstract class OctaveGenerator {
 
         return result;
     }
+
+    // Solar start - bulk noise
+    /**
+     * Generates noise for a grid of 2D coordinates using the specified
+     * parameters, filling an array.
+     * <p>
+     * The noise at {@code (x + i * stepX, y + j * stepY)} is stored at index
+     * {@code i * sizeY + j} of the output, for every i below sizeX and j below
+     * sizeY, and is the same as that returned by
+     * {@link #noise(double, double, double, double, boolean)}.
+     *
+     * @param output Array to store the noise in
+     * @param x X coordinate of the first sample
+     * @param y Y coordinate of the first sample
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param sizeX Number of samples along the X axis
+     * @param sizeY Number of samples along the Y axis
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     */
+    public void noise(double[] output, double x, double y, double stepX, double stepY, int sizeX, int sizeY, double frequency, double amplitude, boolean normalized) {
+        int size = NoiseGenerator.validateGrid(output, sizeX, sizeY, 1);
+
+        NoiseGenerator.addOctaves(output, size, octaves,
+            NoiseGenerator.grid(x, stepX, sizeX, xScale), NoiseGenerator.grid(y, stepY, sizeY, yScale), new double[] {0 * zScale},
+            frequency, amplitude, normalized);
+    }
+
+    /**
+     * Generates noise for a grid of 3D coordinates using the specified
+     * parameters, filling an array.
+     * <p>
+     * The noise at {@code (x + i * stepX, y + j * stepY, z + k * stepZ)} is
+     * stored at index {@code (i * sizeZ + k) * sizeY + j} of the output, so
+     * that each column along the Y axis is contiguous, and is the same as
+     * that returned by
+     * {@link #noise(double, double, double, double, double, boolean)}.
+     *
+     * @param output Array to store the noise in
+     * @param x X coordinate of the first sample
+     * @param y Y coordinate of the first sample
+     * @param z Z coordinate of the first sample
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @param sizeX Number of samples along the X axis
+     * @param sizeY Number of samples along the Y axis
+     * @param sizeZ Number of samples along the Z axis
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     */
+    public void noise(double[] output, double x, double y, double z, double stepX, double stepY, double stepZ, int sizeX, int sizeY, int sizeZ, double frequency, double amplitude, boolean normalized) {
+        int size = NoiseGenerator.validateGrid(output, sizeX, sizeY, sizeZ);
+
+        NoiseGenerator.addOctaves(output, size, octaves,
+            NoiseGenerator.grid(x, stepX, sizeX, xScale), NoiseGenerator.grid(y, stepY, sizeY, yScale), NoiseGenerator.grid(z, stepZ, sizeZ, zScale),
+            frequency, amplitude, normalized);
+    }
+    // Solar end
 }
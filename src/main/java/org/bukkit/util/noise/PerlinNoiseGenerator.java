@@ -170,6 +170,92 @@ public class PerlinNoiseGenerator extends NoiseGenerator {
                         grad(perm[BB + 1], x - 1, y - 1, z - 1))));
     }
 
+    // Solar start - bulk noise
+    @Override
+    protected void addNoise(double[] output, double[] xs, double[] ys, double amplitude) {
+        if (isNoiseDeclaredBy(NoiseGenerator.class, 2)) {
+            // The 2D noise is the 3D noise at z = 0
+            addNoise(output, xs, ys, new double[] {0}, amplitude);
+        } else {
+            super.addNoise(output, xs, ys, amplitude);
+        }
+    }
+
+    /**
+     * Adds the noise of each column along the Y axis, computing the fade
+     * curves of X and Z once per column and hashing the corners of a cube
+     * once for all the samples within it.
+     */
+    @Override
+    protected void addNoise(double[] output, double[] xs, double[] ys, double[] zs, double amplitude) {
+        if (!isNoiseDeclaredBy(PerlinNoiseGenerator.class, 3)) {
+            super.addNoise(output, xs, ys, zs, amplitude);
+            return;
+        }
+        if (VECTORIZED) {
+            VectorizedNoise.addPerlin(this, output, xs, ys, zs, amplitude);
+            return;
+        }
+
+        int index = 0;
+        for (double xin : xs) {
+            double x = xin + offsetX;
+            int floorX = floor(x);
+            int X = floorX & 255;
+            x -= floorX;
+            double fX = fade(x);
+            int permX = perm[X];
+            int permX1 = perm[X + 1];
+
+            for (double zin : zs) {
+                double z = zin + offsetZ;
+                int floorZ = floor(z);
+                int Z = floorZ & 255;
+                z -= floorZ;
+                double fZ = fade(z);
+
+                // Hashes of the corners of the current cube
+                int lastY = -1;
+                int hAA = 0, hBA = 0, hAB = 0, hBB = 0, hAA1 = 0, hBA1 = 0, hAB1 = 0, hBB1 = 0;
+                for (double yin : ys) {
+                    double y = yin + offsetY;
+                    int floorY = floor(y);
+                    int Y = floorY & 255;
+                    y -= floorY;
+                    double fY = fade(y);
+
+                    if (Y != lastY) {
+                        lastY = Y;
+                        int A = permX + Y;
+                        int AA = perm[A] + Z;
+                        int AB = perm[A + 1] + Z;
+                        int B = permX1 + Y;
+                        int BA = perm[B] + Z;
+                        int BB = perm[B + 1] + Z;
+                        hAA = perm[AA];
+                        hBA = perm[BA];
+                        hAB = perm[AB];
+                        hBB = perm[BB];
+                        hAA1 = perm[AA + 1];
+                        hBA1 = perm[BA + 1];
+                        hAB1 = perm[AB + 1];
+                        hBB1 = perm[BB + 1];
+                    }
+
+                    output[index++] += lerp(fZ, lerp(fY, lerp(fX, grad(hAA, x, y, z),
+                                    grad(hBA, x - 1, y, z)),
+                                lerp(fX, grad(hAB, x, y - 1, z),
+                                    grad(hBB, x - 1, y - 1, z))),
+                            lerp(fY, lerp(fX, grad(hAA1, x, y, z - 1),
+                                    grad(hBA1, x - 1, y, z - 1)),
+                                lerp(fX, grad(hAB1, x, y - 1, z - 1),
+                                    grad(hBB1, x - 1, y - 1, z - 1)))) * amplitude;
+                }
+            }
+        }
+    }
+    // Solar end
+
     /**
      * Generates noise for the 1D coordinates using the specified number of
      * octaves and parameters
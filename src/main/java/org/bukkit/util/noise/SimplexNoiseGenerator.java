@@ -363,6 +363,211 @@ public class SimplexNoiseGenerator extends PerlinNoiseGenerator {
      * @param w W coordinate
      * @return Noise at given location, from range -1 to 1
      */
+    // Solar start - bulk noise
+    /**
+     * Offsets of the second and third corners of each of the six simplices
+     * of a cube, in the order chosen by {@link #noise(double, double, double)}
+     */
+    static final int[][] SIMPLEX_3D = {
+        {1, 0, 0, 1, 1, 0}, {1, 0, 0, 1, 0, 1}, {0, 0, 1, 1, 0, 1},
+        {0, 0, 1, 0, 1, 1}, {0, 1, 0, 0, 1, 1}, {0, 1, 0, 1, 1, 0}};
+
+    /**
+     * Adds the noise at each sample, hashing the corners of a simplex once
+     * for consecutive samples within it.
+     */
+    @Override
+    protected void addNoise(double[] output, double[] xs, double[] ys, double amplitude) {
+        if (!isNoiseDeclaredBy(SimplexNoiseGenerator.class, 2)) {
+            super.addNoise(output, xs, ys, amplitude);
+            return;
+        }
+
+        int index = 0;
+        for (double xv : xs) {
+            // Cell and simplex of the previous sample, and their hashes
+            int lastI = 0, lastJ = 0, lastI1 = -1;
+            int gi0 = 0, gi1 = 0, gi2 = 0;
+            for (double yv : ys) {
+                double xin = xv + offsetX;
+                double yin = yv + offsetY;
+
+                double s = (xin + yin) * F2;
+                int i = floor(xin + s);
+                int j = floor(yin + s);
+                double t = (i + j) * G2;
+                double X0 = i - t;
+                double Y0 = j - t;
+                double x0 = xin - X0;
+                double y0 = yin - Y0;
+
+                int i1, j1;
+                if (x0 > y0) {
+                    i1 = 1;
+                    j1 = 0;
+                } else {
+                    i1 = 0;
+                    j1 = 1;
+                }
+
+                double x1 = x0 - i1 + G2;
+                double y1 = y0 - j1 + G2;
+                double x2 = x0 + G22;
+                double y2 = y0 + G22;
+
+                if (i != lastI || j != lastJ || i1 != lastI1) {
+                    lastI = i;
+                    lastJ = j;
+                    lastI1 = i1;
+                    int ii = i & 255;
+                    int jj = j & 255;
+                    gi0 = perm[ii + perm[jj]] % 12;
+                    gi1 = perm[ii + i1 + perm[jj + j1]] % 12;
+                    gi2 = perm[ii + 1 + perm[jj + 1]] % 12;
+                }
+
+                double n0, n1, n2;
+                double t0 = 0.5 - x0 * x0 - y0 * y0;
+                if (t0 < 0) {
+                    n0 = 0.0;
+                } else {
+                    t0 *= t0;
+                    n0 = t0 * t0 * dot(grad3[gi0], x0, y0);
+                }
+
+                double t1 = 0.5 - x1 * x1 - y1 * y1;
+                if (t1 < 0) {
+                    n1 = 0.0;
+                } else {
+                    t1 *= t1;
+                    n1 = t1 * t1 * dot(grad3[gi1], x1, y1);
+                }
+
+                double t2 = 0.5 - x2 * x2 - y2 * y2;
+                if (t2 < 0) {
+                    n2 = 0.0;
+                } else {
+                    t2 *= t2;
+                    n2 = t2 * t2 * dot(grad3[gi2], x2, y2);
+                }
+
+                output[index++] += 70.0 * (n0 + n1 + n2) * amplitude;
+            }
+        }
+    }
+
+    /**
+     * Adds the noise at each sample, hashing the corners of a simplex once
+     * for consecutive samples within it.
+     */
+    @Override
+    protected void addNoise(double[] output, double[] xs, double[] ys, double[] zs, double amplitude) {
+        if (!isNoiseDeclaredBy(SimplexNoiseGenerator.class, 3)) {
+            super.addNoise(output, xs, ys, zs, amplitude);
+            return;
+        }
+        if (VECTORIZED) {
+            VectorizedNoise.addSimplex(this, output, xs, ys, zs, amplitude);
+            return;
+        }
+
+        int index = 0;
+        for (double xv : xs) {
+            for (double zv : zs) {
+                // Cell and simplex of the previous sample, and their hashes
+                int lastI = 0, lastJ = 0, lastK = 0, lastOrder = -1;
+                int gi0 = 0, gi1 = 0, gi2 = 0, gi3 = 0;
+                for (double yv : ys) {
+                    double xin = xv + offsetX;
+                    double yin = yv + offsetY;
+                    double zin = zv + offsetZ;
+
+                    double s = (xin + yin + zin) * F3;
+                    int i = floor(xin + s);
+                    int j = floor(yin + s);
+                    int k = floor(zin + s);
+                    double t = (i + j + k) * G3;
+                    double X0 = i - t;
+                    double Y0 = j - t;
+                    double Z0 = k - t;
+                    double x0 = xin - X0;
+                    double y0 = yin - Y0;
+                    double z0 = zin - Z0;
+
+                    int order;
+                    if (x0 >= y0) {
+                        order = (y0 >= z0) ? 0 : (x0 >= z0) ? 1 : 2;
+                    } else {
+                        order = (y0 < z0) ? 3 : (x0 < z0) ? 4 : 5;
+                    }
+                    int[] offsets = SIMPLEX_3D[order];
+                    int i1 = offsets[0], j1 = offsets[1], k1 = offsets[2];
+                    int i2 = offsets[3], j2 = offsets[4], k2 = offsets[5];
+
+                    double x1 = x0 - i1 + G3;
+                    double y1 = y0 - j1 + G3;
+                    double z1 = z0 - k1 + G3;
+                    double x2 = x0 - i2 + 2.0 * G3;
+                    double y2 = y0 - j2 + 2.0 * G3;
+                    double z2 = z0 - k2 + 2.0 * G3;
+                    double x3 = x0 - 1.0 + 3.0 * G3;
+                    double y3 = y0 - 1.0 + 3.0 * G3;
+                    double z3 = z0 - 1.0 + 3.0 * G3;
+
+                    if (i != lastI || j != lastJ || k != lastK || order != lastOrder) {
+                        lastI = i;
+                        lastJ = j;
+                        lastK = k;
+                        lastOrder = order;
+                        int ii = i & 255;
+                        int jj = j & 255;
+                        int kk = k & 255;
+                        gi0 = perm[ii + perm[jj + perm[kk]]] % 12;
+                        gi1 = perm[ii + i1 + perm[jj + j1 + perm[kk + k1]]] % 12;
+                        gi2 = perm[ii + i2 + perm[jj + j2 + perm[kk + k2]]] % 12;
+                        gi3 = perm[ii + 1 + perm[jj + 1 + perm[kk + 1]]] % 12;
+                    }
+
+                    double n0, n1, n2, n3;
+                    double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
+                    if (t0 < 0) {
+                        n0 = 0.0;
+                    } else {
+                        t0 *= t0;
+                        n0 = t0 * t0 * dot(grad3[gi0], x0, y0, z0);
+                    }
+
+                    double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+                    if (t1 < 0) {
+                        n1 = 0.0;
+                    } else {
+                        t1 *= t1;
+                        n1 = t1 * t1 * dot(grad3[gi1], x1, y1, z1);
+                    }
+
+                    double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+                    if (t2 < 0) {
+                        n2 = 0.0;
+                    } else {
+                        t2 *= t2;
+                        n2 = t2 * t2 * dot(grad3[gi2], x2, y2, z2);
+                    }
+
+                    double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+                    if (t3 < 0) {
+                        n3 = 0.0;
+                    } else {
+                        t3 *= t3;
+                        n3 = t3 * t3 * dot(grad3[gi3], x3, y3, z3);
+                    }
+
+                    output[index++] += 32.0 * (n0 + n1 + n2 + n3) * amplitude;
+                }
+            }
+        }
+    }
+    // Solar end
+
     public double noise(double x, double y, double z, double w) {
         x += offsetX;
         y += offsetY;
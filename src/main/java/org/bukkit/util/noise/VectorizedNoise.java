@@ -0,0 +1,372 @@
+package org.bukkit.util.noise;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Bulk noise computed across the lanes of vectors, with the incubating
+ * Vector API of the JDK.
+ * <p>
+ * This class must only be loaded when the jdk.incubator.vector module is
+ * present, which {@link NoiseGenerator#VECTORIZED} checks. Each column of
+ * samples along the Y axis is split into runs of consecutive samples within
+ * the same cell, which share their corners and gradients. Whole vectors of
+ * samples of a run are computed across lanes, choosing the gradients once.
+ * The other samples of Perlin noise are computed across lanes from the
+ * coefficients of the gradients at their corners, and the other samples of
+ * simplex noise one at a time.
+ * <p>
+ * The operations are the same, in the same order, as those of the single
+ * sample methods. Simplex noise is identical, and Perlin noise is identical
+ * up to the sign of zero, as the gradients of the samples outside whole
+ * vectors are multiplied rather than chosen.
+ */
+// Solar - whole class
+final class VectorizedNoise {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = DOUBLES.length();
+    // The gradients chosen by PerlinNoiseGenerator#grad for each hash
+    private static final double[][] PERLIN_GRADIENTS = {{1, 1, 0}, {-1, 1, 0}, {1, -1, 0}, {-1, -1, 0},
+        {1, 0, 1}, {-1, 0, 1}, {1, 0, -1}, {-1, 0, -1},
+        {0, 1, 1}, {0, -1, 1}, {0, 1, -1}, {0, -1, -1},
+        {1, 1, 0}, {0, -1, 1}, {-1, 1, 0}, {0, -1, -1}};
+
+    private VectorizedNoise() {}
+
+    /**
+     * Checks whether vectors of doubles have several lanes on this machine
+     */
+    static boolean isSupported() {
+        return LANES >= 2;
+    }
+
+    static void addPerlin(PerlinNoiseGenerator generator, double[] output, double[] xs, double[] ys, double[] zs, double amplitude) {
+        int[] perm = generator.perm;
+        int sizeY = ys.length;
+
+        // The Y coordinates are shared by every column
+        int[] cellY = new int[sizeY];
+        double[] fracY = new double[sizeY];
+        double[] fadeY = new double[sizeY];
+        for (int j = 0; j < sizeY; j++) {
+            double y = ys[j] + generator.offsetY;
+            int floorY = NoiseGenerator.floor(y);
+            cellY[j] = floorY & 255;
+            fracY[j] = y - floorY;
+            fadeY[j] = NoiseGenerator.fade(fracY[j]);
+        }
+
+        // So are the runs of samples within the same cube, which are added from whole vectors of samples where
+        // possible, and from the gradients of each sample otherwise
+        int[] runs = new int[2 * (sizeY / LANES)];
+        int runCount = 0;
+        int[] samples = new int[sizeY];
+        int sampleCount = 0;
+        for (int start = 0, end; start < sizeY; start = end) {
+            end = start + 1;
+            while (end < sizeY && cellY[end] == cellY[start]) {
+                end++;
+            }
+            int vectors = (end - start) / LANES;
+            if (vectors > 0) {
+                runs[runCount++] = start;
+                runs[runCount++] = start + vectors * LANES;
+            }
+            for (int j = start + vectors * LANES; j < end; j++) {
+                samples[sampleCount++] = j;
+            }
+        }
+        int padded = (sampleCount + LANES - 1) / LANES * LANES;
+        double[] sampleFracY = new double[padded];
+        double[] sampleFadeY = new double[padded];
+        for (int n = 0; n < sampleCount; n++) {
+            sampleFracY[n] = fracY[samples[n]];
+            sampleFadeY[n] = fadeY[samples[n]];
+        }
+        double[] gradients = new double[8 * 3 * padded];
+        double[] values = new double[padded];
+
+        int[] hashes = new int[8];
+        int index = 0;
+        for (double xin : xs) {
+            double x = xin + generator.offsetX;
+            int floorX = NoiseGenerator.floor(x);
+            int X = floorX & 255;
+            x -= floorX;
+            double fX = NoiseGenerator.fade(x);
+
+            for (double zin : zs) {
+                double z = zin + generator.offsetZ;
+                int floorZ = NoiseGenerator.floor(z);
+                int Z = floorZ & 255;
+                z -= floorZ;
+                double fZ = NoiseGenerator.fade(z);
+
+                for (int r = 0; r < runCount; r += 2) {
+                    hash(perm, X, cellY[runs[r]], Z, hashes);
+                    perlinRun(hashes, fracY, fadeY, runs[r], runs[r + 1], x, fX, z, fZ, output, index, amplitude);
+                }
+
+                if (sampleCount > 0) {
+                    int lastY = -1;
+                    for (int n = 0; n < sampleCount; n++) {
+                        int Y = cellY[samples[n]];
+                        if (Y != lastY) {
+                            lastY = Y;
+                            hash(perm, X, Y, Z, hashes);
+                        }
+                        for (int corner = 0; corner < 8; corner++) {
+                            double[] gradient = PERLIN_GRADIENTS[hashes[corner] & 15];
+                            int offset = corner * 3 * padded + n;
+                            gradients[offset] = gradient[0];
+                            gradients[offset + padded] = gradient[1];
+                            gradients[offset + 2 * padded] = gradient[2];
+                        }
+                    }
+                    perlinSamples(gradients, sampleFracY, sampleFadeY, x, fX, z, fZ, values);
+                    for (int n = 0; n < sampleCount; n++) {
+                        output[index + samples[n]] += values[n] * amplitude;
+                    }
+                }
+                index += sizeY;
+            }
+        }
+    }
+
+    /**
+     * Hashes the corners of a cube, in the order of
+     * {@link PerlinNoiseGenerator#noise(double, double, double)}
+     */
+    private static void hash(int[] perm, int X, int Y, int Z, int[] hashes) {
+        int A = perm[X] + Y;
+        int AA = perm[A] + Z;
+        int AB = perm[A + 1] + Z;
+        int B = perm[X + 1] + Y;
+        int BA = perm[B] + Z;
+        int BB = perm[B + 1] + Z;
+        hashes[0] = perm[AA];
+        hashes[1] = perm[BA];
+        hashes[2] = perm[AB];
+        hashes[3] = perm[BB];
+        hashes[4] = perm[AA + 1];
+        hashes[5] = perm[BA + 1];
+        hashes[6] = perm[AB + 1];
+        hashes[7] = perm[BB + 1];
+    }
+
+    // The vectorized loops are kept apart from the scalar ones, so that they are compiled with their own inlining budget
+
+    /**
+     * Adds the noise of whole vectors of samples within the same cube
+     */
+    private static void perlinRun(int[] hashes, double[] fracY, double[] fadeY, int start, int end, double x, double fadeX, double z, double fadeZ, double[] output, int offset, double amplitude) {
+        DoubleVector x0 = DoubleVector.broadcast(DOUBLES, x);
+        DoubleVector x1 = DoubleVector.broadcast(DOUBLES, x - 1);
+        DoubleVector fX = DoubleVector.broadcast(DOUBLES, fadeX);
+        DoubleVector z0 = DoubleVector.broadcast(DOUBLES, z);
+        DoubleVector z1 = DoubleVector.broadcast(DOUBLES, z - 1);
+        DoubleVector fZ = DoubleVector.broadcast(DOUBLES, fadeZ);
+
+        for (int j = start; j < end; j += LANES) {
+            DoubleVector y0 = DoubleVector.fromArray(DOUBLES, fracY, j);
+            DoubleVector y1 = y0.sub(1);
+            DoubleVector fY = DoubleVector.fromArray(DOUBLES, fadeY, j);
+
+            DoubleVector noise = lerp(fZ, lerp(fY, lerp(fX, grad(hashes[0], x0, y0, z0),
+                            grad(hashes[1], x1, y0, z0)),
+                        lerp(fX, grad(hashes[2], x0, y1, z0),
+                            grad(hashes[3], x1, y1, z0))),
+                    lerp(fY, lerp(fX, grad(hashes[4], x0, y0, z1),
+                            grad(hashes[5], x1, y0, z1)),
+                        lerp(fX, grad(hashes[6], x0, y1, z1),
+                            grad(hashes[7], x1, y1, z1))));
+            DoubleVector.fromArray(DOUBLES, output, offset + j).add(noise.mul(amplitude)).intoArray(output, offset + j);
+        }
+    }
+
+    /**
+     * Computes the noise of samples from the coefficients of the gradients
+     * at the corners of each
+     */
+    private static void perlinSamples(double[] gradients, double[] fracY, double[] fadeY, double x, double fadeX, double z, double fadeZ, double[] values) {
+        int padded = values.length;
+        DoubleVector x0 = DoubleVector.broadcast(DOUBLES, x);
+        DoubleVector x1 = DoubleVector.broadcast(DOUBLES, x - 1);
+        DoubleVector fX = DoubleVector.broadcast(DOUBLES, fadeX);
+        DoubleVector z0 = DoubleVector.broadcast(DOUBLES, z);
+        DoubleVector z1 = DoubleVector.broadcast(DOUBLES, z - 1);
+        DoubleVector fZ = DoubleVector.broadcast(DOUBLES, fadeZ);
+
+        for (int n = 0; n < padded; n += LANES) {
+            DoubleVector y0 = DoubleVector.fromArray(DOUBLES, fracY, n);
+            DoubleVector y1 = y0.sub(1);
+            DoubleVector fY = DoubleVector.fromArray(DOUBLES, fadeY, n);
+
+            DoubleVector noise = lerp(fZ, lerp(fY, lerp(fX, dot(gradients, 0, padded, n, x0, y0, z0),
+                            dot(gradients, 1, padded, n, x1, y0, z0)),
+                        lerp(fX, dot(gradients, 2, padded, n, x0, y1, z0),
+                            dot(gradients, 3, padded, n, x1, y1, z0))),
+                    lerp(fY, lerp(fX, dot(gradients, 4, padded, n, x0, y0, z1),
+                            dot(gradients, 5, padded, n, x1, y0, z1)),
+                        lerp(fX, dot(gradients, 6, padded, n, x0, y1, z1),
+                            dot(gradients, 7, padded, n, x1, y1, z1))));
+            noise.intoArray(values, n);
+        }
+    }
+
+    private static DoubleVector lerp(DoubleVector x, DoubleVector y, DoubleVector z) {
+        return y.add(x.mul(z.sub(y)));
+    }
+
+    private static DoubleVector grad(int hash, DoubleVector x, DoubleVector y, DoubleVector z) {
+        // Choosing between vectors with masks rather than branches lets them stay in registers
+        hash &= 15;
+        DoubleVector u = y.blend(x, DOUBLES.maskAll(hash < 8));
+        DoubleVector v = z.blend(x, DOUBLES.maskAll(hash == 12 || hash == 14)).blend(y, DOUBLES.maskAll(hash < 4));
+        return u.lanewise(VectorOperators.NEG, DOUBLES.maskAll((hash & 1) != 0))
+            .add(v.lanewise(VectorOperators.NEG, DOUBLES.maskAll((hash & 2) != 0)));
+    }
+
+    private static DoubleVector dot(double[] gradients, int corner, int padded, int index, DoubleVector x, DoubleVector y, DoubleVector z) {
+        int offset = corner * 3 * padded + index;
+        return DoubleVector.fromArray(DOUBLES, gradients, offset).mul(x)
+            .add(DoubleVector.fromArray(DOUBLES, gradients, offset + padded).mul(y))
+            .add(DoubleVector.fromArray(DOUBLES, gradients, offset + 2 * padded).mul(z));
+    }
+
+    static void addSimplex(SimplexNoiseGenerator generator, double[] output, double[] xs, double[] ys, double[] zs, double amplitude) {
+        int[] perm = generator.perm;
+        int sizeY = ys.length;
+        final double G3 = SimplexNoiseGenerator.G3;
+
+        // The gradients at the corners of the current simplex, and the offsets of the samples from them along X and Z
+        int[][] gradients = new int[4][];
+        double[] corners = new double[8];
+        int index = 0;
+        for (double xv : xs) {
+            for (double zv : zs) {
+                double xin = xv + generator.offsetX;
+                double zin = zv + generator.offsetZ;
+
+                int n = 0;
+                while (n < sizeY) {
+                    double yin = ys[n] + generator.offsetY;
+                    double s = (xin + yin + zin) * SimplexNoiseGenerator.F3;
+                    int i = NoiseGenerator.floor(xin + s);
+                    int j = NoiseGenerator.floor(yin + s);
+                    int k = NoiseGenerator.floor(zin + s);
+                    double t = (i + j + k) * G3;
+                    double X0 = i - t;
+                    double Y0 = j - t;
+                    double Z0 = k - t;
+                    double x0 = xin - X0;
+                    double z0 = zin - Z0;
+                    int order = simplex(x0, yin - Y0, z0);
+
+                    // The following samples are in the same simplex while their cell and order are the same
+                    int end = n + 1;
+                    while (end < sizeY) {
+                        double nextY = ys[end] + generator.offsetY;
+                        double nextS = (xin + nextY + zin) * SimplexNoiseGenerator.F3;
+                        if (NoiseGenerator.floor(xin + nextS) != i || NoiseGenerator.floor(nextY + nextS) != j
+                                || NoiseGenerator.floor(zin + nextS) != k || simplex(x0, nextY - Y0, z0) != order) {
+                            break;
+                        }
+                        end++;
+                    }
+
+                    int[] offsets = SimplexNoiseGenerator.SIMPLEX_3D[order];
+                    int i1 = offsets[0], j1 = offsets[1], k1 = offsets[2];
+                    int i2 = offsets[3], j2 = offsets[4], k2 = offsets[5];
+                    int ii = i & 255;
+                    int jj = j & 255;
+                    int kk = k & 255;
+                    gradients[0] = PerlinNoiseGenerator.grad3[perm[ii + perm[jj + perm[kk]]] % 12];
+                    gradients[1] = PerlinNoiseGenerator.grad3[perm[ii + i1 + perm[jj + j1 + perm[kk + k1]]] % 12];
+                    gradients[2] = PerlinNoiseGenerator.grad3[perm[ii + i2 + perm[jj + j2 + perm[kk + k2]]] % 12];
+                    gradients[3] = PerlinNoiseGenerator.grad3[perm[ii + 1 + perm[jj + 1 + perm[kk + 1]]] % 12];
+                    corners[0] = x0;
+                    corners[1] = z0;
+                    corners[2] = x0 - i1 + G3;
+                    corners[3] = z0 - k1 + G3;
+                    corners[4] = x0 - i2 + 2.0 * G3;
+                    corners[5] = z0 - k2 + 2.0 * G3;
+                    corners[6] = x0 - 1.0 + 3.0 * G3;
+                    corners[7] = z0 - 1.0 + 3.0 * G3;
+
+                    n = simplexRun(gradients, corners, ys, generator.offsetY, Y0, j1, j2, n, end, output, index, amplitude);
+                    for (; n < end; n++) {
+                        double y0 = ys[n] + generator.offsetY - Y0;
+                        double y1 = y0 - j1 + G3;
+                        double y2 = y0 - j2 + 2.0 * G3;
+                        double y3 = y0 - 1.0 + 3.0 * G3;
+                        output[index + n] += 32.0 * (contribution(gradients[0], corners[0], y0, corners[1])
+                            + contribution(gradients[1], corners[2], y1, corners[3])
+                            + contribution(gradients[2], corners[4], y2, corners[5])
+                            + contribution(gradients[3], corners[6], y3, corners[7])) * amplitude;
+                    }
+                }
+                index += sizeY;
+            }
+        }
+    }
+
+    /**
+     * Gets the simplex of a cube containing an offset from its origin, as
+     * an index into {@link SimplexNoiseGenerator#SIMPLEX_3D}
+     */
+    private static int simplex(double x0, double y0, double z0) {
+        if (x0 >= y0) {
+            return (y0 >= z0) ? 0 : (x0 >= z0) ? 1 : 2;
+        } else {
+            return (y0 < z0) ? 3 : (x0 < z0) ? 4 : 5;
+        }
+    }
+
+    private static double contribution(int[] g, double x, double y, double z) {
+        double t = 0.6 - x * x - y * y - z * z;
+        if (t < 0) {
+            return 0.0;
+        }
+        t *= t;
+        return t * t * SimplexNoiseGenerator.dot(g, x, y, z);
+    }
+
+    /**
+     * Adds the noise of a run of samples within the same simplex, for as
+     * many whole vectors as the run holds
+     *
+     * @return The index of the first sample which was not added
+     */
+    private static int simplexRun(int[][] gradients, double[] corners, double[] ys, double offsetY, double Y0, int j1, int j2, int start, int end, double[] output, int offset, double amplitude) {
+        if (end - start < LANES) {
+            return start;
+        }
+        double G3 = SimplexNoiseGenerator.G3;
+
+        int n = start;
+        for (; n <= end - LANES; n += LANES) {
+            DoubleVector y0 = DoubleVector.fromArray(DOUBLES, ys, n).add(offsetY).sub(Y0);
+            DoubleVector y1 = y0.sub(j1).add(G3);
+            DoubleVector y2 = y0.sub(j2).add(2.0 * G3);
+            DoubleVector y3 = y0.sub(1.0).add(3.0 * G3);
+
+            DoubleVector noise = contribution(gradients[0], corners[0], y0, corners[1])
+                .add(contribution(gradients[1], corners[2], y1, corners[3]))
+                .add(contribution(gradients[2], corners[4], y2, corners[5]))
+                .add(contribution(gradients[3], corners[6], y3, corners[7]));
+            DoubleVector.fromArray(DOUBLES, output, offset + n).add(noise.mul(32.0).mul(amplitude)).intoArray(output, offset + n);
+        }
+        return n;
+    }
+
+    private static DoubleVector contribution(int[] g, double x, DoubleVector y, double z) {
+        // As 0.6 - x * x - y * y - z * z, and g[0] * x + g[1] * y + g[2] * z
+        DoubleVector t = y.mul(y).neg().add(0.6 - x * x).sub(z * z);
+        DoubleVector squared = t.mul(t);
+        DoubleVector dot = y.mul(g[1]).add(g[0] * x).add(g[2] * z);
+        return squared.mul(squared).mul(dot).blend(0.0, t.compare(VectorOperators.LT, 0.0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.destroystokyo.paper.event.server;
+
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+// Solar - whole class
+public class TabCompletionCacheTest {
+
+    private final TabCompletionCache cache = new TabCompletionCache();
+    private final CommandSender sender = mock(CommandSender.class);
+
+    private void fire(String buffer, Duration ttl, List<String> completions, String... tags) {
+        AsyncTabCompleteEvent event = new AsyncTabCompleteEvent(sender, new ArrayList<>(completions), buffer, true, null);
+        event.setCacheable(ttl, tags);
+        cache.store(event);
+    }
+
+    @Test
+    public void laterKeystrokesFilter() {
+        fire("/tell a", Duration.ofMinutes(1), List.of("Alice", "Alex", "Anna"));
+        assertEquals(List.of("Alice", "Alex"), cache.get(sender, "/tell AL", true));
+        assertEquals(List.of("Alice"), cache.get(sender, "/tell ali", true));
+        assertNull(cache.get(sender, "/tell ", true));
+        assertNull(cache.get(sender, "/tell alice ", true));
+        assertNull(cache.get(sender, "/msg al", true));
+        assertNull(cache.get(sender, "/tell al", false));
+    }
+
+    @Test
+    public void invalidation() {
+        fire("/tell a", Duration.ofMinutes(1), List.of("Alice"), "players");
+        cache.invalidate("other");
+        assertEquals(List.of("Alice"), cache.get(sender, "/tell a", true));
+        cache.invalidate("players");
+        assertNull(cache.get(sender, "/tell a", true));
+
+        fire("/tell a", Duration.ZERO, List.of("Alice"));
+        assertNull(cache.get(sender, "/tell a", true));
+
+        fire("/tell a", null, List.of("Alice"));
+        assertNull(cache.get(sender, "/tell a", true));
+    }
+}
@@ -0,0 +1,150 @@
+package org.bukkit.command;
+
+import com.destroystokyo.paper.event.server.ServerExceptionEvent;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.ChatColor;
+import org.bukkit.Server;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Solar - whole class
+public class AsyncCommandExecutorTest {
+
+    private final Queue<Runnable> asyncTasks = new ArrayDeque<>();
+    private final Queue<Runnable> mainTasks = new ArrayDeque<>();
+    private final Plugin plugin = mock(Plugin.class);
+    private final Server server = mock(Server.class);
+    private final PluginManager pluginManager = mock(PluginManager.class);
+    private final Logger logger = mock(Logger.class);
+    private final CommandSender sender = mock(CommandSender.class);
+    private boolean enabled = true;
+    private PluginCommand command;
+
+    @BeforeEach
+    public void setUp() {
+        // Queues the tasks instead of running them, so each thread can be run in turn
+        BukkitScheduler scheduler = mock(BukkitScheduler.class);
+        doAnswer(invocation -> {
+            asyncTasks.add(invocation.getArgument(1));
+            return null;
+        }).when(scheduler).runTaskAsynchronously(eq(plugin), any(Runnable.class));
+        doAnswer(invocation -> {
+            if (!enabled) {
+                throw new IllegalPluginAccessException("Plugin attempted to register task while disabled");
+            }
+            mainTasks.add(invocation.getArgument(1));
+            return null;
+        }).when(scheduler).runTask(eq(plugin), any(Runnable.class));
+
+        when(plugin.getServer()).thenReturn(server);
+        when(plugin.getLogger()).thenReturn(logger);
+        when(server.getScheduler()).thenReturn(scheduler);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        when(server.getLogger()).thenReturn(logger);
+
+        command = new PluginCommand("give", plugin);
+        command.setUsage("/<command> <player>");
+    }
+
+    private static void runAll(Queue<Runnable> tasks) {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    @Test
+    public void dispatch() {
+        String[] args = {"Notch"};
+        String[][] received = new String[1][];
+        AsyncCommandExecutor executor = (sender, command, label, arguments, mainThread) -> {
+            received[0] = arguments;
+            return CompletableFuture.completedFuture(true);
+        };
+
+        assertTrue(executor.onCommand(sender, command, "give", args));
+        assertEquals(1, asyncTasks.size());
+        args[0] = "reused";
+        runAll(asyncTasks);
+        assertArrayEquals(new String[] {"Notch"}, received[0]);
+        assertEquals(1, mainTasks.size());
+
+        runAll(mainTasks);
+        verify(sender, never()).sendMessage(anyString());
+    }
+
+    @Test
+    public void completesOnMainThread() {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        AsyncCommandExecutor executor = (sender, command, label, arguments, mainThread) -> result;
+
+        executor.onCommand(sender, command, "give", new String[0]);
+        runAll(asyncTasks);
+        assertTrue(mainTasks.isEmpty());
+
+        // The usage is only sent once the main thread runs the completion
+        result.complete(false);
+        verify(sender, never()).sendMessage(anyString());
+        runAll(mainTasks);
+        verify(sender).sendMessage("/give <player>");
+    }
+
+    @Test
+    public void failure() {
+        AsyncCommandExecutor executor = (sender, command, label, arguments, mainThread) -> CompletableFuture.failedFuture(new IllegalStateException());
+
+        executor.onCommand(sender, command, "give", new String[0]);
+        runAll(asyncTasks);
+        runAll(mainTasks);
+        verify(pluginManager).callEvent(any(ServerExceptionEvent.class));
+        verify(logger).log(eq(Level.SEVERE), anyString(), any(IllegalStateException.class));
+        verify(sender).sendMessage(ChatColor.RED + "An internal error occurred while attempting to perform this command");
+    }
+
+    @Test
+    public void nullResult() {
+        AsyncCommandExecutor executor = (sender, command, label, arguments, mainThread) -> null;
+
+        executor.onCommand(sender, command, "give", new String[0]);
+        runAll(asyncTasks);
+        assertFalse(mainTasks.isEmpty());
+        runAll(mainTasks);
+        verify(pluginManager).callEvent(any(ServerExceptionEvent.class));
+        verify(logger).log(eq(Level.SEVERE), anyString(), any(NullPointerException.class));
+        verify(sender).sendMessage(ChatColor.RED + "An internal error occurred while attempting to perform this command");
+    }
+
+    @Test
+    public void disabledPlugin() {
+        AsyncCommandExecutor executor = (sender, command, label, arguments, mainThread) -> CompletableFuture.failedFuture(new IllegalStateException());
+
+        executor.onCommand(sender, command, "give", new String[0]);
+        enabled = false;
+        runAll(asyncTasks);
+        assertTrue(mainTasks.isEmpty());
+        verify(logger).log(eq(Level.SEVERE), anyString(), any(IllegalStateException.class));
+        verify(pluginManager, never()).callEvent(any());
+        verify(sender, never()).sendMessage(anyString());
+    }
+}
@@ -0,0 +1,44 @@
+package org.bukkit.command;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Solar - whole class
+public class CommandArgumentsTest {
+
+    private static void assertSplitsLike(String line) {
+        assertArrayEquals(line.split(" "), CommandArguments.tokenize(line, false).toArray(), line);
+        assertArrayEquals(line.split(" ", -1), CommandArguments.tokenize(line, true).toArray(), line);
+    }
+
+    @Test
+    public void splitsLikeString() {
+        assertSplitsLike("");
+        assertSplitsLike(" ");
+        assertSplitsLike("   ");
+        assertSplitsLike("give");
+        assertSplitsLike("give player stone 64");
+        assertSplitsLike("give  player ");
+        assertSplitsLike(" give player  ");
+    }
+
+    @Test
+    public void views() {
+        CommandArguments args = CommandArguments.tokenize("give Player stone 64", false).skip(1);
+        assertEquals(3, args.size());
+        assertEquals("Player", args.get(0));
+        assertEquals(5, args.start(0));
+        assertEquals(11, args.end(0));
+        assertTrue(args.equalsIgnoreCase(0, "player"));
+        assertFalse(args.equalsIgnoreCase(0, "play"));
+        assertTrue(args.startsWithIgnoreCase(1, "ST"));
+        assertEquals('t', args.charAt(1, 1));
+        assertEquals(64, args.getInt(2));
+        assertArrayEquals(new String[] {"64"}, args.skip(2).toArray());
+        assertTrue(args.skip(3).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package org.bukkit.command;
+
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+// Solar - whole class
+@ExtendWith(MockitoExtension.class)
+public class SimpleCommandMapTest {
+
+    private final Server server;
+    private final PluginManager pluginManager;
+    private final CommandSender sender;
+    private SimpleCommandMap commandMap;
+
+    public SimpleCommandMapTest(@Mock Server server, @Mock PluginManager pluginManager, @Mock CommandSender sender) {
+        this.server = server;
+        this.pluginManager = pluginManager;
+        this.sender = sender;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        commandMap = new SimpleCommandMap(server);
+    }
+
+    private static Command command(String name) {
+        return new Command(name) {
+            @Override
+            public boolean execute(CommandSender sender, String commandLabel, String[] args) {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    public void completeLabelsIgnoringCase() {
+        Map<String, Command> knownCommands = commandMap.getKnownCommands();
+        knownCommands.put("home", command("home"));
+        knownCommands.put("Home", command("Home"));
+        knownCommands.put("homes", command("homes"));
+        knownCommands.put("hat", command("hat"));
+        commandMap.register("test", command("spawn"));
+
+        assertEquals(List.of("Home", "home", "homes"), commandMap.tabComplete(sender, "ho"));
+        // The labels equal to the command line ignoring case sort on either side of it
+        assertEquals(List.of("Home", "home", "homes"), commandMap.tabComplete(sender, "home"));
+        assertEquals(List.of("Home", "home", "homes"), commandMap.tabComplete(sender, "HOME"));
+        assertEquals(List.of("spawn"), commandMap.tabComplete(sender, "sp"));
+        assertEquals(List.of("test:spawn"), commandMap.tabComplete(sender, "test:"));
+        assertEquals(List.of(), commandMap.tabComplete(sender, "homework"));
+    }
+
+    @Test
+    public void completeAfterDirectChanges() {
+        Map<String, Command> knownCommands = commandMap.getKnownCommands();
+        Command warp = command("warp");
+        knownCommands.put("home", command("home"));
+        knownCommands.put("Homes", command("Homes"));
+        knownCommands.put("hat", command("hat"));
+        knownCommands.put("warp", warp);
+        assertEquals(List.of("hat", "home", "Homes"), commandMap.tabComplete(sender, "h"));
+
+        // Replacing a label keeps the number of commands the same
+        knownCommands.remove("hat");
+        knownCommands.put("house", command("house"));
+        assertEquals(List.of("home", "Homes", "house"), commandMap.tabComplete(sender, "h"));
+
+        knownCommands.keySet().remove("Homes");
+        knownCommands.values().removeIf((command) -> command == warp);
+        assertEquals(List.of("home", "house"), commandMap.tabComplete(sender, "h"));
+        assertEquals(List.of(), commandMap.tabComplete(sender, "w"));
+
+        knownCommands.putAll(Map.of("Warp", warp));
+        assertEquals(List.of("Warp"), commandMap.tabComplete(sender, "w"));
+        knownCommands.clear();
+        assertEquals(List.of(), commandMap.tabComplete(sender, "h"));
+    }
+}
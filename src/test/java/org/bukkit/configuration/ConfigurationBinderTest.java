@@ -0,0 +1,101 @@
+package org.bukkit.configuration;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.bukkit.util.Vector;
+import org.junit.Test;
+
+public class ConfigurationBinderTest {
+
+    public enum Mode {
+        SURVIVAL,
+        CREATIVE
+    }
+
+    public record Limits(int players, @ConfigKey("view-distance") double viewDistance) {
+        public Limits {
+            if (players < 1) {
+                throw new IllegalArgumentException("players must be positive");
+            }
+        }
+    }
+
+    public record Settings(String name, boolean enabled, Mode mode, Limits limits, List<Limits> tiers,
+                           Map<String, Integer> weights, Optional<String> motd, Vector spawn,
+                           @ConfigKey("limits.players") long players) {}
+
+    private static MemoryConfiguration getConfig() {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("name", "Solar");
+        config.set("enabled", true);
+        config.set("mode", "creative");
+        config.set("limits.players", 20);
+        config.set("limits.view-distance", 8);
+        Map<String, Object> tier = new LinkedHashMap<>();
+        tier.put("players", 5);
+        tier.put("view-distance", 4.5);
+        config.set("tiers", Arrays.asList(tier));
+        config.set("weights.a", 1);
+        config.set("weights.b", 2.0);
+        config.set("spawn", new Vector(1, 2, 3));
+        return config;
+    }
+
+    @Test
+    public void testBind() throws InvalidConfigurationException {
+        Settings settings = getConfig().bind(Settings.class);
+
+        assertEquals("Solar", settings.name());
+        assertTrue(settings.enabled());
+        assertEquals(Mode.CREATIVE, settings.mode());
+        assertEquals(new Limits(20, 8), settings.limits());
+        assertEquals(Arrays.asList(new Limits(5, 4.5)), settings.tiers());
+        assertEquals(2, (int) settings.weights().get("b"));
+        assertEquals(Optional.empty(), settings.motd());
+        assertEquals(new Vector(1, 2, 3), settings.spawn());
+        assertEquals(20L, settings.players());
+    }
+
+    @Test
+    public void testBindDefaults() throws InvalidConfigurationException {
+        MemoryConfiguration config = getConfig();
+        config.set("name", null);
+        config.addDefault("name", "Default");
+
+        assertEquals("Default", config.bind(Settings.class).name());
+    }
+
+    @Test
+    public void testBindReportsAllErrors() {
+        MemoryConfiguration config = getConfig();
+        config.set("enabled", "yes");
+        config.set("mode", "adventure");
+        config.set("limits.players", 0);
+        config.set("weights.b", "heavy");
+        config.set("spawn", null);
+
+        try {
+            config.bind(Settings.class);
+            fail("Expected an InvalidConfigurationException");
+        } catch (InvalidConfigurationException ex) {
+            String message = ex.getMessage();
+            assertTrue(message, message.contains("enabled: expected a boolean but found 'yes'"));
+            assertTrue(message, message.contains("mode: expected one of [SURVIVAL, CREATIVE] but found 'adventure'"));
+            assertTrue(message, message.contains("limits: players must be positive"));
+            assertTrue(message, message.contains("weights.b: expected a number but found 'heavy'"));
+            assertTrue(message, message.contains("spawn: missing value"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBindUnsupportedType() throws InvalidConfigurationException {
+        getConfig().bind(Unsupported.class);
+    }
+
+    public record Unsupported(List<?> values) {}
+}
@@ -171,6 +171,43 @@ public abstract class ConfigurationSectionTest {
         assertEquals("Default Value", section.get("doesntExist", "Default Value"));
     }
 
+    // Solar start
+    @Test
+    public void testGet_ConfigPath() {
+        ConfigurationSection section = getConfigurationSection();
+        section.addDefault("default", 5);
+
+        section.set("settings.combat.cooldown", 20);
+        section.set("settings.name", "Set Value");
+
+        assertEquals(20, section.get(ConfigPath.of("settings.combat.cooldown")));
+        assertEquals(20, section.getInt(ConfigPath.of("settings/combat/cooldown", '/'), 0));
+        assertEquals("Set Value", section.getString(ConfigPath.of("settings.name"), "Default Value"));
+        assertEquals("Default Value", section.get(ConfigPath.of("settings.name.nested"), "Default Value"));
+        assertEquals("Default Value", section.get(ConfigPath.of("doesntExist.key"), "Default Value"));
+        assertEquals(5, section.get(ConfigPath.of("default")));
+        assertNull(section.get(ConfigPath.of("default"), null));
+    }
+
+    @Test
+    public void testGetFlattenedValues() {
+        ConfigurationSection section = getConfigurationSection();
+
+        section.set("settings.combat.cooldown", 20);
+        section.set("name", "Set Value");
+        // Sets the empty key, which no ConfigPath can point to
+        section.set(".", "Empty Key");
+
+        Map<ConfigPath, Object> values = section.getFlattenedValues();
+        assertEquals(2, values.size());
+        assertEquals(20, values.get(ConfigPath.of("settings.combat.cooldown")));
+        assertEquals("Set Value", values.get(ConfigPath.of("name")));
+
+        section.set("name", null);
+        assertEquals("Set Value", values.get(ConfigPath.of("name")));
+    }
+    // Solar end
+
     @Test
     public void testSet() {
         ConfigurationSection section = getConfigurationSection();
@@ -0,0 +1,122 @@
+package org.bukkit.configuration;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class SnapshotConfigurationTest {
+
+    private static MemoryConfiguration getConfig() {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("string", "value");
+        config.set("section.integer", 5);
+        config.set("section.list", new ArrayList<>(Arrays.asList("a", "b")));
+        for (int i = 0; i < 20; i++) {
+            config.set("large.key" + i, i);
+        }
+        config.addDefault("section.default", true);
+        return config;
+    }
+
+    @Test
+    public void testValues() {
+        MemoryConfiguration config = getConfig();
+        SnapshotConfiguration snapshot = config.snapshot();
+
+        assertEquals(config.getFlattenedValues(), snapshot.getFlattenedValues());
+        assertEquals(config.getKeys(true), snapshot.getKeys(true));
+        assertEquals("value", snapshot.getString("string"));
+        assertEquals(5, snapshot.getInt("section.integer"));
+        assertEquals(19, snapshot.getInt("large.key19"));
+        assertEquals(0, snapshot.getInt("large.key20"));
+        assertEquals(Arrays.asList("a", "b"), snapshot.getStringList("section.list"));
+        assertTrue(snapshot.getIntegerList("section.integer").isEmpty());
+        assertEquals(5, snapshot.get(ConfigPath.of("section.integer")));
+        assertSame(snapshot, snapshot.getConfigurationSection("section").getRoot());
+        assertEquals("section", snapshot.getConfigurationSection("section").getCurrentPath());
+    }
+
+    @Test
+    public void testDefaults() {
+        MemoryConfiguration config = getConfig();
+        SnapshotConfiguration snapshot = config.snapshot();
+
+        assertTrue(snapshot.getBoolean("section.default"));
+        assertTrue(snapshot.contains("section.default"));
+        assertFalse(snapshot.isSet("section.default"));
+        assertTrue(snapshot.getConfigurationSection("section").getDefaultSection().getBoolean("default"));
+
+        config.options().copyDefaults(true);
+        snapshot = config.snapshot();
+
+        assertTrue(snapshot.isSet("section.default"));
+        assertTrue(snapshot.getKeys(true).contains("section.default"));
+    }
+
+    @Test
+    public void testGetConfigPathWithinSection() {
+        MemoryConfiguration config = getConfig();
+        config.addDefault("defaulted.value", true);
+        MemoryConfiguration outer = new MemoryConfiguration();
+        outer.set("snapshot", config.snapshot());
+
+        // The keys below the snapshot are resolved by walking its sections, which must not fall back to the defaults
+        assertEquals(5, outer.get(ConfigPath.of("snapshot.section.integer"), null));
+        assertEquals("Default Value", outer.get(ConfigPath.of("snapshot.defaulted.value"), "Default Value"));
+    }
+
+    @Test
+    public void testIndependentOfConfiguration() {
+        MemoryConfiguration config = getConfig();
+        SnapshotConfiguration snapshot = config.snapshot();
+
+        config.set("string", "changed");
+        ((List<Object>) config.getList("section.list")).add("c");
+
+        assertEquals("value", snapshot.getString("string"));
+        assertEquals(Arrays.asList("a", "b"), snapshot.getList("section.list"));
+    }
+
+    @Test
+    public void testRecursiveList() {
+        MemoryConfiguration config = new MemoryConfiguration();
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+        config.set("list", list);
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("first", list);
+        map.put("second", list);
+        config.set("map", map);
+
+        SnapshotConfiguration snapshot = config.snapshot();
+
+        List<?> copy = snapshot.getList("list");
+        assertSame(copy, copy.get(0));
+        assertSame(copy, ((Map<?, ?>) snapshot.get("map")).get("second"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSet() {
+        getConfig().snapshot().set("string", "changed");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetInSection() {
+        getConfig().snapshot().getConfigurationSection("section").set("integer", 6);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testModifyList() {
+        ((List<Object>) getConfig().snapshot().getList("section.list")).add("c");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testOptions() {
+        getConfig().snapshot().options().pathSeparator('/');
+    }
+}
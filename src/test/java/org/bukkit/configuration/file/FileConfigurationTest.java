@@ -3,8 +3,19 @@ package org.bukkit.configuration.file;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException; // Solar
+import java.io.InterruptedIOException; // Solar
+import java.io.UncheckedIOException; // Solar
+import java.nio.charset.StandardCharsets; // Solar
+import java.nio.file.Files; // Solar
+import java.nio.file.attribute.PosixFilePermission; // Solar
+import java.nio.file.attribute.PosixFilePermissions; // Solar
 import java.util.Map;
+import java.util.Set; // Solar
+import java.util.concurrent.CompletableFuture; // Solar
+import java.util.concurrent.CountDownLatch; // Solar
 import org.bukkit.configuration.MemoryConfigurationTest;
+import org.junit.Assume; // Solar
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -51,6 +62,85 @@ public abstract class FileConfigurationTest extends MemoryConfigurationTest {
         assertTrue(file.isFile());
     }
 
+    // Solar start
+    @Test
+    public void testSaveAsync() throws Exception {
+        FileConfiguration config = getConfig();
+        File file = new File(testFolder.getRoot(), "async/test.config");
+
+        for (Map.Entry<String, Object> entry : getTestValues().entrySet()) {
+            config.set(entry.getKey(), entry.getValue());
+        }
+
+        CompletableFuture<Void> first = config.saveAsync(file);
+        config.set("extra", 1);
+        String expected = config.saveToString();
+        CompletableFuture<Void> second = config.saveAsync(file);
+        config.set("extra", 2);
+        first.get();
+        second.get();
+
+        assertEquals(expected, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        assertArrayEquals(new String[] {"test.config"}, file.getParentFile().list());
+    }
+
+    @Test
+    public void testSaveAsyncKeepsPermissions() throws Exception {
+        File file = testFolder.newFile("test.config");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        try {
+            Files.setPosixFilePermissions(file.toPath(), permissions);
+        } catch (UnsupportedOperationException ex) {
+            Assume.assumeNoException(ex);
+        }
+
+        getConfig().saveAsync(file).get();
+
+        assertEquals(permissions, Files.getPosixFilePermissions(file.toPath()));
+    }
+
+    @Test
+    public void testSaveWaitsForWritingSave() throws Exception {
+        File file = testFolder.newFile("test.config");
+        CountDownLatch release = new CountDownLatch(1);
+        FileConfiguration blocked = new YamlConfiguration() {
+            @Override
+            protected ContentWriter captureContents() {
+                return (writer) -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        throw new InterruptedIOException();
+                    }
+                    writer.write("async: 1\n");
+                };
+            }
+        };
+        FileConfiguration config = getConfig();
+        config.set("sync", 1);
+
+        CompletableFuture<Void> writing = blocked.saveAsync(file);
+        // Wait for the save to be written, so the next one cannot be coalesced into it
+        Thread.sleep(AsyncConfigurationSaver.COALESCE_MILLIS * 3);
+        blocked.saveAsync(file);
+        Thread save = new Thread(() -> {
+            try {
+                config.save(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        save.start();
+        save.join(200);
+        assertTrue(save.isAlive());
+
+        release.countDown();
+        writing.get();
+        save.join();
+        assertEquals(config.saveToString(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+    // Solar end
+
     @Test
     public void testSaveToString() {
         FileConfiguration config = getConfig();
@@ -1,5 +1,14 @@
 package org.bukkit.configuration.file;
 
+import java.io.File; // Solar
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets; // Solar
+import java.nio.file.Files; // Solar
+import java.util.Arrays; // Solar
+import java.util.Collections; // Solar
+import java.util.LinkedHashSet; // Solar
+import org.bukkit.configuration.InvalidConfigurationException; // Solar
+import org.bukkit.util.Vector;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -53,4 +62,128 @@ public class YamlConfigurationTest extends FileConfigurationTest {
 
         assertEquals(expected, result);
     }
+
+    // Solar start
+    @Test
+    public void testLoadReaderWithCarriageReturns() throws Exception {
+        YamlConfiguration config = getConfig();
+
+        config.load(new StringReader("# first\r\n#   second\r\n\r\nkey: value\r\nsection:\r\n  nested: 1\r\n"));
+
+        assertEquals("first\n  second\n", config.options().header());
+        assertEquals("value", config.getString("key"));
+        assertEquals(1, config.getInt("section.nested"));
+    }
+
+    @Test
+    public void testLoadMergedAndSerializedSections() throws Exception {
+        YamlConfiguration config = getConfig();
+
+        config.loadFromString("base: &base\n  a: 1\n  b: 2\n"
+            + "derived:\n  b: 3\n  <<: *base\n"
+            + "nested:\n  vector:\n    x: 1.0\n    ==: Vector\n    y: 2.0\n    z: 3.0\n");
+
+        assertEquals(1, config.getInt("derived.a"));
+        assertEquals(3, config.getInt("derived.b"));
+        assertEquals(new Vector(1, 2, 3), config.get("nested.vector"));
+    }
+
+    @Test
+    public void testLoadBinaryCache() throws Exception {
+        File file = testFolder.newFile("cached.yml");
+        String contents = "# Header\n\n"
+            + "numbers:\n  int: 1\n  long: 12345678901\n  big: 123456789012345678901234567890\n  double: 1.5\n"
+            + "misc:\n  bool: true\n  date: 2001-12-14\n  binary: !!binary AAEC\n  set: !!set {a, b}\n"
+            + "recursive: &list [1, *list]\n"
+            + "vector:\n  ==: Vector\n  x: 1.0\n  y: 2.0\n  z: 3.0\n";
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+
+        YamlConfiguration parsed = getConfig();
+        parsed.options().binaryCache(true);
+        parsed.load(file);
+        assertTrue(new File(testFolder.getRoot(), ".cached.yml.cache").isFile());
+
+        YamlConfiguration cached = getConfig();
+        cached.options().binaryCache(true);
+        cached.load(file);
+
+        assertEquals(parsed.saveToString(), cached.saveToString());
+        assertEquals(parsed.options().header(), cached.options().header());
+        assertArrayEquals(new byte[] {0, 1, 2}, (byte[]) cached.get("misc.binary"));
+        assertSame(cached.getList("recursive"), cached.getList("recursive").get(1));
+        assertEquals(new Vector(1, 2, 3), cached.getVector("vector"));
+
+        Files.write(file.toPath(), "changed: true\n".getBytes(StandardCharsets.UTF_8));
+        YamlConfiguration changed = getConfig();
+        changed.options().binaryCache(true);
+        changed.load(file);
+
+        assertEquals(Collections.singleton("changed"), changed.getKeys(false));
+    }
+
+    @Test
+    public void testBinaryCacheLeavesOutDefaults() throws Exception {
+        File file = testFolder.newFile("defaults.yml");
+        Files.write(file.toPath(), "a: 1\nsection:\n  b: 2\n".getBytes(StandardCharsets.UTF_8));
+
+        YamlConfiguration parsed = getConfig();
+        parsed.addDefault("default", 0);
+        parsed.addDefault("section.c", 0);
+        parsed.options().copyDefaults(true).binaryCache(true);
+        parsed.load(file);
+        assertEquals(0, parsed.getInt("section.c"));
+        assertTrue(parsed.options().copyDefaults());
+
+        YamlConfiguration cached = getConfig();
+        cached.options().binaryCache(true);
+        cached.load(file);
+        assertEquals(new LinkedHashSet<>(Arrays.asList("a", "section", "section.b")), cached.getKeys(true));
+    }
+
+    @Test
+    public void testLoadMalformedKeepsValues() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.set("kept", 1);
+        config.set("section.a", 1);
+        String malformed = "kept: 2\nsection:\n  a: 2\n  b: 2\nadded: 2\nbroken: [\n";
+
+        try {
+            config.loadFromString(malformed);
+            fail("Loaded a malformed document");
+        } catch (InvalidConfigurationException expected) {
+        }
+        assertKeptValues(config);
+
+        File file = testFolder.newFile("malformed.yml");
+        Files.write(file.toPath(), malformed.getBytes(StandardCharsets.UTF_8));
+        config.options().binaryCache(true);
+        try {
+            config.load(file);
+            fail("Loaded a malformed file");
+        } catch (InvalidConfigurationException expected) {
+        }
+        assertKeptValues(config);
+    }
+
+    private static void assertKeptValues(YamlConfiguration config) {
+        assertEquals(1, config.getInt("kept"));
+        assertEquals(1, config.getInt("section.a"));
+        assertFalse(config.contains("section.b"));
+        assertFalse(config.contains("added"));
+    }
+
+    @Test
+    public void testLoadMergesPathsIntoSections() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.set("section.a", 1);
+        config.set("replaced.a", 1);
+
+        config.loadFromString("section.b: 2\nreplaced:\n  b: 2\n");
+
+        assertEquals(1, config.getInt("section.a"));
+        assertEquals(2, config.getInt("section.b"));
+        assertFalse(config.contains("replaced.a"));
+        assertEquals(2, config.getInt("replaced.b"));
+    }
+    // Solar end
 }
@@ -0,0 +1,89 @@
+package org.bukkit.configuration.serialization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Compares deserializing a large list of items through the cached factories
+ * with the reflective lookups made for every object, which subclasses of
+ * {@link ConfigurationSerialization} still use.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.bukkit.configuration.serialization.ConfigurationSerializationBenchmark [items] [rounds]}.
+ * A real {@link org.bukkit.inventory.ItemStack} needs the item factory of a
+ * server, so a stand-in with the same shape is deserialized instead.
+ */
+// Solar - whole class
+public final class ConfigurationSerializationBenchmark {
+
+    @SerializableAs("BenchmarkItem")
+    public static final class Item implements ConfigurationSerializable {
+        private final String type;
+        private final int amount;
+        private final short damage;
+
+        private Item(String type, int amount, short damage) {
+            this.type = type;
+            this.amount = amount;
+            this.damage = damage;
+        }
+
+        @Override
+        public Map<String, Object> serialize() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("type", type);
+            result.put("amount", amount);
+            result.put("damage", damage);
+            return result;
+        }
+
+        public static Item deserialize(Map<String, Object> args) {
+            return new Item((String) args.get("type"), ((Number) args.get("amount")).intValue(), ((Number) args.get("damage")).shortValue());
+        }
+    }
+
+    private ConfigurationSerializationBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int items = (args.length > 0) ? Integer.parseInt(args[0]) : 50_000;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        ConfigurationSerialization.registerClass(Item.class);
+
+        List<Map<String, Object>> serialized = new ArrayList<>(items);
+        List<Item> list = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            Item item = new Item("STONE", i % 64 + 1, (short) (i % 16));
+            Map<String, Object> map = item.serialize();
+            map.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, "BenchmarkItem");
+            serialized.add(map);
+            list.add(item);
+        }
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("items", list);
+        String yaml = config.saveToString();
+
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (Map<String, Object> map : serialized) {
+                ConfigurationSerialization.deserializeObject(map);
+            }
+            long cached = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Map<String, Object> map : serialized) {
+                new ConfigurationSerialization(Item.class) {}.deserialize(map);
+            }
+            long reflective = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            new YamlConfiguration().loadFromString(yaml);
+            long loaded = System.nanoTime() - start;
+
+            System.out.printf("round %d: cached %.2f ms, reflective %.2f ms, yaml load %.2f ms%n",
+                    round, cached / 1e6, reflective / 1e6, loaded / 1e6);
+        }
+    }
+}
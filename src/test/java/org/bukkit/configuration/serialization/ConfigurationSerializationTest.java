@@ -0,0 +1,51 @@
+package org.bukkit.configuration.serialization;
+
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+// Solar - whole class
+public class ConfigurationSerializationTest {
+
+    public static class Factories implements ConfigurationSerializable {
+        private final String factory;
+
+        private Factories(String factory) {
+            this.factory = factory;
+        }
+
+        public Factories(Map<String, Object> args) {
+            this("constructor");
+        }
+
+        @Override
+        public Map<String, Object> serialize() {
+            return Map.of();
+        }
+
+        public static Factories deserialize(Map<String, Object> args) {
+            return args.containsKey("deserialize") ? new Factories("deserialize") : null;
+        }
+
+        public static Factories valueOf(Map<String, Object> args) {
+            if (args.containsKey("fail")) {
+                throw new IllegalStateException();
+            }
+            return args.containsKey("valueOf") ? new Factories("valueOf") : null;
+        }
+    }
+
+    @Test
+    public void testFactoriesInOrder() {
+        ConfigurationSerialization.registerClass(Factories.class, "Factories");
+
+        assertEquals("deserialize", deserialize(Map.of("==", "Factories", "deserialize", true)));
+        assertEquals("valueOf", deserialize(Map.of("==", "Factories", "valueOf", true)));
+        assertEquals("constructor", deserialize(Map.of("==", "Factories")));
+        assertEquals("constructor", ((Factories) ConfigurationSerialization.deserializeObject(Map.of("fail", true), Factories.class)).factory);
+    }
+
+    private static String deserialize(Map<String, ?> args) {
+        return ((Factories) ConfigurationSerialization.deserializeObject(args)).factory;
+    }
+}
@@ -0,0 +1,178 @@
+package org.bukkit.permissions;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Solar - whole class
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PermissibleBaseTest {
+
+    private final Server server;
+    private final PluginManager pluginManager;
+    private final Plugin plugin;
+    private final Map<String, Permission> registered = new HashMap<>();
+
+    public PermissibleBaseTest(@Mock Server server, @Mock PluginManager pluginManager, @Mock Plugin plugin) {
+        this.server = server;
+        this.pluginManager = pluginManager;
+        this.plugin = plugin;
+    }
+
+    @BeforeEach
+    public void setServer() {
+        Bukkit.setServer(server);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        when(pluginManager.getPermission(anyString())).thenAnswer(
+                (invocation) -> registered.get(invocation.<String>getArgument(0).toLowerCase(java.util.Locale.ENGLISH)));
+        when(pluginManager.getDefaultPermissions(anyBoolean())).thenReturn(Set.of());
+        when(pluginManager.getDefaultPermissionSnapshot(anyBoolean())).thenCallRealMethod();
+        when(plugin.isEnabled()).thenReturn(true);
+
+        register("group.admin", Map.of("group.mod", true, "command.ban", true));
+        register("group.mod", Map.of("command.kick", true, "command.fly", false));
+        register("command.kick", Map.of("command.kick.notify", true));
+    }
+
+    @AfterEach
+    public void resetServer() {
+        Bukkit.resetServer();
+    }
+
+    private void register(String name, Map<String, Boolean> children) {
+        registered.put(name, new Permission(name, children));
+    }
+
+    private static Map<String, Boolean> values(Permissible permissible) {
+        Map<String, Boolean> values = new HashMap<>();
+        for (PermissionAttachmentInfo info : permissible.getEffectivePermissions()) {
+            values.put(info.getPermission(), info.getValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void childrenAreExpanded() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        PermissionAttachment attachment = permissible.addAttachment(plugin);
+        attachment.setPermission("group.admin", true);
+        assertTrue(permissible.hasPermission("command.kick.notify"));
+        assertFalse(permissible.hasPermission("command.fly"));
+
+        attachment.setPermission("command.fly", true);
+        assertTrue(permissible.hasPermission("command.fly"));
+
+        attachment.unsetPermission("group.admin");
+        assertFalse(permissible.isPermissionSet("command.kick"));
+        assertTrue(permissible.hasPermission("command.fly"));
+    }
+
+    @Test
+    public void childrenFollowPermissionChanges() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        PermissionAttachment attachment = permissible.addAttachment(plugin);
+        attachment.setPermission("group.mod", true);
+        assertFalse(permissible.isPermissionSet("command.heal"));
+
+        register("group.mod", Map.of("command.kick", true, "command.heal", true));
+        when(pluginManager.getPermissionEpoch()).thenReturn(1L);
+        attachment.setPermission("group.mod", true);
+        assertTrue(permissible.hasPermission("command.heal"));
+        assertFalse(permissible.isPermissionSet("command.fly"));
+    }
+
+    @Test
+    public void attachmentsOverrideSharedDefaults() {
+        when(pluginManager.getDefaultPermissions(false)).thenReturn(Set.of(registered.get("group.mod")));
+        DefaultPermissionSnapshot defaults = pluginManager.getDefaultPermissionSnapshot(false);
+        when(pluginManager.getDefaultPermissionSnapshot(false)).thenReturn(defaults);
+        assertEquals(Map.of("group.mod", true, "command.kick", true, "command.kick.notify", true, "command.fly", false),
+                defaults.getPermissions());
+
+        PermissibleBase permissible = new PermissibleBase(null);
+        PermissibleBase other = new PermissibleBase(null);
+        PermissionAttachment attachment = permissible.addAttachment(plugin);
+        attachment.setPermission("command.kick", false);
+        attachment.setPermission("command.fly", true);
+        assertFalse(permissible.hasPermission("command.kick.notify"));
+        assertTrue(permissible.hasPermission("command.fly"));
+        assertTrue(other.hasPermission("command.kick.notify"));
+        assertFalse(other.hasPermission("command.fly"));
+        assertEquals(defaults.getPermissions(), values(other));
+
+        attachment.unsetPermission("command.kick");
+        assertTrue(permissible.hasPermission("command.kick.notify"));
+        assertEquals(Map.of("group.mod", true, "command.kick", true, "command.kick.notify", true, "command.fly", true),
+                values(permissible));
+    }
+
+    @Test
+    public void defaultsAreNotWildcards() {
+        register("worldedit.*", Map.of());
+        when(pluginManager.getDefaultPermissions(false)).thenReturn(Set.of(registered.get("worldedit.*")));
+
+        PermissibleBase permissible = new PermissibleBase(null);
+        assertTrue(permissible.hasPermission("worldedit.*"));
+        assertFalse(permissible.hasPermission("worldedit.wand"));
+
+        PermissionAttachment attachment = permissible.addAttachment(plugin);
+        attachment.setPermission("worldedit.*", true);
+        assertTrue(permissible.hasPermission("worldedit.wand"));
+        attachment.unsetPermission("worldedit.*");
+        assertTrue(permissible.hasPermission("worldedit.*"));
+        assertFalse(permissible.hasPermission("worldedit.wand"));
+    }
+
+    @Test
+    public void incrementalMatchesFullRecalculation() {
+        PermissibleBase permissible = new PermissibleBase(null);
+        List<PermissionAttachment> attachments = List.of(
+                permissible.addAttachment(plugin), permissible.addAttachment(plugin), permissible.addAttachment(plugin));
+        List<String> names = List.of("group.admin", "group.mod", "command.kick", "command.fly", "command.ban", "other");
+        Random random = new Random(42L);
+        for (int n = 0; n < 500; n++) {
+            PermissionAttachment attachment = attachments.get(random.nextInt(attachments.size()));
+            String name = names.get(random.nextInt(names.size()));
+            switch (random.nextInt(3)) {
+            case 0 -> attachment.unsetPermission(name);
+            case 1 -> attachment.setPermissions(Map.of(name, random.nextBoolean(), "extra." + n % 5, true));
+            default -> attachment.setPermission(name, random.nextBoolean());
+            }
+            Map<String, Boolean> incremental = values(permissible);
+            Map<String, Boolean> checked = new HashMap<>();
+            for (String permission : incremental.keySet()) {
+                checked.put(permission, permissible.hasPermission(permission));
+            }
+            permissible.recalculatePermissions();
+            assertEquals(values(permissible), incremental);
+            assertEquals(incremental, checked);
+        }
+        attachments.get(1).remove();
+        Map<String, Boolean> incremental = values(permissible);
+        permissible.recalculatePermissions();
+        assertEquals(values(permissible), incremental);
+    }
+}
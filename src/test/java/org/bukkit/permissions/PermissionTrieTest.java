@@ -0,0 +1,70 @@
+package org.bukkit.permissions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Solar - whole class
+public class PermissionTrieTest {
+
+    private final Map<String, Boolean> permissions = new HashMap<>();
+
+    private void set(String name, boolean value) {
+        permissions.put(name, value);
+    }
+
+    @Test
+    public void exactLookupIgnoresCase() {
+        set("plugin.command.home", true);
+        set("plugin.command", false);
+        PermissionTrie trie = PermissionTrie.compile(permissions, false);
+        assertEquals(true, trie.lookup("plugin.command.home", false));
+        assertEquals(true, trie.lookup("Plugin.COMMAND.Home", false));
+        assertEquals(false, trie.lookup("plugin.command", false));
+        assertNull(trie.lookup("plugin", false));
+        assertNull(trie.lookup("plugin.command.homes", false));
+        assertNull(trie.lookup("plugin.command.home.other", false));
+        assertNull(trie.lookup("", false));
+    }
+
+    @Test
+    public void wildcards() {
+        set("*", false);
+        set("plugin.command.*", true);
+        set("plugin.command.home", false);
+        PermissionTrie trie = PermissionTrie.compile(permissions, true);
+        assertEquals(true, trie.lookup("plugin.command.warp", true));
+        assertEquals(true, trie.lookup("plugin.command.warp.other", true));
+        assertEquals(false, trie.lookup("plugin.command.home", true));
+        assertEquals(false, trie.lookup("plugin.command", true));
+        assertEquals(false, trie.lookup("other", true));
+        assertEquals(true, trie.lookup("plugin.command.*", false));
+        assertNull(trie.lookup("plugin.command.warp", false));
+    }
+
+    @Test
+    public void wildcardsOnlyWhereAdded() {
+        set("plugin.command.*", true);
+        PermissionTrie trie = PermissionTrie.compile(permissions, false);
+        assertEquals(true, trie.lookup("plugin.command.*", true));
+        assertNull(trie.lookup("plugin.command.warp", true));
+
+        PermissionTrie updated = trie.update(Map.of("plugin.command.*", true), true);
+        assertEquals(true, updated.lookup("plugin.command.warp", true));
+        updated = updated.update(Map.of("plugin.command.*", true), false);
+        assertNull(updated.lookup("plugin.command.warp", true));
+        assertEquals(true, updated.lookup("plugin.command.*", true));
+    }
+
+    @Test
+    public void nonAsciiNames() {
+        set("plugin.gr\u00f6\u00dfe", true);
+        PermissionTrie trie = PermissionTrie.compile(permissions, false);
+        assertEquals(true, trie.lookup("Plugin.GR\u00d6\u00dfE", false));
+        assertNull(trie.lookup("plugin.grosse", false));
+    }
+}
@@ -0,0 +1,112 @@
+package org.bukkit.plugin;
+
+import org.bukkit.Server;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Solar - whole class
+@ExtendWith(MockitoExtension.class)
+public class SimplePluginManagerTest {
+
+    private final Server server;
+
+    public SimplePluginManagerTest(@Mock Server server) {
+        this.server = server;
+    }
+
+    private static PluginDescriptionFile description(String yaml) throws InvalidDescriptionException {
+        return new PluginDescriptionFile(new StringReader("version: 1.0\nmain: test.Main\n" + yaml));
+    }
+
+    private static Map<String, PluginDescriptionFile> descriptions() throws InvalidDescriptionException {
+        Map<String, PluginDescriptionFile> descriptions = new LinkedHashMap<>();
+        descriptions.put("addon", description("name: addon\ndepend: [core]\nsoftdepend: [extra]\n"));
+        descriptions.put("core", description("name: core\ndepend: [lib]\n"));
+        descriptions.put("lib", description("name: lib\n"));
+        descriptions.put("early", description("name: early\nloadbefore: [lib]\n"));
+        descriptions.put("extra", description("name: extra\n"));
+        for (String name : Arrays.asList("a", "b", "c", "d", "e", "f")) {
+            descriptions.put(name, description("name: " + name + "\n"));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Loads the plugins in parallel, each taking longer the later it appears
+     * in the given order, and checks that every plugin only starts loading
+     * once the plugins it depends on, soft depends on, or loads after have
+     * finished
+     */
+    private List<String> loadInParallel(List<String> slowest) throws Exception {
+        SimplePluginManager pluginManager = new SimplePluginManager(server, null);
+        Map<String, PluginDescriptionFile> descriptions = descriptions();
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        List<String> violations = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Plugin> result;
+        try {
+            result = pluginManager.sortPluginDependencies(descriptions, (name) -> {
+                PluginDescriptionFile description = descriptions.get(name);
+                List<String> before = new ArrayList<>(description.getDepend());
+                before.addAll(description.getSoftDepend());
+                descriptions.values().stream()
+                        .filter((other) -> other.getLoadBefore().contains(name))
+                        .forEach((other) -> before.add(other.getName()));
+                if (!loaded.containsAll(before)) {
+                    violations.add(name + " loaded before " + before);
+                }
+                try {
+                    Thread.sleep(5L * slowest.indexOf(name));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                Plugin plugin = new TestPlugin(name);
+                pluginManager.internalAddPlugin(plugin);
+                loaded.add(name);
+                return plugin;
+            }, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(List.of(), violations);
+        assertEquals(descriptions.keySet(), loaded);
+        // The plugins are registered in the order they were collected, not the order they finished in
+        assertEquals(result, Arrays.asList(pluginManager.getPlugins()));
+        List<String> names = new ArrayList<>(result.size());
+        for (Plugin plugin : result) {
+            names.add(plugin.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void parallelLoadingKeepsLoadOrder() throws Exception {
+        List<String> order = new ArrayList<>(descriptions().keySet());
+        List<String> names = loadInParallel(order);
+        Collections.reverse(order);
+        assertEquals(names, loadInParallel(order));
+
+        // Each of these waits for the previous one in a later wave
+        assertEquals(List.of("lib", "core", "addon"), names.subList(names.size() - 3, names.size()));
+        assertTrue(names.indexOf("early") < names.indexOf("lib"));
+        assertTrue(names.indexOf("extra") < names.indexOf("addon"));
+    }
+}
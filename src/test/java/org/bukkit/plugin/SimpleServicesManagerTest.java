@@ -0,0 +1,82 @@
+package org.bukkit.plugin;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.bukkit.TestServer;
+import org.junit.Test;
+
+// Solar - whole class
+public class SimpleServicesManagerTest {
+    static {
+        TestServer.getInstance();
+    }
+
+    private final SimpleServicesManager manager = new SimpleServicesManager();
+    private final TestPlugin plugin = new TestPlugin("services");
+    private final TestPlugin other = new TestPlugin("other");
+
+    @Test
+    public void testPriorities() {
+        manager.register(CharSequence.class, "normal", plugin, ServicePriority.Normal);
+        manager.register(CharSequence.class, "highest", other, ServicePriority.Highest);
+        manager.register(CharSequence.class, "lowest", plugin, ServicePriority.Lowest);
+
+        assertEquals("highest", manager.load(CharSequence.class));
+        assertEquals(ServicePriority.Highest, manager.getRegistration(CharSequence.class).getPriority());
+        assertEquals(Arrays.asList("highest", "normal", "lowest"), providers(manager.getRegistrations(CharSequence.class)));
+        assertTrue(manager.isProvidedFor(CharSequence.class));
+        assertFalse(manager.isProvidedFor(Runnable.class));
+        assertNull(manager.load(Runnable.class));
+    }
+
+    @Test
+    public void testUnregister() {
+        manager.register(CharSequence.class, "first", plugin, ServicePriority.Normal);
+        manager.register(CharSequence.class, "second", other, ServicePriority.Normal);
+        manager.register(Object.class, "first", plugin, ServicePriority.Normal);
+
+        manager.unregister(CharSequence.class, "first");
+        assertEquals(Arrays.asList("second"), providers(manager.getRegistrations(CharSequence.class)));
+        assertEquals("first", manager.load(Object.class));
+
+        manager.unregisterAll(other);
+        assertFalse(manager.isProvidedFor(CharSequence.class));
+        assertEquals(1, manager.getRegistrations(plugin).size());
+
+        manager.unregister("first");
+        assertTrue(manager.getKnownServices().isEmpty());
+    }
+
+    @Test
+    public void testReference() {
+        ServiceReference<CharSequence> reference = manager.getReference(CharSequence.class);
+        assertSame(reference, manager.getReference(CharSequence.class));
+        assertFalse(reference.isPresent());
+        assertNull(reference.get());
+
+        manager.register(CharSequence.class, "normal", plugin, ServicePriority.Normal);
+        assertEquals("normal", reference.get());
+
+        manager.register(CharSequence.class, "high", other, ServicePriority.High);
+        assertEquals("high", reference.get());
+        assertSame(manager.getRegistration(CharSequence.class), reference.getRegistration());
+
+        manager.unregisterAll(other);
+        assertEquals("normal", reference.get());
+
+        manager.unregister(CharSequence.class, "normal");
+        assertFalse(reference.isPresent());
+    }
+
+    private static List<Object> providers(Collection<? extends RegisteredServiceProvider<?>> registrations) {
+        List<Object> providers = new ArrayList<Object>();
+        for (RegisteredServiceProvider<?> registration : registrations) {
+            providers.add(registration.getProvider());
+        }
+        return providers;
+    }
+}
@@ -0,0 +1,170 @@
+package org.bukkit.plugin.java;
+
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+// Solar - whole class
+@ExtendWith(MockitoExtension.class)
+public class JavaPluginLoaderTest {
+
+    private final Server server;
+    private final PluginManager pluginManager;
+    private final JavaPluginLoader loader;
+
+    public JavaPluginLoaderTest(@Mock Server server, @Mock PluginManager pluginManager) {
+        this.server = server;
+        this.pluginManager = pluginManager;
+        this.loader = new JavaPluginLoader(server);
+    }
+
+    private static byte[] generateClass(String name, String superName) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, superName, null);
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void writeJar(Path file, String classPath, Map<String, byte[]> entries) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+        try (OutputStream output = Files.newOutputStream(file);
+             JarOutputStream jar = new JarOutputStream(output, manifest)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                jar.putNextEntry(new JarEntry(entry.getKey()));
+                jar.write(entry.getValue());
+                jar.closeEntry();
+            }
+        }
+    }
+
+    private static Map<String, byte[]> pluginEntries(String name) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("plugin.yml", ("name: " + name + "\nversion: 1.0\nmain: " + name + ".Main\n").getBytes(StandardCharsets.UTF_8));
+        entries.put(name + "/Main.class", generateClass(name + "/Main", "org/bukkit/plugin/java/JavaPlugin"));
+        return entries;
+    }
+
+    /**
+     * Writes a plugin jar whose main class is {@code <name>.Main}
+     *
+     * @param folder the plugins folder
+     * @param name the plugin name, also its package
+     * @param classPath the manifest Class-Path, or null
+     * @param classes the internal names of further classes to contain
+     * @return the jar
+     */
+    private static Path writePlugin(Path folder, String name, String classPath, String... classes) throws IOException {
+        Map<String, byte[]> entries = pluginEntries(name);
+        for (String className : classes) {
+            entries.put(className + ".class", generateClass(className, "java/lang/Object"));
+        }
+        Path file = folder.resolve(name + ".jar");
+        writeJar(file, classPath, entries);
+        return file;
+    }
+
+    private static ClassLoader classLoaderOf(Plugin plugin) {
+        return plugin.getClass().getClassLoader();
+    }
+
+    @Test
+    public void findThroughOwner(@TempDir Path folder) throws Exception {
+        Plugin first = loader.loadPlugin(writePlugin(folder, "first", null, "first/Only", "shared/Lib").toFile());
+        loader.loadPlugin(writePlugin(folder, "second", null, "shared/Lib").toFile());
+
+        Class<?> only = loader.getClassByName("first.Only");
+        assertNotNull(only);
+        assertEquals(classLoaderOf(first), only.getClassLoader());
+        assertNull(loader.getClassByName("missing.Type"));
+    }
+
+    @Test
+    public void duplicateClassesFollowLoadOrder(@TempDir Path folder) throws Exception {
+        Plugin first = loader.loadPlugin(writePlugin(folder, "first", null, "shared/Lib").toFile());
+        Plugin second = loader.loadPlugin(writePlugin(folder, "second", null, "shared/Lib").toFile());
+
+        // As when the second plugin is collected first but finishes loading last
+        loader.restoreLoadOrder(List.of(second, first));
+        Class<?> lib = loader.getClassByName("shared.Lib");
+        assertNotNull(lib);
+        assertEquals(classLoaderOf(second), lib.getClassLoader());
+    }
+
+    @Test
+    public void fallBackWhenOwnerCannotDefine(@TempDir Path folder) throws Exception {
+        // Without a Multi-Release attribute the versioned entry is indexed but cannot be loaded
+        Map<String, byte[]> entries = pluginEntries("first");
+        entries.put("META-INF/versions/11/shared/Lib.class", generateClass("shared/Lib", "java/lang/Object"));
+        writeJar(folder.resolve("first.jar"), null, entries);
+        loader.loadPlugin(folder.resolve("first.jar").toFile());
+        Plugin second = loader.loadPlugin(writePlugin(folder, "second", null, "shared/Lib").toFile());
+
+        Class<?> lib = loader.getClassByName("shared.Lib");
+        assertNotNull(lib);
+        assertEquals(classLoaderOf(second), lib.getClassLoader());
+    }
+
+    @Test
+    public void removeDisabledPlugin(@TempDir Path folder) throws Exception {
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        Plugin first = loader.loadPlugin(writePlugin(folder, "first", null, "first/Only", "shared/Lib").toFile());
+        Plugin second = loader.loadPlugin(writePlugin(folder, "second", null, "shared/Lib").toFile());
+        assertEquals(classLoaderOf(first), loader.getClassByName("shared.Lib").getClassLoader());
+        assertNotNull(loader.getClassByName("first.Only"));
+
+        loader.enablePlugin(first);
+        loader.disablePlugin(first);
+        assertNull(loader.getClassByName("first.Only"));
+        Class<?> lib = loader.getClassByName("shared.Lib");
+        assertNotNull(lib);
+        assertEquals(classLoaderOf(second), lib.getClassLoader());
+    }
+
+    @Test
+    public void findOnManifestClassPath(@TempDir Path folder) throws Exception {
+        writeJar(folder.resolve("library.jar"), null, Map.of("library/Util.class", generateClass("library/Util", "java/lang/Object")));
+        Plugin plugin = loader.loadPlugin(writePlugin(folder, "first", "library.jar").toFile());
+
+        Class<?> util = loader.getClassByName("library.Util");
+        assertNotNull(util);
+        assertEquals(classLoaderOf(plugin), util.getClassLoader());
+        assertNull(loader.getClassByName("missing.Type"));
+    }
+}
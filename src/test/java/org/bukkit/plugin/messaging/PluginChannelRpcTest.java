@@ -0,0 +1,176 @@
+package org.bukkit.plugin.messaging;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.TestPlugin;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+// Solar - whole class
+public class PluginChannelRpcTest {
+    private static final RpcMethod<String, Integer> LENGTH = RpcMethod.of("length", RpcCodec.string(), RpcCodec.integer());
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final StandardMessenger server = new StandardMessenger();
+    private final StandardMessenger proxy = new StandardMessenger();
+    private final PluginChannelRpc serverRpc = PluginChannelRpc.open(new TestPlugin("server"), server, "test:rpc");
+    private final PluginChannelRpc proxyRpc = PluginChannelRpc.open(new TestPlugin("proxy"), proxy, "test:rpc");
+    // The connection of a player as seen by the server and by the proxy
+    private final Player[] connection = new Player[2];
+
+    public PluginChannelRpcTest() {
+        connection[0] = connect("server", proxy, 1);
+        connection[1] = connect("proxy", server, 0);
+    }
+
+    private Player connect(String name, Messenger peer, int peerIndex) {
+        return (Player) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Player.class}, (instance, method, args) -> {
+            switch (method.getName()) {
+                case "sendPluginMessage":
+                    ByteBuffer message = (args[2] instanceof ByteBuffer) ? (ByteBuffer) args[2] : ByteBuffer.wrap((byte[]) args[2]);
+                    peer.dispatchIncomingMessage(connection[peerIndex], (String) args[1], message);
+                    return null;
+                case "getName":
+                    return name;
+                case "hashCode":
+                    return System.identityHashCode(instance);
+                case "equals":
+                    return instance == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private void flush() {
+        server.flushQueuedPluginMessages();
+        proxy.flushQueuedPluginMessages();
+    }
+
+    @Test
+    public void testPipelinedCalls() throws Exception {
+        proxyRpc.handle(LENGTH, (player, request) -> CompletableFuture.completedFuture(request.length()));
+        List<CompletableFuture<Integer>> calls = new ArrayList<CompletableFuture<Integer>>();
+
+        for (int i = 0; i < 100; i++) {
+            calls.add(serverRpc.call(connection[0], LENGTH, "x".repeat(i), TIMEOUT));
+        }
+        assertThat(serverRpc.getPendingCalls(), is(100));
+        flush();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(calls.get(i).getNow(-1), is(i));
+        }
+        assertThat(serverRpc.getPendingCalls(), is(0));
+        assertThat(server.getChannelStatistics().get("test:rpc").outgoingPackets(), is(1L));
+        assertThat(proxy.getChannelStatistics().get("test:rpc").outgoingPackets(), is(1L));
+    }
+
+    @Test
+    public void testDelayedResponse() throws Exception {
+        CompletableFuture<Integer> response = new CompletableFuture<Integer>();
+        proxyRpc.handle(LENGTH, (player, request) -> response);
+
+        CompletableFuture<Integer> call = serverRpc.call(connection[0], LENGTH, "foo", TIMEOUT);
+        flush();
+        assertFalse(call.isDone());
+
+        response.complete(3);
+        flush();
+        assertThat(call.get(), is(3));
+    }
+
+    @Test
+    public void testFailedCall() throws Exception {
+        proxyRpc.handle(LENGTH, (player, request) -> {
+            throw new IllegalStateException("Cannot measure " + request);
+        });
+
+        CompletableFuture<Integer> failed = serverRpc.call(connection[0], LENGTH, "foo", TIMEOUT);
+        CompletableFuture<String> unknown = serverRpc.call(connection[0], RpcMethod.of("unknown", RpcCodec.none(), RpcCodec.string()), null, TIMEOUT);
+        flush();
+
+        assertFailure(failed, RpcException.class, "Cannot measure foo");
+        assertFailure(unknown, RpcException.class, "Method unknown is not handled on channel test:rpc");
+    }
+
+    @Test
+    public void testCallsBothWays() throws Exception {
+        serverRpc.handle(LENGTH, (player, request) -> CompletableFuture.completedFuture(-request.length()));
+        proxyRpc.handle(LENGTH, (player, request) -> CompletableFuture.completedFuture(request.length()));
+
+        CompletableFuture<Integer> fromServer = serverRpc.call(connection[0], LENGTH, "foo", TIMEOUT);
+        CompletableFuture<Integer> fromProxy = proxyRpc.call(connection[1], LENGTH, "foobar", TIMEOUT);
+        flush();
+        // The server responds to the proxy with its next flush
+        flush();
+
+        assertThat(fromServer.get(), is(3));
+        assertThat(fromProxy.get(), is(-6));
+    }
+
+    @Test
+    public void testResponseFromOtherPlayer() throws Exception {
+        CompletableFuture<Integer> response = new CompletableFuture<Integer>();
+        proxyRpc.handle(LENGTH, (player, request) -> response);
+        int[] requestId = new int[1];
+        proxy.registerIncomingPluginChannel(new TestPlugin("spy"), "test:rpc", PluginMessageBatch.unbatching((PluginMessageBufferListener) (channel, player, message) -> {
+            requestId[0] = message.getInt(message.position() + 1);
+        }));
+
+        CompletableFuture<Integer> call = serverRpc.call(connection[0], LENGTH, "foo", TIMEOUT);
+        flush();
+        // Another player answers the call first
+        Player other = connect("other", proxy, 1);
+        ByteBuffer forged = ByteBuffer.allocate(9).put((byte) 1).putInt(requestId[0]).putInt(42);
+        server.dispatchIncomingMessage(other, "test:rpc", PluginMessageBatch.of(forged.flip()));
+        assertFalse(call.isDone());
+
+        response.complete(3);
+        flush();
+        assertThat(call.get(), is(3));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        proxyRpc.handle(LENGTH, (player, request) -> new CompletableFuture<Integer>());
+
+        CompletableFuture<Integer> call = serverRpc.call(connection[0], LENGTH, "foo", Duration.ofMillis(10));
+        flush();
+
+        assertFailure(call, TimeoutException.class, null);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        proxyRpc.handle(LENGTH, (player, request) -> CompletableFuture.completedFuture(request.length()));
+        CompletableFuture<Integer> call = serverRpc.call(connection[0], LENGTH, "foo", TIMEOUT);
+
+        serverRpc.close();
+        flush();
+
+        assertFailure(call, IllegalStateException.class, "Channel test:rpc is closed");
+        assertTrue(server.getIncomingChannels().isEmpty());
+        assertTrue(server.getOutgoingChannels().isEmpty());
+    }
+
+    private static void assertFailure(CompletableFuture<?> call, Class<? extends Throwable> type, String message) throws InterruptedException {
+        try {
+            call.get();
+            fail("Call did not fail");
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause(), is(instanceOf(type)));
+            if (message != null) {
+                assertThat(ex.getCause().getMessage(), is(message));
+            }
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package org.bukkit.plugin.messaging;
 
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin; // Solar
 import org.bukkit.plugin.TestPlugin;
+import java.nio.ByteBuffer; // Solar
+import java.util.ArrayList; // Solar
 import java.util.Collection;
+import java.util.Collections; // Solar
+import java.util.List; // Solar
+import java.util.Set; // Solar
 import org.junit.Test;
 import static org.junit.Assert.*;
 import static org.hamcrest.CoreMatchers.*;
@@ -282,8 +288,138 @@ public class StandardMessengerTest {
         assertEquals(messenger.getIncomingChannelRegistrations(plugin3, "qux"));
     }
 
+    // Solar start
+    @Test
+    public void testUnregisterDuringDispatch() {
+        final Messenger messenger = getMessenger();
+        final TestPlugin plugin = getPlugin();
+        final TestMessageListener listener = new TestMessageListener("foo", "bar".getBytes());
+        Player player = TestPlayer.getInstance();
+        messenger.registerIncomingPluginChannel(plugin, "foo", new PluginMessageListener() {
+            @Override
+            public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+                messenger.unregisterIncomingPluginChannel(plugin);
+            }
+        });
+        messenger.registerIncomingPluginChannel(plugin, "foo", listener);
+
+        // Listeners registered when the message arrived still receive it
+        messenger.dispatchIncomingMessage(player, "foo", "bar".getBytes());
+        assertTrue(listener.hasReceived());
+        assertFalse(messenger.isIncomingChannelRegistered(plugin, "foo"));
+        assertEquals(messenger.getIncomingChannels());
+    }
+
+    @Test
+    public void testUnregisterOneOutgoingPluginChannel() {
+        Messenger messenger = getMessenger();
+        TestPlugin plugin = getPlugin();
+        messenger.registerOutgoingPluginChannel(plugin, "foo");
+        messenger.registerOutgoingPluginChannel(plugin, "bar");
+
+        messenger.unregisterOutgoingPluginChannel(plugin, "foo");
+        assertEquals(messenger.getOutgoingChannels(plugin), "bar");
+        assertEquals(messenger.getOutgoingChannels(), "bar");
+
+        messenger.unregisterOutgoingPluginChannel(plugin, "bar");
+        assertEquals(messenger.getOutgoingChannels(plugin));
+        assertEquals(messenger.getOutgoingChannels());
+    }
+
+    @Test
+    public void testDispatchBuffer() {
+        Messenger messenger = getMessenger();
+        TestPlugin plugin = getPlugin();
+        TestMessageListener listener = new TestMessageListener("foo", "bar".getBytes());
+        final ByteBuffer[] received = new ByteBuffer[1];
+        messenger.registerIncomingPluginChannel(plugin, "foo", listener);
+        messenger.registerIncomingPluginChannel(plugin, "foo", new PluginMessageBufferListener() {
+            @Override
+            public void onPluginMessageReceived(String channel, Player player, ByteBuffer message) {
+                received[0] = message;
+            }
+        });
+        ByteBuffer message = ByteBuffer.wrap("foobar".getBytes(), 3, 3);
+
+        messenger.dispatchIncomingMessage(TestPlayer.getInstance(), "foo", message);
+
+        assertTrue(listener.hasReceived());
+        assertTrue(received[0].isReadOnly());
+        assertThat(received[0], is(message));
+        assertThat(message.position(), is(3));
+    }
+    // Solar end
+
     private static <T> void assertEquals(Collection<T> actual, T... expected) {
         assertThat("Size of the array", actual.size(), is(expected.length));
         assertThat(actual, hasItems(expected));
     }
+
+    @Test
+    public void testQueuePluginMessages() {
+        StandardMessenger messenger = getMessenger();
+        TestPlugin plugin = getPlugin();
+        final List<ByteBuffer> sent = new ArrayList<ByteBuffer>();
+        PluginMessageRecipient recipient = new PluginMessageRecipient() {
+            @Override
+            public void sendPluginMessage(Plugin source, String channel, byte[] message) {
+                sent.add(ByteBuffer.wrap(message));
+            }
+
+            @Override
+            public Set<String> getListeningPluginChannels() {
+                return Collections.emptySet();
+            }
+        };
+        messenger.registerOutgoingPluginChannel(plugin, "foo");
+
+        messenger.queuePluginMessage(plugin, recipient, "foo", "foo".getBytes());
+        messenger.queuePluginMessage(plugin, recipient, "foo", new byte[0]);
+        messenger.queuePluginMessage(plugin, recipient, "foo", new byte[200]);
+        assertTrue(sent.isEmpty());
+        messenger.flushQueuedPluginMessages();
+
+        assertThat(sent.size(), is(1));
+        final List<ByteBuffer> messages = new ArrayList<ByteBuffer>();
+        PluginMessageBatch.forEach(sent.get(0), messages::add);
+        assertThat(messages.size(), is(3));
+        assertThat(messages.get(0), is(ByteBuffer.wrap("foo".getBytes())));
+        assertThat(messages.get(1).remaining(), is(0));
+        assertThat(messages.get(2), is(ByteBuffer.wrap(new byte[200])));
+
+        messenger.flushQueuedPluginMessages();
+        assertThat(sent.size(), is(1));
+        assertThat(messenger.getChannelStatistics().get("foo"), is(new PluginChannelStatistics(0, 0, 3, 203, 1)));
+    }
+
+    @Test
+    public void testUnregisterDiscardsQueuedPluginMessages() {
+        StandardMessenger messenger = getMessenger();
+        TestPlugin plugin = getPlugin();
+        final List<String> sent = new ArrayList<String>();
+        PluginMessageRecipient recipient = new PluginMessageRecipient() {
+            @Override
+            public void sendPluginMessage(Plugin source, String channel, byte[] message) {
+                sent.add(channel);
+            }
+
+            @Override
+            public Set<String> getListeningPluginChannels() {
+                return Collections.emptySet();
+            }
+        };
+        messenger.registerOutgoingPluginChannel(plugin, "foo");
+        messenger.registerOutgoingPluginChannel(plugin, "bar");
+
+        messenger.queuePluginMessage(plugin, recipient, "foo", "foo".getBytes());
+        messenger.queuePluginMessage(plugin, recipient, "bar", "bar".getBytes());
+        messenger.unregisterOutgoingPluginChannel(plugin, "foo");
+        messenger.flushQueuedPluginMessages();
+        assertThat(sent, is(Collections.singletonList("bar")));
+
+        messenger.queuePluginMessage(plugin, recipient, "bar", "bar".getBytes());
+        messenger.unregisterOutgoingPluginChannel(plugin);
+        messenger.flushQueuedPluginMessages();
+        assertThat(sent.size(), is(1));
+    }
 }
@@ -0,0 +1,110 @@
+package org.bukkit.scheduler;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark harness for delayed task scheduling which can be run against any
+ * {@link BukkitScheduler} implementation. It is not run as part of the test
+ * suite; implementations are expected to call {@link #run(BukkitScheduler, Plugin, Plugin, Runnable, int, int, long)}
+ * from their own tests with a means of driving the scheduler's heartbeat.
+ * <p>
+ * The workload mirrors cooldown-heavy plugins: many {@code runTaskLater}
+ * tasks with scattered delays, a portion cancelled individually, and one
+ * plugin's tasks cancelled in bulk.
+ */
+// Solar - whole class
+public final class SchedulerBenchmark {
+
+    private SchedulerBenchmark() { }
+
+    /**
+     * Timings of a single benchmark run, in nanoseconds
+     *
+     * @param tasks the number of scheduled tasks
+     * @param scheduleNanos time spent scheduling all tasks
+     * @param cancelNanos time spent cancelling every fourth task individually
+     * @param cancelTasksNanos time spent in {@link BukkitScheduler#cancelTasks(Plugin)}
+     * @param heartbeatNanos time spent running heartbeats until every remaining task ran
+     * @param ran the number of tasks which actually ran
+     * @param expected the number of tasks which should have run
+     */
+    public record Result(int tasks, long scheduleNanos, long cancelNanos, long cancelTasksNanos,
+                         long heartbeatNanos, int ran, int expected) {
+
+        /**
+         * Whether exactly the non-cancelled tasks ran
+         *
+         * @return true if the scheduler behaved correctly
+         */
+        public boolean isCorrect() {
+            return ran == expected;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d tasks: schedule %.1f ns/task, cancel %.1f ns/task, cancelTasks %.3f ms, heartbeat %.3f ms (ran %d of %d)",
+                    tasks, (double) scheduleNanos / tasks, cancelNanos / (tasks / 4.0),
+                    cancelTasksNanos / 1e6, heartbeatNanos / 1e6, ran, expected);
+        }
+    }
+
+    /**
+     * Runs the benchmark once. Half the tasks are owned by {@code plugin},
+     * the other half by {@code otherPlugin}, whose tasks are all cancelled
+     * through {@link BukkitScheduler#cancelTasks(Plugin)}
+     *
+     * @param scheduler the scheduler implementation
+     * @param plugin the plugin whose tasks run to completion
+     * @param otherPlugin the plugin whose tasks are cancelled in bulk
+     * @param heartbeat runs a single tick of the scheduler
+     * @param tasks the number of tasks to schedule
+     * @param maxDelay the maximum delay in ticks
+     * @param seed the random seed for delays
+     * @return the result
+     */
+    public static Result run(BukkitScheduler scheduler, Plugin plugin, Plugin otherPlugin, Runnable heartbeat,
+                             int tasks, int maxDelay, long seed) {
+        Random random = new Random(seed);
+        AtomicInteger ran = new AtomicInteger();
+        Runnable task = ran::incrementAndGet;
+        List<BukkitTask> scheduled = new ArrayList<>(tasks);
+
+        long start = System.nanoTime();
+        for (int n = 0; n < tasks; n++) {
+            Plugin owner = (n % 2 == 0) ? plugin : otherPlugin;
+            scheduled.add(scheduler.runTaskLater(owner, task, 1 + random.nextInt(maxDelay)));
+        }
+        long scheduleNanos = System.nanoTime() - start;
+
+        // Cancel every fourth task, which are all owned by plugin
+        int expected = 0;
+        start = System.nanoTime();
+        for (int n = 0; n < tasks; n += 4) {
+            scheduled.get(n).cancel();
+        }
+        long cancelNanos = System.nanoTime() - start;
+        for (int n = 0; n < tasks; n += 2) {
+            if (n % 4 != 0) {
+                expected++;
+            }
+        }
+
+        start = System.nanoTime();
+        scheduler.cancelTasks(otherPlugin);
+        long cancelTasksNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int tick = 0; tick <= maxDelay; tick++) {
+            heartbeat.run();
+        }
+        long heartbeatNanos = System.nanoTime() - start;
+
+        return new Result(tasks, scheduleNanos, cancelNanos, cancelTasksNanos, heartbeatNanos, ran.get(), expected);
+    }
+}
@@ -0,0 +1,129 @@
+package org.bukkit.scheduler.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Solar - whole class
+public class TimingWheelTest {
+
+    private record Entry(long deadline, int id) { }
+
+    @Test
+    public void expiresOnDeadline() {
+        TimingWheel<String, Entry> wheel = new TimingWheel<>(0);
+        Random random = new Random(1234L);
+        List<TimingWheel.Timer<String, Entry>> timers = new ArrayList<>();
+        for (int n = 0; n < 20_000; n++) {
+            // Mix of short and long delays to exercise every cascading level in reach
+            long delay = (n % 3 == 0) ? random.nextInt(64) : random.nextInt(300_000);
+            timers.add(wheel.schedule("owner" + (n % 7), new Entry(delay == 0 ? 1 : delay, n), delay));
+        }
+        assertEquals(timers.size(), wheel.size());
+        int[] expired = new int[1];
+        wheel.advanceTo(300_000, (entry) -> {
+            assertEquals(entry.deadline(), wheel.currentTick());
+            expired[0]++;
+        });
+        assertEquals(timers.size(), expired[0]);
+        assertEquals(0, wheel.size());
+        for (TimingWheel.Timer<String, Entry> timer : timers) {
+            assertFalse(timer.isPending());
+        }
+    }
+
+    @Test
+    public void sameTickPreservesOrder() {
+        TimingWheel<String, Integer> wheel = new TimingWheel<>(100);
+        for (int n = 0; n < 10; n++) {
+            wheel.schedule("owner", n, 5_000);
+        }
+        List<Integer> order = new ArrayList<>();
+        wheel.advanceTo(5_100, order::add);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), order);
+    }
+
+    @Test
+    public void cancel() {
+        TimingWheel<String, Integer> wheel = new TimingWheel<>(0);
+        TimingWheel.Timer<String, Integer> first = wheel.schedule("owner", 1, 10);
+        TimingWheel.Timer<String, Integer> second = wheel.schedule("owner", 2, 10);
+        TimingWheel.Timer<String, Integer> third = wheel.schedule("owner", 3, 10);
+        assertTrue(wheel.cancel(second));
+        assertFalse(wheel.cancel(second));
+        List<Integer> expired = new ArrayList<>();
+        wheel.advanceTo(10, expired::add);
+        assertEquals(List.of(1, 3), expired);
+        assertFalse(first.isPending());
+        assertFalse(third.isPending());
+        assertFalse(wheel.cancel(first));
+    }
+
+    @Test
+    public void cancelAllOnlyVisitsOwner() {
+        TimingWheel<String, Integer> wheel = new TimingWheel<>(0);
+        for (int n = 0; n < 100; n++) {
+            wheel.schedule((n % 2 == 0) ? "even" : "odd", n, n * 1_000L);
+        }
+        List<Integer> cancelled = new ArrayList<>();
+        assertEquals(50, wheel.cancelAll("even", cancelled::add));
+        assertEquals(50, cancelled.size());
+        assertTrue(cancelled.stream().allMatch((n) -> n % 2 == 0));
+        assertEquals(0, wheel.cancelAll("even", cancelled::add));
+
+        List<Integer> expired = new ArrayList<>();
+        wheel.advanceTo(100_000, expired::add);
+        assertEquals(50, expired.size());
+        assertTrue(expired.stream().allMatch((n) -> n % 2 == 1));
+    }
+
+    @Test
+    public void cancelFromCallback() {
+        TimingWheel<String, Integer> wheel = new TimingWheel<>(0);
+        List<TimingWheel.Timer<String, Integer>> timers = new ArrayList<>();
+        for (int n = 0; n < 3; n++) {
+            timers.add(wheel.schedule("owner", n, 10));
+        }
+        TimingWheel.Timer<String, Integer> later = wheel.schedule("owner", 3, 20);
+        List<Integer> expired = new ArrayList<>();
+        wheel.advanceTo(10, (n) -> {
+            expired.add(n);
+            if (n == 0) {
+                // Timers due on the same tick have already expired
+                assertFalse(wheel.cancel(timers.get(1)));
+                assertFalse(wheel.cancel(timers.get(2)));
+                assertTrue(wheel.cancel(later));
+            }
+        });
+        assertEquals(List.of(0, 1, 2), expired);
+        assertEquals(0, wheel.size());
+        assertEquals(0, wheel.advanceTo(30, expired::add));
+    }
+
+    @Test
+    public void cancelAllFromCallback() {
+        TimingWheel<String, Integer> wheel = new TimingWheel<>(0);
+        for (int n = 0; n < 3; n++) {
+            wheel.schedule("owner", n, 10);
+            wheel.schedule("owner", 10 + n, 20);
+        }
+        wheel.schedule("other", 100, 10);
+        List<Integer> expired = new ArrayList<>();
+        List<Integer> cancelled = new ArrayList<>();
+        wheel.advanceTo(10, (n) -> {
+            expired.add(n);
+            if (n == 0) {
+                assertEquals(3, wheel.cancelAll("owner", cancelled::add));
+            }
+        });
+        assertEquals(List.of(0, 1, 2, 100), expired);
+        assertEquals(List.of(12, 11, 10), cancelled);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,103 @@
+package org.bukkit.util.noise;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+// Solar - whole class
+public class NoiseGeneratorTest {
+    private static final double X = -20.3, Y = 3.1, Z = 7.75;
+    private static final double STEP_X = 0.37, STEP_Y = 0.05, STEP_Z = 1.3;
+    private static final int SIZE_X = 5, SIZE_Y = 40, SIZE_Z = 3;
+
+    @Test
+    public void testPerlinNoise() {
+        assertBulkNoise(new PerlinNoiseGenerator(42));
+    }
+
+    @Test
+    public void testSimplexNoise() {
+        assertBulkNoise(new SimplexNoiseGenerator(42));
+    }
+
+    @Test
+    public void testOverriddenNoise() {
+        // Bulk noise must follow the overridden single sample methods
+        assertBulkNoise(new PerlinNoiseGenerator(42) {
+            @Override
+            public double noise(double x, double y, double z) {
+                return x * y - z;
+            }
+        });
+    }
+
+    @Test
+    public void testOctaveNoise() {
+        OctaveGenerator perlin = new PerlinOctaveGenerator(42, 4);
+        perlin.setXScale(0.5);
+        perlin.setZScale(2);
+        assertBulkNoise(perlin);
+        assertBulkNoise(new SimplexOctaveGenerator(42, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutputTooSmall() {
+        new PerlinNoiseGenerator(42).noise(new double[99], X, Y, Z, STEP_X, STEP_Y, STEP_Z, 10, 10, 1);
+    }
+
+    private static void assertBulkNoise(NoiseGenerator generator) {
+        double[] output = new double[SIZE_X * SIZE_Y * SIZE_Z];
+
+        generator.noise(output, X, Y, STEP_X, STEP_Y, SIZE_X, SIZE_Y);
+        for (int i = 0; i < SIZE_X; i++) {
+            for (int j = 0; j < SIZE_Y; j++) {
+                assertEquals(generator.noise(X + i * STEP_X, Y + j * STEP_Y), output[i * SIZE_Y + j], 0);
+            }
+        }
+
+        generator.noise(output, X, Y, STEP_X, STEP_Y, SIZE_X, SIZE_Y, 3, 2, 0.5, true);
+        for (int i = 0; i < SIZE_X; i++) {
+            for (int j = 0; j < SIZE_Y; j++) {
+                assertEquals(generator.noise(X + i * STEP_X, Y + j * STEP_Y, 3, 2, 0.5, true), output[i * SIZE_Y + j], 0);
+            }
+        }
+
+        generator.noise(output, X, Y, Z, STEP_X, STEP_Y, STEP_Z, SIZE_X, SIZE_Y, SIZE_Z);
+        for (int i = 0; i < SIZE_X; i++) {
+            for (int j = 0; j < SIZE_Y; j++) {
+                for (int k = 0; k < SIZE_Z; k++) {
+                    assertEquals(generator.noise(X + i * STEP_X, Y + j * STEP_Y, Z + k * STEP_Z), output[(i * SIZE_Z + k) * SIZE_Y + j], 0);
+                }
+            }
+        }
+
+        generator.noise(output, X, Y, Z, STEP_X, STEP_Y, STEP_Z, SIZE_X, SIZE_Y, SIZE_Z, 3, 2, 0.5, false);
+        for (int i = 0; i < SIZE_X; i++) {
+            for (int j = 0; j < SIZE_Y; j++) {
+                for (int k = 0; k < SIZE_Z; k++) {
+                    assertEquals(generator.noise(X + i * STEP_X, Y + j * STEP_Y, Z + k * STEP_Z, 3, 2, 0.5, false), output[(i * SIZE_Z + k) * SIZE_Y + j], 0);
+                }
+            }
+        }
+    }
+
+    private static void assertBulkNoise(OctaveGenerator generator) {
+        double[] output = new double[SIZE_X * SIZE_Y * SIZE_Z];
+
+        generator.noise(output, X, Y, STEP_X, STEP_Y, SIZE_X, SIZE_Y, 2, 0.5, true);
+        for (int i = 0; i < SIZE_X; i++) {
+            for (int j = 0; j < SIZE_Y; j++) {
+                assertEquals(generator.noise(X + i * STEP_X, Y + j * STEP_Y, 2, 0.5, true), output[i * SIZE_Y + j], 0);
+            }
+        }
+
+        generator.noise(output, X, Y, Z, STEP_X, STEP_Y, STEP_Z, SIZE_X, SIZE_Y, SIZE_Z, 2, 0.5, false);
+        for (int i = 0; i < SIZE_X; i++) {
+            for (int j = 0; j < SIZE_Y; j++) {
+                for (int k = 0; k < SIZE_Z; k++) {
+                    assertEquals(generator.noise(X + i * STEP_X, Y + j * STEP_Y, Z + k * STEP_Z, 2, 0.5, false), output[(i * SIZE_Z + k) * SIZE_Y + j], 0);
+                }
+            }
+        }
+    }
+}